@@ -0,0 +1,330 @@
+package ca.uqam.xoxinternals.codec;
+
+import ca.uqam.xoxinternals.controller.LogicException;
+import ca.uqam.xoxinternals.controller.Ranking;
+import ca.uqam.xoxinternals.controller.XoxClaimFieldAction;
+import ca.uqam.xoxinternals.model.BoardReadOnly;
+import ca.uqam.xoxinternals.model.BoardSnapshot;
+import ca.uqam.xoxinternals.model.Player;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact, versioned binary encoding of boards, actions, players and rankings. All methods encode
+ * straight into and decode straight out of ByteBuffers, at their current position. No intermediate
+ * strings are built.
+ *
+ * <p>Every encoded value starts with a header byte holding the format version (high nibble) and the
+ * value type (low nibble). The payload formats are:
+ * <ul>
+ *   <li>Board: the position index (base-3 cell assignment, see BoardReadOnly) as 2 bytes.</li>
+ *   <li>Player: name and preferred colour as strings.</li>
+ *   <li>Action: the cell index (3 * ypos + xpos) as 1 byte, then the player payload.</li>
+ *   <li>Ranking: game-over flag as 1 byte, player count as varint, then per player the player
+ *   payload and the score as zig-zag varint.</li>
+ * </ul>
+ * Strings are encoded as varint (UTF-8 length + 1) followed by the UTF-8 bytes, a length of 0
+ * encodes null. Varints use 7 bits per byte, least significant group first. Game ids and other
+ * numbers exchanged alongside encoded values can use the public varint methods.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public final class XoxBinaryCodec {
+  // Current format version. Decoders reject any other version.
+  public static final int VERSION = 1;
+  private static final int BOARD = 1;
+  private static final int ACTION = 2;
+  private static final int PLAYER = 3;
+  private static final int RANKING = 4;
+  // Largest position index, all cells claimed by the second player.
+  private static final int MAX_POSITION_INDEX = 19682;
+
+  /**
+   * Private constructor, no instances of this utility class.
+   */
+  private XoxBinaryCodec() {
+  }
+
+  /**
+   * Encodes a board as 3 bytes: header and position index.
+   *
+   * @param board  as the board to encode.
+   * @param target as the buffer to write to.
+   */
+  public static void encodeBoard(BoardReadOnly board, ByteBuffer target) {
+    putHeader(target, BOARD);
+    target.putShort((short) board.getPositionIndex());
+  }
+
+  /**
+   * Decodes a board.
+   *
+   * @param source as the buffer to read from.
+   * @return immutable board with the decoded cells, at version 0.
+   * @throws IllegalArgumentException in case the buffer does not hold a board of this version.
+   */
+  public static BoardSnapshot decodeBoard(ByteBuffer source) {
+    checkHeader(source, BOARD);
+    int positionIndex = source.getShort() & 0xFFFF;
+    if (positionIndex > MAX_POSITION_INDEX) {
+      throw new IllegalArgumentException("Unable to decode board. Position index out of range.");
+    }
+    int firstCells = 0;
+    int secondCells = 0;
+    for (int cell = 0; cell < 9; cell++) {
+      int occupant = positionIndex % 3;
+      positionIndex /= 3;
+      if (occupant == 1) {
+        firstCells |= 1 << cell;
+      } else if (occupant == 2) {
+        secondCells |= 1 << cell;
+      }
+    }
+    return new BoardSnapshot(firstCells, secondCells, 0);
+  }
+
+  /**
+   * Encodes a player.
+   *
+   * @param player as the player to encode.
+   * @param target as the buffer to write to.
+   */
+  public static void encodePlayer(Player player, ByteBuffer target) {
+    putHeader(target, PLAYER);
+    putPlayer(player, target);
+  }
+
+  /**
+   * Decodes a player.
+   *
+   * @param source as the buffer to read from.
+   * @return a new player object.
+   * @throws IllegalArgumentException in case the buffer does not hold a player of this version.
+   */
+  public static Player decodePlayer(ByteBuffer source) {
+    checkHeader(source, PLAYER);
+    return getPlayer(source);
+  }
+
+  /**
+   * Encodes a claim-field action.
+   *
+   * @param action as the action to encode.
+   * @param target as the buffer to write to.
+   */
+  public static void encodeAction(XoxClaimFieldAction action, ByteBuffer target) {
+    putHeader(target, ACTION);
+    target.put((byte) (3 * action.getY() + action.getX()));
+    putPlayer(action.getPlayer(), target);
+  }
+
+  /**
+   * Decodes a claim-field action.
+   *
+   * @param source as the buffer to read from.
+   * @return a new action object, bound to a new player object.
+   * @throws IllegalArgumentException in case the buffer does not hold an action of this version.
+   */
+  public static XoxClaimFieldAction decodeAction(ByteBuffer source) {
+    checkHeader(source, ACTION);
+    int cell = source.get() & 0xFF;
+    if (cell > 8) {
+      throw new IllegalArgumentException("Unable to decode action. Cell out of range.");
+    }
+    try {
+      return new XoxClaimFieldAction(cell % 3, cell / 3, getPlayer(source));
+    } catch (LogicException e) {
+      throw new IllegalArgumentException("Unable to decode action. Cell out of range.", e);
+    }
+  }
+
+  /**
+   * Encodes a ranking.
+   *
+   * @param ranking as the ranking to encode.
+   * @param target  as the buffer to write to.
+   */
+  public static void encodeRanking(Ranking ranking, ByteBuffer target) {
+    putHeader(target, RANKING);
+    int count = ranking.getPlayerCount();
+    target.put((byte) (ranking.isGameOver() ? 1 : 0));
+    putVarLong(count, target);
+    for (int i = 0; i < count; i++) {
+      putString(ranking.getPlayerName(i), target);
+      putString(ranking.getPlayerColour(i), target);
+      putVarLong(zigZag(ranking.getScore(i)), target);
+    }
+  }
+
+  /**
+   * Decodes a ranking.
+   *
+   * @param source as the buffer to read from.
+   * @return a new ranking object.
+   * @throws IllegalArgumentException in case the buffer does not hold a ranking of this version.
+   */
+  public static Ranking decodeRanking(ByteBuffer source) {
+    checkHeader(source, RANKING);
+    boolean gameOver = source.get() != 0;
+    long count = getVarLong(source);
+    if (count > source.remaining()) {
+      throw new IllegalArgumentException("Unable to decode ranking. Player count out of range.");
+    }
+    Player[] players = new Player[(int) count];
+    int[] scores = new int[players.length];
+    for (int i = 0; i < players.length; i++) {
+      players[i] = getPlayer(source);
+      long encoded = getVarLong(source);
+      scores[i] = (int) (encoded >>> 1 ^ -(encoded & 1));
+    }
+    return new Ranking(players, scores, gameOver);
+  }
+
+  /**
+   * Writes a non-negative number as varint, using 1 to 9 bytes for numbers below 2^63.
+   *
+   * @param value  as the number to write. Negative numbers take 10 bytes.
+   * @param target as the buffer to write to.
+   */
+  public static void putVarLong(long value, ByteBuffer target) {
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      target.put((byte) (remaining & 0x7F | 0x80));
+      remaining >>>= 7;
+    }
+    target.put((byte) remaining);
+  }
+
+  /**
+   * Reads a varint.
+   *
+   * @param source as the buffer to read from.
+   * @return the decoded number.
+   * @throws IllegalArgumentException in case the varint is longer than 10 bytes.
+   */
+  public static long getVarLong(ByteBuffer source) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte next = source.get();
+      value |= (long) (next & 0x7F) << shift;
+      if (next >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Unable to decode varint. Too many bytes.");
+  }
+
+  private static void putHeader(ByteBuffer target, int type) {
+    target.put((byte) (VERSION << 4 | type));
+  }
+
+  private static void checkHeader(ByteBuffer source, int type) {
+    int header = source.get() & 0xFF;
+    if (header >>> 4 != VERSION) {
+      throw new IllegalArgumentException(
+          "Unable to decode value. Unsupported format version: " + (header >>> 4));
+    }
+    if ((header & 0xF) != type) {
+      throw new IllegalArgumentException(
+          "Unable to decode value. Unexpected value type: " + (header & 0xF));
+    }
+  }
+
+  private static void putPlayer(Player player, ByteBuffer target) {
+    putString(player.getName(), target);
+    putString(player.getPreferredColour(), target);
+  }
+
+  private static Player getPlayer(ByteBuffer source) {
+    return new Player(getString(source), getString(source));
+  }
+
+  private static long zigZag(int value) {
+    return (value << 1 ^ value >> 31) & 0xFFFFFFFFL;
+  }
+
+  /**
+   * Writes a string as varint length + 1 and UTF-8 bytes, encoding the characters directly.
+   */
+  private static void putString(String value, ByteBuffer target) {
+    if (value == null) {
+      target.put((byte) 0);
+      return;
+    }
+    int length = value.length();
+    int utf8Length = 0;
+    for (int i = 0; i < length; i++) {
+      char next = value.charAt(i);
+      if (next < 0x80) {
+        utf8Length++;
+      } else if (next < 0x800) {
+        utf8Length += 2;
+      } else if (Character.isHighSurrogate(next) && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        utf8Length += 4;
+        i++;
+      } else {
+        utf8Length += 3;
+      }
+    }
+    putVarLong(utf8Length + 1L, target);
+    for (int i = 0; i < length; i++) {
+      char next = value.charAt(i);
+      if (next < 0x80) {
+        target.put((byte) next);
+      } else if (next < 0x800) {
+        target.put((byte) (0xC0 | next >> 6));
+        target.put((byte) (0x80 | next & 0x3F));
+      } else if (Character.isHighSurrogate(next) && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(next, value.charAt(++i));
+        target.put((byte) (0xF0 | codePoint >> 18));
+        target.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+        target.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+        target.put((byte) (0x80 | codePoint & 0x3F));
+      } else {
+        // Unpaired surrogates are passed through like any other 3-byte character.
+        target.put((byte) (0xE0 | next >> 12));
+        target.put((byte) (0x80 | next >> 6 & 0x3F));
+        target.put((byte) (0x80 | next & 0x3F));
+      }
+    }
+  }
+
+  /**
+   * Reads a string written by putString, decoding the UTF-8 bytes directly into characters.
+   */
+  private static String getString(ByteBuffer source) {
+    long encodedLength = getVarLong(source);
+    if (encodedLength == 0) {
+      return null;
+    }
+    long utf8Length = encodedLength - 1;
+    if (utf8Length > source.remaining()) {
+      throw new IllegalArgumentException("Unable to decode string. Length out of range.");
+    }
+    int end = source.position() + (int) utf8Length;
+    // UTF-8 never needs fewer bytes than UTF-16 needs chars.
+    char[] chars = new char[(int) utf8Length];
+    int length = 0;
+    while (source.position() < end) {
+      int lead = source.get() & 0xFF;
+      int continuationBytes = lead < 0x80 ? 0 : lead < 0xE0 ? 1 : lead < 0xF0 ? 2 : 3;
+      if (source.position() + continuationBytes > end) {
+        throw new IllegalArgumentException("Unable to decode string. Truncated character.");
+      }
+      if (lead < 0x80) {
+        chars[length++] = (char) lead;
+      } else if (lead < 0xE0) {
+        chars[length++] = (char) ((lead & 0x1F) << 6 | source.get() & 0x3F);
+      } else if (lead < 0xF0) {
+        chars[length++] =
+            (char) ((lead & 0x0F) << 12 | (source.get() & 0x3F) << 6 | source.get() & 0x3F);
+      } else {
+        int codePoint = (lead & 0x07) << 18 | (source.get() & 0x3F) << 12
+            | (source.get() & 0x3F) << 6 | source.get() & 0x3F;
+        length += Character.toChars(codePoint, chars, length);
+      }
+    }
+    return new String(chars, 0, length);
+  }
+}
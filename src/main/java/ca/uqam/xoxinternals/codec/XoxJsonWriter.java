@@ -0,0 +1,423 @@
+package ca.uqam.xoxinternals.codec;
+
+import ca.uqam.xoxinternals.controller.Ranking;
+import ca.uqam.xoxinternals.controller.XoxClaimFieldAction;
+import ca.uqam.xoxinternals.model.BoardReadOnly;
+import ca.uqam.xoxinternals.model.Player;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Streaming JSON writer for the result types of the XoxManager. Values are rendered straight into
+ * UTF-8 bytes, through an internal buffer that is reused across calls, and then passed on to an
+ * OutputStream or a ByteBuffer. No intermediate strings or object graphs are built, so a warmed-up
+ * writer does not allocate.
+ *
+ * <p>Field names match the bean properties of the serialized types, i.e. the names a reflective
+ * serializer derives from their getters:
+ * <ul>
+ *   <li>Player: name, preferredColour.</li>
+ *   <li>XoxClaimFieldAction: x, y, player.</li>
+ *   <li>BoardReadOnly: empty, full, cells, threeInaLine, threeInaLineCharIfExists.</li>
+ *   <li>Ranking: playersDescending, scoresDescending, gameOver.</li>
+ * </ul>
+ *
+ * <p>Writers are not thread-safe. Use one writer per thread.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class XoxJsonWriter {
+  // Kinds of values, see render.
+  private static final int PLAYERS_VALUE = 0;
+  private static final int ACTIONS_VALUE = 1;
+  private static final int BOARD_VALUE = 2;
+  private static final int RANKING_VALUE = 3;
+  private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+  private static final byte[] NULL = "null".getBytes();
+  private static final byte[] TRUE = "true".getBytes();
+  private static final byte[] FALSE = "false".getBytes();
+  private static final byte[] NAME = "{\"name\":".getBytes();
+  private static final byte[] PREFERRED_COLOUR = ",\"preferredColour\":".getBytes();
+  private static final byte[] X = "{\"x\":".getBytes();
+  private static final byte[] Y = ",\"y\":".getBytes();
+  private static final byte[] PLAYER = ",\"player\":".getBytes();
+  private static final byte[] EMPTY = "{\"empty\":".getBytes();
+  private static final byte[] FULL = ",\"full\":".getBytes();
+  private static final byte[] CELLS = ",\"cells\":".getBytes();
+  private static final byte[] THREE_IN_A_LINE = ",\"threeInaLine\":".getBytes();
+  private static final byte[] THREE_IN_A_LINE_CHAR = ",\"threeInaLineCharIfExists\":".getBytes();
+  private static final byte[] PLAYERS_DESCENDING = "{\"playersDescending\":".getBytes();
+  private static final byte[] SCORES_DESCENDING = ",\"scoresDescending\":".getBytes();
+  private static final byte[] GAME_OVER = ",\"gameOver\":".getBytes();
+
+  private final byte[] buffer;
+  private int position;
+  // Reused target for board cells.
+  private final int[][] cells = new int[3][3];
+  // Destination of the current call, exactly one is set.
+  private OutputStream outputStream;
+  private ByteBuffer byteBuffer;
+
+  /**
+   * Creates a writer with an internal buffer of 8 KiB.
+   */
+  public XoxJsonWriter() {
+    this(8192);
+  }
+
+  /**
+   * Creates a writer with a custom internal buffer size. Output exceeding the buffer is passed on
+   * in chunks.
+   *
+   * @param bufferSize as the size of the internal buffer in bytes. Sizes below 64 are raised to 64.
+   */
+  public XoxJsonWriter(int bufferSize) {
+    buffer = new byte[Math.max(64, bufferSize)];
+  }
+
+  /**
+   * Writes a players array, as returned by getPlayers.
+   *
+   * @param players as the players to write. May be null.
+   * @param target  as the stream to write to.
+   * @throws IOException in case the stream can not be written.
+   */
+  public void writePlayers(Player[] players, OutputStream target) throws IOException {
+    emit(PLAYERS_VALUE, players, target);
+  }
+
+  /**
+   * Writes a players array, as returned by getPlayers.
+   *
+   * @param players as the players to write. May be null.
+   * @param target  as the buffer to write to, at its current position.
+   */
+  public void writePlayers(Player[] players, ByteBuffer target) {
+    emit(PLAYERS_VALUE, players, target);
+  }
+
+  /**
+   * Writes an actions array, as returned by getActions.
+   *
+   * @param actions as the actions to write. May be null.
+   * @param target  as the stream to write to.
+   * @throws IOException in case the stream can not be written.
+   */
+  public void writeActions(XoxClaimFieldAction[] actions, OutputStream target) throws IOException {
+    emit(ACTIONS_VALUE, actions, target);
+  }
+
+  /**
+   * Writes an actions array, as returned by getActions.
+   *
+   * @param actions as the actions to write. May be null.
+   * @param target  as the buffer to write to, at its current position.
+   */
+  public void writeActions(XoxClaimFieldAction[] actions, ByteBuffer target) {
+    emit(ACTIONS_VALUE, actions, target);
+  }
+
+  /**
+   * Writes a board, as returned by getBoard.
+   *
+   * @param board  as the board to write. May be null.
+   * @param target as the stream to write to.
+   * @throws IOException in case the stream can not be written.
+   */
+  public void writeBoard(BoardReadOnly board, OutputStream target) throws IOException {
+    emit(BOARD_VALUE, board, target);
+  }
+
+  /**
+   * Writes a board, as returned by getBoard.
+   *
+   * @param board  as the board to write. May be null.
+   * @param target as the buffer to write to, at its current position.
+   */
+  public void writeBoard(BoardReadOnly board, ByteBuffer target) {
+    emit(BOARD_VALUE, board, target);
+  }
+
+  /**
+   * Writes a ranking, as returned by getRanking.
+   *
+   * @param ranking as the ranking to write. May be null.
+   * @param target  as the stream to write to.
+   * @throws IOException in case the stream can not be written.
+   */
+  public void writeRanking(Ranking ranking, OutputStream target) throws IOException {
+    emit(RANKING_VALUE, ranking, target);
+  }
+
+  /**
+   * Writes a ranking, as returned by getRanking.
+   *
+   * @param ranking as the ranking to write. May be null.
+   * @param target  as the buffer to write to, at its current position.
+   */
+  public void writeRanking(Ranking ranking, ByteBuffer target) {
+    emit(RANKING_VALUE, ranking, target);
+  }
+
+  private void emit(int kind, Object value, OutputStream target) throws IOException {
+    outputStream = target;
+    position = 0;
+    try {
+      render(kind, value);
+      flush();
+    } finally {
+      outputStream = null;
+    }
+  }
+
+  private void emit(int kind, Object value, ByteBuffer target) {
+    byteBuffer = target;
+    position = 0;
+    try {
+      render(kind, value);
+      flush();
+    } catch (IOException e) {
+      // Buffers never raise IO errors.
+      throw new IllegalStateException(e);
+    } finally {
+      byteBuffer = null;
+    }
+  }
+
+  /**
+   * Dispatches to the renderer of a value kind. Avoids capturing lambdas, which would allocate.
+   */
+  private void render(int kind, Object value) throws IOException {
+    switch (kind) {
+      case PLAYERS_VALUE:
+        players((Player[]) value);
+        break;
+      case ACTIONS_VALUE:
+        actions((XoxClaimFieldAction[]) value);
+        break;
+      case BOARD_VALUE:
+        board((BoardReadOnly) value);
+        break;
+      default:
+        ranking((Ranking) value);
+        break;
+    }
+  }
+
+  private void players(Player[] players) throws IOException {
+    if (players == null) {
+      raw(NULL);
+      return;
+    }
+    ascii('[');
+    for (int i = 0; i < players.length; i++) {
+      if (i > 0) {
+        ascii(',');
+      }
+      player(players[i]);
+    }
+    ascii(']');
+  }
+
+  private void player(Player player) throws IOException {
+    if (player == null) {
+      raw(NULL);
+      return;
+    }
+    raw(NAME);
+    string(player.getName());
+    raw(PREFERRED_COLOUR);
+    string(player.getPreferredColour());
+    ascii('}');
+  }
+
+  private void actions(XoxClaimFieldAction[] actions) throws IOException {
+    if (actions == null) {
+      raw(NULL);
+      return;
+    }
+    ascii('[');
+    for (int i = 0; i < actions.length; i++) {
+      if (i > 0) {
+        ascii(',');
+      }
+      raw(X);
+      number(actions[i].getX());
+      raw(Y);
+      number(actions[i].getY());
+      raw(PLAYER);
+      player(actions[i].getPlayer());
+      ascii('}');
+    }
+    ascii(']');
+  }
+
+  private void board(BoardReadOnly board) throws IOException {
+    if (board == null) {
+      raw(NULL);
+      return;
+    }
+    raw(EMPTY);
+    bool(board.isEmpty());
+    raw(FULL);
+    bool(board.isFull());
+    raw(CELLS);
+    board.copyCells(cells);
+    ascii('[');
+    for (int row = 0; row < cells.length; row++) {
+      if (row > 0) {
+        ascii(',');
+      }
+      ascii('[');
+      for (int column = 0; column < cells[row].length; column++) {
+        if (column > 0) {
+          ascii(',');
+        }
+        number(cells[row][column]);
+      }
+      ascii(']');
+    }
+    ascii(']');
+    raw(THREE_IN_A_LINE);
+    bool(board.isThreeInaLine());
+    raw(THREE_IN_A_LINE_CHAR);
+    number(board.getThreeInaLineCharIfExists());
+    ascii('}');
+  }
+
+  private void ranking(Ranking ranking) throws IOException {
+    if (ranking == null) {
+      raw(NULL);
+      return;
+    }
+    raw(PLAYERS_DESCENDING);
+    // Indexed access, so writing a shared ranking does not copy it.
+    int count = ranking.getPlayerCount();
+    ascii('[');
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        ascii(',');
+      }
+      raw(NAME);
+      string(ranking.getPlayerName(i));
+      raw(PREFERRED_COLOUR);
+      string(ranking.getPlayerColour(i));
+      ascii('}');
+    }
+    ascii(']');
+    raw(SCORES_DESCENDING);
+    ascii('[');
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        ascii(',');
+      }
+      number(ranking.getScore(i));
+    }
+    ascii(']');
+    raw(GAME_OVER);
+    bool(ranking.isGameOver());
+    ascii('}');
+  }
+
+  private void bool(boolean value) throws IOException {
+    raw(value ? TRUE : FALSE);
+  }
+
+  /**
+   * Renders an int in decimal, without creating a string.
+   */
+  private void number(int value) throws IOException {
+    ensure(11);
+    if (value < 0) {
+      buffer[position++] = '-';
+    }
+    // Negative digits, so Integer.MIN_VALUE needs no special case.
+    int remaining = value < 0 ? value : -value;
+    int digits = 1;
+    for (int bound = -10; remaining <= bound && digits < 10; bound *= 10) {
+      digits++;
+    }
+    for (int i = position + digits - 1; i >= position; i--) {
+      buffer[i] = (byte) ('0' - remaining % 10);
+      remaining /= 10;
+    }
+    position += digits;
+  }
+
+  /**
+   * Renders a quoted and escaped string, encoding characters straight to UTF-8.
+   */
+  private void string(String value) throws IOException {
+    if (value == null) {
+      raw(NULL);
+      return;
+    }
+    ascii('"');
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char next = value.charAt(i);
+      ensure(12);
+      if (next == '"' || next == '\\') {
+        buffer[position++] = '\\';
+        buffer[position++] = (byte) next;
+      } else if (next < 0x20) {
+        buffer[position++] = '\\';
+        buffer[position++] = 'u';
+        buffer[position++] = '0';
+        buffer[position++] = '0';
+        buffer[position++] = HEX_DIGITS[next >> 4];
+        buffer[position++] = HEX_DIGITS[next & 0xF];
+      } else if (next < 0x80) {
+        buffer[position++] = (byte) next;
+      } else if (next < 0x800) {
+        buffer[position++] = (byte) (0xC0 | next >> 6);
+        buffer[position++] = (byte) (0x80 | next & 0x3F);
+      } else if (Character.isHighSurrogate(next) && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(next, value.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+        buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+      } else {
+        buffer[position++] = (byte) (0xE0 | next >> 12);
+        buffer[position++] = (byte) (0x80 | next >> 6 & 0x3F);
+        buffer[position++] = (byte) (0x80 | next & 0x3F);
+      }
+    }
+    ascii('"');
+  }
+
+  private void ascii(char value) throws IOException {
+    ensure(1);
+    buffer[position++] = (byte) value;
+  }
+
+  private void raw(byte[] bytes) throws IOException {
+    ensure(bytes.length);
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    position += bytes.length;
+  }
+
+  /**
+   * Makes room for the provided amount of bytes, passing on buffered output if needed.
+   */
+  private void ensure(int bytes) throws IOException {
+    if (position + bytes > buffer.length) {
+      flush();
+    }
+  }
+
+  /**
+   * Passes all buffered output on to the destination of the current call.
+   */
+  private void flush() throws IOException {
+    if (outputStream != null) {
+      outputStream.write(buffer, 0, position);
+    } else {
+      byteBuffer.put(buffer, 0, position);
+    }
+    position = 0;
+  }
+}
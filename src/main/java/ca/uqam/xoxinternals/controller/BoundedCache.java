@@ -0,0 +1,104 @@
+package ca.uqam.xoxinternals.controller;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe cache with an approximate capacity. Lookups are lock-free and only mark the entry
+ * as recently used. Once an insertion exceeds the capacity, a sweep evicts a batch of entries that
+ * were not used since the previous sweep, and clears the mark of all others (second chance). Hot
+ * entries therefore survive, while the cache never grows much beyond its capacity.
+ *
+ * @param <K> as the key type.
+ * @param <V> as the value type.
+ * @author Maximilian Schiedermeier
+ */
+final class BoundedCache<K, V> {
+  private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final int capacity;
+  // Size a sweep shrinks the cache to, so sweeps only run once every capacity / 8 insertions.
+  private final int sweepTarget;
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param capacity as the amount of entries above which a sweep is triggered.
+   */
+  BoundedCache(int capacity) {
+    this.capacity = capacity;
+    sweepTarget = capacity - Math.max(1, capacity / 8);
+  }
+
+  /**
+   * Looks up an entry and marks it as recently used. Never blocks.
+   *
+   * @param key as the key to look up.
+   * @return the cached value, or null if there is none.
+   */
+  V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    // Only write if needed, so hot entries read by many threads do not bounce their cache line.
+    if (!entry.used) {
+      entry.used = true;
+    }
+    return entry.value;
+  }
+
+  /**
+   * Adds or replaces an entry. Runs a sweep if the cache exceeds its capacity.
+   *
+   * @param key   as the key to store the value under.
+   * @param value as the value to cache.
+   */
+  void put(K key, V value) {
+    entries.put(key, new Entry<>(value));
+    if (entries.size() > capacity) {
+      sweep();
+    }
+  }
+
+  /**
+   * Tells the amount of cached entries.
+   *
+   * @return the number of entries currently kept.
+   */
+  int size() {
+    return entries.size();
+  }
+
+  /**
+   * Evicts unused entries until the cache is back at its sweep target. The second pass at the
+   * latest finds every mark cleared, so a sweep always terminates. Sweeps are serialized among
+   * each other, but never block lookups.
+   */
+  private synchronized void sweep() {
+    for (int pass = 0; pass < 2 && entries.size() > sweepTarget; pass++) {
+      Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+      while (iterator.hasNext() && entries.size() > sweepTarget) {
+        Map.Entry<K, Entry<V>> candidate = iterator.next();
+        Entry<V> entry = candidate.getValue();
+        if (entry.used) {
+          entry.used = false;
+        } else {
+          entries.remove(candidate.getKey(), entry);
+        }
+      }
+    }
+  }
+
+  /**
+   * Cached value plus its recently-used mark.
+   */
+  private static final class Entry<V> {
+    private final V value;
+    private volatile boolean used;
+
+    private Entry(V value) {
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package ca.uqam.xoxinternals.controller;
+
+/**
+ * Reasons for the game reaper to evict a game from a registry.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public enum EvictionCause {
+  // The game ended longer ago than the time to live of finished games.
+  FINISHED,
+  // No move was applied on the game for longer than the idle timeout.
+  IDLE,
+  // The registry exceeded its maximum size, and the game was among the least recently used.
+  CAPACITY
+}
@@ -0,0 +1,21 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.XoxGameReadOnly;
+
+/**
+ * Hook called by the game reaper right before a game is evicted, e.g. to archive it. The game is
+ * locked during the call, so its state can not change anymore. If the hook throws a runtime
+ * exception, the game is not evicted.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public interface EvictionListener {
+  /**
+   * Called once per evicted game, before it is removed from the registry.
+   *
+   * @param gameId as the id of the evicted game.
+   * @param game   as read-only access to the evicted game.
+   * @param cause  as the reason for the eviction.
+   */
+  void gameEvicted(long gameId, XoxGameReadOnly game, EvictionCause cause);
+}
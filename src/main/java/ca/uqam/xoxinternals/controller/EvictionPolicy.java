@@ -0,0 +1,111 @@
+package ca.uqam.xoxinternals.controller;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable set of criteria for the game reaper. All criteria are disabled by default, and can be
+ * combined freely:
+ *
+ * <ul>
+ *   <li>finished games are evicted once they ended longer ago than a time to live,</li>
+ *   <li>idle games are evicted once no move was applied for longer than a timeout,</li>
+ *   <li>if the registry exceeds a maximum size, the least recently used games are evicted. Any
+ *   read or move counts as use. Recency is tracked per reaper run only, so the order among games
+ *   used between the same two runs is arbitrary.</li>
+ * </ul>
+ *
+ * @author Maximilian Schiedermeier
+ */
+public final class EvictionPolicy {
+  private static final EvictionPolicy NONE = new EvictionPolicy(-1, -1, Integer.MAX_VALUE);
+
+  // Negative values disable the corresponding criterion.
+  private final long finishedTtlNanos;
+  private final long idleTimeoutNanos;
+  private final int maxGames;
+
+  private EvictionPolicy(long finishedTtlNanos, long idleTimeoutNanos, int maxGames) {
+    this.finishedTtlNanos = finishedTtlNanos;
+    this.idleTimeoutNanos = idleTimeoutNanos;
+    this.maxGames = maxGames;
+  }
+
+  /**
+   * Policy that never evicts any game. Starting point to enable individual criteria.
+   *
+   * @return policy with all criteria disabled.
+   */
+  public static EvictionPolicy none() {
+    return NONE;
+  }
+
+  /**
+   * Derives a policy that additionally evicts finished games after a time to live.
+   *
+   * @param ttl  as the time a finished game is kept, counted from the move that ended it.
+   * @param unit as the unit of the time to live.
+   * @return new policy with the time to live set.
+   */
+  public EvictionPolicy withFinishedTtl(long ttl, TimeUnit unit) {
+    return new EvictionPolicy(requireNonNegative(ttl, unit), idleTimeoutNanos, maxGames);
+  }
+
+  /**
+   * Derives a policy that additionally evicts games no move was applied on for some time.
+   *
+   * @param timeout as the time a game is kept after its latest move, or its creation.
+   * @param unit    as the unit of the timeout.
+   * @return new policy with the idle timeout set.
+   */
+  public EvictionPolicy withIdleTimeout(long timeout, TimeUnit unit) {
+    return new EvictionPolicy(finishedTtlNanos, requireNonNegative(timeout, unit), maxGames);
+  }
+
+  /**
+   * Derives a policy that additionally bounds the size of the registry.
+   *
+   * @param maxGames as the amount of games the registry may hold after a reaper run.
+   * @return new policy with the maximum size set.
+   */
+  public EvictionPolicy withMaxGames(int maxGames) {
+    if (maxGames < 0) {
+      throw new IllegalArgumentException("Maximum amount of games must not be negative.");
+    }
+    return new EvictionPolicy(finishedTtlNanos, idleTimeoutNanos, maxGames);
+  }
+
+  /**
+   * Decides whether a game has expired by time.
+   *
+   * @param finished     as the finished flag of the game.
+   * @param finishTime   as the System.nanoTime the game ended at, ignored if not finished.
+   * @param lastMoveTime as the System.nanoTime of the latest move of the game.
+   * @param now          as the current System.nanoTime.
+   * @return the reason for evicting the game, or null if it shall be kept.
+   */
+  EvictionCause expiryOf(boolean finished, long finishTime, long lastMoveTime, long now) {
+    if (finished && finishedTtlNanos >= 0 && now - finishTime >= finishedTtlNanos) {
+      return EvictionCause.FINISHED;
+    }
+    if (idleTimeoutNanos >= 0 && now - lastMoveTime >= idleTimeoutNanos) {
+      return EvictionCause.IDLE;
+    }
+    return null;
+  }
+
+  /**
+   * Getter for the maximum registry size.
+   *
+   * @return the maximum amount of games, Integer.MAX_VALUE if unbounded.
+   */
+  int getMaxGames() {
+    return maxGames;
+  }
+
+  private static long requireNonNegative(long duration, TimeUnit unit) {
+    if (duration < 0) {
+      throw new IllegalArgumentException("Eviction durations must not be negative.");
+    }
+    return unit.toNanos(duration);
+  }
+}
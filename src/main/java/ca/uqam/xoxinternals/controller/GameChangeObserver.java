@@ -0,0 +1,18 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.XoxGameReadOnly;
+
+/**
+ * Internal hook of the action interpreter, called right after a move was applied and its board
+ * snapshot published. Implementations must return quickly.
+ *
+ * @author Maximilian Schiedermeier
+ */
+interface GameChangeObserver {
+  /**
+   * Called on the thread that applied the move.
+   *
+   * @param game as the modified game.
+   */
+  void gameChanged(XoxGameReadOnly game);
+}
@@ -0,0 +1,30 @@
+package ca.uqam.xoxinternals.controller;
+
+/**
+ * Strategy interface for handing out ids of new games. Implementations must be thread-safe and
+ * must never hand out the same id twice.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public interface GameIdAllocator {
+  /**
+   * Reserves a new game id.
+   *
+   * @return a positive game id that was not handed out before.
+   */
+  long nextGameId();
+
+  /**
+   * Reserves several new game ids at once.
+   *
+   * @param count as the amount of ids to reserve.
+   * @return array of positive game ids that were not handed out before.
+   */
+  default long[] nextGameIds(int count) {
+    long[] gameIds = new long[count];
+    for (int i = 0; i < count; i++) {
+      gameIds[i] = nextGameId();
+    }
+    return gameIds;
+  }
+}
@@ -0,0 +1,232 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.XoxGameImpl;
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts games from a manager according to an eviction policy, periodically or on demand. A run
+ * iterates over the registry segment by segment, so it never holds a registry-wide lock, and
+ * locks each evicted game only for its own removal. Moves and reads on other games proceed
+ * normally during a run. Whether a game is still eligible is re-checked while it is locked, so a
+ * game that received a move in the meantime is kept.
+ *
+ * <p>Every run also advances the access clock of the manager. Games accessed since the previous
+ * run are considered more recently used than all others, which is what capacity eviction is based
+ * on. Capacity eviction only keeps the oldest candidates of a run in a bounded heap, rather than
+ * collecting the entire registry.
+ *
+ * <p>A periodic run that fails, e.g. because the removal of a game could not be journaled, is
+ * recorded and retried at the next period.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class GameReaper implements Closeable {
+  // Upper bound for the candidates collected by one capacity eviction pass.
+  private static final int MAX_CANDIDATES = 1 << 16;
+  private final XoxManagerImpl manager;
+  private final EvictionPolicy policy;
+  private final EvictionListener listener;
+  private final ScheduledExecutorService executor;
+  private volatile RuntimeException failure;
+
+  /**
+   * Creates a reaper for a manager. No games are evicted until start or evictNow is called.
+   *
+   * @param manager  as the manager to evict games from.
+   * @param policy   as the criteria for eviction.
+   * @param listener as the hook to call before each eviction, or null.
+   */
+  public GameReaper(XoxManagerImpl manager, EvictionPolicy policy, EvictionListener listener) {
+    this.manager = manager;
+    this.policy = policy;
+    this.listener = listener;
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "xox-reaper");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts evicting games at a fixed period.
+   *
+   * @param period as the time between two runs.
+   * @param unit   as the unit of the period.
+   */
+  public void start(long period, TimeUnit unit) {
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        evictNow();
+      } catch (RuntimeException e) {
+        // An escaping exception would cancel all subsequent runs.
+        failure = e;
+      }
+    }, period, period, unit);
+  }
+
+  /**
+   * Tells whether a periodic run failed.
+   *
+   * @return the most recent error, or null if all runs succeeded.
+   */
+  public RuntimeException getFailure() {
+    return failure;
+  }
+
+  /**
+   * Evicts all games that are eligible right now.
+   *
+   * @return the amount of evicted games.
+   */
+  public synchronized int evictNow() {
+    final int lastTick = manager.advanceAccessClock() - 1;
+    long now = System.nanoTime();
+    int[] evicted = new int[1];
+    // Expired games first.
+    manager.forEachGame((gameId, game) -> {
+      EvictionCause cause = expiryOf(game, now);
+      if (cause != null && manager.evictGame(gameId, game,
+          candidate -> expiryOf(candidate, now) == cause, cause, listener)) {
+        evicted[0]++;
+      }
+    });
+    int excess = manager.getGameCount() - policy.getMaxGames();
+    if (excess > 0) {
+      evicted[0] += evictLeastRecentlyUsed(excess, lastTick);
+    }
+    return evicted[0];
+  }
+
+  private EvictionCause expiryOf(XoxGameImpl game, long now) {
+    return policy.expiryOf(game.isFinished(), game.getFinishTime(), game.getLastMoveTime(), now);
+  }
+
+  /**
+   * Evicts the games with the oldest access ticks. Every pass collects the oldest candidates, at
+   * most as many as still to be evicted plus those skipped before, then evicts them in order of
+   * their ticks. Games the listener refuses to evict are skipped, and collected again by the next
+   * pass, so the next pass collects correspondingly more.
+   */
+  private int evictLeastRecentlyUsed(int excess, int lastTick) {
+    int evicted = 0;
+    int skipped = 0;
+    while (evicted < excess) {
+      int limit = (int) Math.min((long) excess - evicted + skipped, MAX_CANDIDATES);
+      Candidates candidates = collectOldest(limit, lastTick);
+      if (candidates.count == 0) {
+        break;
+      }
+      Arrays.sort(candidates.order, 0, candidates.count);
+      int passEvicted = 0;
+      int attempted = 0;
+      for (; attempted < candidates.count && evicted < excess; attempted++) {
+        int slot = (int) candidates.order[attempted];
+        int tick = (int) (candidates.order[attempted] >>> 32);
+        if (manager.evictGame(candidates.gameIds[slot], candidates.games[slot],
+            game -> game.getAccessTick() == tick, EvictionCause.CAPACITY, listener)) {
+          evicted++;
+          passEvicted++;
+        }
+      }
+      // Without progress, only a pass with more candidates than before can still evict games.
+      if (passEvicted == 0 && (candidates.count < limit || limit == MAX_CANDIDATES)) {
+        break;
+      }
+      skipped = attempted - passEvicted;
+    }
+    return evicted;
+  }
+
+  /**
+   * Collects the games with the oldest access ticks, not accessed during this run. Keeps a max-heap
+   * of the candidates, so a game older than the youngest candidate replaces it.
+   */
+  private Candidates collectOldest(int limit, int lastTick) {
+    Candidates candidates = new Candidates(limit);
+    manager.forEachGame((gameId, game) -> {
+      int tick = game.getAccessTick();
+      // Games accessed during this run are never evicted for capacity.
+      if (tick > lastTick) {
+        return;
+      }
+      long[] heap = candidates.order;
+      int slot;
+      if (candidates.count < limit) {
+        slot = candidates.count++;
+        heap[slot] = (long) tick << 32 | slot;
+        siftUp(heap, slot);
+      } else if (tick < (int) (heap[0] >>> 32)) {
+        slot = (int) heap[0];
+        heap[0] = (long) tick << 32 | slot;
+        siftDown(heap, 0, candidates.count);
+      } else {
+        return;
+      }
+      candidates.gameIds[slot] = gameId;
+      candidates.games[slot] = game;
+    });
+    return candidates;
+  }
+
+  private static void siftUp(long[] heap, int index) {
+    int child = index;
+    while (child > 0) {
+      int parent = (child - 1) / 2;
+      if (heap[parent] >= heap[child]) {
+        return;
+      }
+      swap(heap, parent, child);
+      child = parent;
+    }
+  }
+
+  private static void siftDown(long[] heap, int index, int size) {
+    int parent = index;
+    while (2 * parent + 1 < size) {
+      int child = 2 * parent + 1;
+      if (child + 1 < size && heap[child + 1] > heap[child]) {
+        child++;
+      }
+      if (heap[parent] >= heap[child]) {
+        return;
+      }
+      swap(heap, parent, child);
+      parent = child;
+    }
+  }
+
+  private static void swap(long[] heap, int first, int second) {
+    long swapped = heap[first];
+    heap[first] = heap[second];
+    heap[second] = swapped;
+  }
+
+  /**
+   * Stops evicting games periodically. A run in progress is completed.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  /**
+   * Games collected for capacity eviction. Order entries hold the tick in the upper half and the
+   * slot of the game in the lower half, so sorting orders by tick.
+   */
+  private static final class Candidates {
+    private final long[] gameIds;
+    private final XoxGameImpl[] games;
+    private final long[] order;
+    private int count;
+
+    private Candidates(int capacity) {
+      gameIds = new long[capacity];
+      games = new XoxGameImpl[capacity];
+      order = new long[capacity];
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.Player;
+
+/**
+ * Observer of all modifications of a game registry. Notifications of the same game arrive in the
+ * order the modifications were applied. Implementations must be thread-safe and should return
+ * quickly, since they are called on the thread that modified the registry, while the affected game
+ * is locked.
+ *
+ * <p>Moves and removals are reported right before they are applied, so a write-ahead journal can
+ * record them first. A listener rejects a modification by throwing a RuntimeException: the
+ * registry then leaves the game unmodified. New games are reported once registered, and
+ * unregistered again if the listener rejects them.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public interface GameRegistryListener {
+  /**
+   * Called once a new game was registered. Throwing rejects the game.
+   *
+   * @param gameId       as the id of the new game.
+   * @param firstPlayer  as the player seated first, who starts the game.
+   * @param secondPlayer as the player seated second.
+   */
+  void gameAdded(long gameId, Player firstPlayer, Player secondPlayer);
+
+  /**
+   * Called for a validated move, right before it is applied on a game. The moving player is
+   * implied by the move order. Throwing rejects the move.
+   *
+   * @param gameId as the id of the modified game.
+   * @param cell   as the index of the claimed cell (3 * ypos + xpos).
+   */
+  void moveApplied(long gameId, int cell);
+
+  /**
+   * Called right before a game is removed from the registry. Throwing keeps the game.
+   *
+   * @param gameId as the id of the removed game.
+   */
+  void gameRemoved(long gameId);
+}
@@ -0,0 +1,21 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.BoardSnapshot;
+
+/**
+ * Receiver of push notifications about the state of a subscribed game. Notifications are delivered
+ * on a dedicated dispatch thread, never on the thread that applied the move. Rapid successive moves
+ * may be coalesced into a single notification carrying the latest state.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public interface GameStateListener {
+  /**
+   * Called after one or more moves were applied on the subscribed game.
+   *
+   * @param gameId   as the id of the subscribed game.
+   * @param board    as the latest board snapshot. Its version tells how many moves were applied.
+   * @param gameOver as true if the game has ended with the latest move.
+   */
+  void gameChanged(long gameId, BoardSnapshot board, boolean gameOver);
+}
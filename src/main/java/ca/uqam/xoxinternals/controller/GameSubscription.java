@@ -0,0 +1,13 @@
+package ca.uqam.xoxinternals.controller;
+
+/**
+ * Handle of a registered game state listener.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public interface GameSubscription {
+  /**
+   * Stops all further notifications. Notifications already being dispatched may still arrive.
+   */
+  void cancel();
+}
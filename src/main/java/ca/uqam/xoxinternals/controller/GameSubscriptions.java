@@ -0,0 +1,203 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.BoardSnapshot;
+import ca.uqam.xoxinternals.model.PositionTable;
+import ca.uqam.xoxinternals.model.XoxGameReadOnly;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registry of listeners and long-polls waiting for state changes of games. Watchers are indexed by
+ * game instance, so the move-applying thread can find them without knowing the game id. The
+ * move-applying thread only checks whether anybody watches the modified game and, if so, hands the
+ * game to a dedicated dispatch thread. Listeners are called and long-polls completed on that
+ * thread only.
+ *
+ * <p>There is a single dispatch thread per registry, so all notifications, across all games, are
+ * delivered one after another. Listeners should return quickly: a slow listener delays the
+ * notifications of every other game. Listeners that fail are logged and skipped.
+ *
+ * @author Maximilian Schiedermeier
+ */
+final class GameSubscriptions implements GameChangeObserver {
+  private static final Logger LOGGER = Logger.getLogger(GameSubscriptions.class.getName());
+
+  private final Map<XoxGameReadOnly, Watchers> watchers = new ConcurrentHashMap<>();
+  private final ExecutorService dispatcher;
+
+  /**
+   * Creates an empty registry with its own dispatch thread.
+   */
+  GameSubscriptions() {
+    dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "xox-notifications");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  @Override
+  public void gameChanged(XoxGameReadOnly game) {
+    Watchers gameWatchers = watchers.get(game);
+    if (gameWatchers != null) {
+      dispatch(() -> gameWatchers.dispatch(game));
+    }
+  }
+
+  /**
+   * Registers a listener for all subsequent changes of a game.
+   *
+   * @param gameId   as the id the game is registered with.
+   * @param game     as the game to watch.
+   * @param listener as the receiver of the notifications.
+   * @return handle to cancel the subscription.
+   */
+  GameSubscription subscribe(long gameId, XoxGameReadOnly game, GameStateListener listener) {
+    watchers.compute(game, (key, gameWatchers) -> {
+      Watchers registered = gameWatchers == null ? newWatchers(gameId, game) : gameWatchers;
+      registered.listeners.add(listener);
+      return registered;
+    });
+    return () -> watchers.computeIfPresent(game, (key, gameWatchers) -> {
+      gameWatchers.listeners.remove(listener);
+      return unusedOrSelf(gameWatchers);
+    });
+  }
+
+  /**
+   * Waits for a game to move beyond a known version.
+   *
+   * @param gameId       as the id the game is registered with.
+   * @param game         as the game to watch.
+   * @param knownVersion as the version the caller already knows.
+   * @return future completed with the first board snapshot newer than the known version, or with
+   *     null if the game is removed before.
+   */
+  CompletableFuture<BoardSnapshot> awaitChange(long gameId, XoxGameReadOnly game,
+                                               long knownVersion) {
+    CompletableFuture<BoardSnapshot> result = new CompletableFuture<>();
+    BoardSnapshot current = game.getBoardSnapshot();
+    if (current.getVersion() > knownVersion) {
+      result.complete(current);
+      return result;
+    }
+    Poll poll = new Poll(knownVersion, result);
+    watchers.compute(game, (key, gameWatchers) -> {
+      Watchers registered = gameWatchers == null ? newWatchers(gameId, game) : gameWatchers;
+      registered.polls.add(poll);
+      return registered;
+    });
+    // Forget the poll once it is completed, timed out or cancelled by the caller.
+    result.whenComplete((board, failure) ->
+        watchers.computeIfPresent(game, (key, gameWatchers) -> {
+          gameWatchers.polls.remove(poll);
+          return unusedOrSelf(gameWatchers);
+        }));
+    // A move may have been published before the poll was registered. Re-check on the dispatcher.
+    gameChanged(game);
+    return result;
+  }
+
+  /**
+   * Drops all watchers of a removed game. Pending long-polls are completed with null.
+   *
+   * @param game as the removed game.
+   */
+  void gameRemoved(XoxGameReadOnly game) {
+    Watchers gameWatchers = watchers.remove(game);
+    if (gameWatchers != null) {
+      dispatch(() -> {
+        for (Poll poll : gameWatchers.polls) {
+          poll.result.complete(null);
+        }
+      });
+    }
+  }
+
+  /**
+   * Stops the dispatch thread. Notifications that are not yet delivered, or caused later, are
+   * dropped.
+   */
+  void shutdown() {
+    dispatcher.shutdownNow();
+  }
+
+  private void dispatch(Runnable delivery) {
+    try {
+      dispatcher.execute(delivery);
+    } catch (RejectedExecutionException e) {
+      // Shut down, notifications are no longer delivered.
+    }
+  }
+
+  private static Watchers newWatchers(long gameId, XoxGameReadOnly game) {
+    return new Watchers(gameId, game.getBoardSnapshot().getVersion());
+  }
+
+  private static Watchers unusedOrSelf(Watchers gameWatchers) {
+    return gameWatchers.listeners.isEmpty() && gameWatchers.polls.isEmpty() ? null : gameWatchers;
+  }
+
+  /**
+   * A long-poll waiting for a version newer than the known one.
+   */
+  private static final class Poll {
+    private final long knownVersion;
+    private final CompletableFuture<BoardSnapshot> result;
+
+    private Poll(long knownVersion, CompletableFuture<BoardSnapshot> result) {
+      this.knownVersion = knownVersion;
+      this.result = result;
+    }
+  }
+
+  /**
+   * All listeners and long-polls of a single game.
+   */
+  private static final class Watchers {
+    private final long gameId;
+    private final CopyOnWriteArrayList<GameStateListener> listeners =
+        new CopyOnWriteArrayList<>();
+    private final Queue<Poll> polls = new ConcurrentLinkedQueue<>();
+    // Latest version passed to listeners. Only modified by the dispatch thread.
+    private volatile long notifiedVersion;
+
+    private Watchers(long gameId, long currentVersion) {
+      this.gameId = gameId;
+      this.notifiedVersion = currentVersion;
+    }
+
+    /**
+     * Delivers the latest state of the game. Runs on the dispatch thread only.
+     */
+    private void dispatch(XoxGameReadOnly game) {
+      BoardSnapshot board = game.getBoardSnapshot();
+      for (Poll poll : polls) {
+        if (board.getVersion() > poll.knownVersion) {
+          poll.result.complete(board);
+        }
+      }
+      if (board.getVersion() > notifiedVersion) {
+        notifiedVersion = board.getVersion();
+        boolean gameOver = PositionTable.isFinished(PositionTable.lookup(board));
+        for (GameStateListener listener : listeners) {
+          try {
+            listener.gameChanged(gameId, board, gameOver);
+          } catch (RuntimeException e) {
+            // A failing listener must not keep the others from being notified.
+            LOGGER.log(Level.WARNING, "Listener failed on change of game " + gameId, e);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.XoxGameReadOnly;
+
+/**
+ * Callback for iterating over all games of a registry.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public interface GameVisitor {
+  /**
+   * Called once per registered game.
+   *
+   * @param gameId as the id of the game.
+   * @param game   as read-only access to the game.
+   */
+  void visitGame(long gameId, XoxGameReadOnly game);
+}
@@ -0,0 +1,225 @@
+package ca.uqam.xoxinternals.controller;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Global leaderboard across all finished games. Updated exactly once per game, by the ending
+ * analyzer, when a game is marked as finished. Queries never iterate over games.
+ *
+ * <p>Every player is represented by an immutable entry. Entries are indexed by player name, and
+ * kept in a concurrent skip list ordered by descending score, so the top K players are read in
+ * O(K) without locking. A Fenwick tree counts the players per score, so the rank of any player
+ * resolves in O(log n) of the highest score. Updates are serialized by a lock and cost O(log n) as
+ * well. Rank lookups read the Fenwick tree optimistically and only lock if an update interfered.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public final class Leaderboard {
+  private static final int INITIAL_SCORE_CAPACITY = 64;
+  // Descending score, ties broken by ascending name. Entries of the same player are told apart by
+  // their counters, so an update that keeps the score, i.e. a loss, still yields a distinct entry.
+  private static final Comparator<LeaderboardEntry> ORDER =
+      Comparator.comparingInt(LeaderboardEntry::getScore).reversed()
+          .thenComparing(LeaderboardEntry::getPlayerName)
+          .thenComparingInt(LeaderboardEntry::getWins)
+          .thenComparingInt(LeaderboardEntry::getLosses);
+
+  // Latest entry of every player.
+  private final Map<String, LeaderboardEntry> entries = new ConcurrentHashMap<>();
+  // Same entries, ordered. During an update a player may briefly be listed twice.
+  private final NavigableSet<LeaderboardEntry> ordered = new ConcurrentSkipListSet<>(ORDER);
+  // Serializes updates, guards the Fenwick tree.
+  private final StampedLock lock = new StampedLock();
+  // Fenwick tree over player counts per score. Score s is stored at index s + 1, index 0 is unused.
+  // The length minus one is always a power of two.
+  private int[] scoreTree = new int[INITIAL_SCORE_CAPACITY + 1];
+  private volatile int playerCount;
+  private volatile long finishedGames;
+
+  /**
+   * Creates an empty leaderboard.
+   */
+  public Leaderboard() {
+  }
+
+  /**
+   * Records a game won by one player.
+   *
+   * @param winner as the name of the winning player.
+   * @param loser  as the name of the losing player.
+   */
+  public void recordWin(String winner, String loser) {
+    long stamp = lock.writeLock();
+    try {
+      update(winner, 1, 0, 0);
+      update(loser, 0, 1, 0);
+      finishedGames++;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Records a game that ended in a draw.
+   *
+   * @param firstPlayer  as the name of one participant.
+   * @param secondPlayer as the name of the other participant.
+   */
+  public void recordDraw(String firstPlayer, String secondPlayer) {
+    long stamp = lock.writeLock();
+    try {
+      update(firstPlayer, 0, 0, 1);
+      update(secondPlayer, 0, 0, 1);
+      finishedGames++;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Looks up the standing of a single player.
+   *
+   * @param playerName as the name of the player.
+   * @return the latest entry of the player, or null if the player has not finished any game.
+   */
+  public LeaderboardEntry getEntry(String playerName) {
+    return entries.get(playerName);
+  }
+
+  /**
+   * Resolves the rank of a player. Players with equal score share a rank, the best rank is 1.
+   *
+   * @param playerName as the name of the player.
+   * @return one plus the amount of players with a higher score, or -1 if the player has not
+   *     finished any game.
+   */
+  public int getRank(String playerName) {
+    LeaderboardEntry entry = entries.get(playerName);
+    if (entry == null) {
+      return -1;
+    }
+    long stamp = lock.tryOptimisticRead();
+    int rank = rankOf(entry.getScore());
+    if (lock.validate(stamp)) {
+      return rank;
+    }
+    // An update interfered, repeat the lookup in a consistent state.
+    stamp = lock.readLock();
+    try {
+      return rankOf(entries.get(playerName).getScore());
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Reads the best players, in descending order of their score.
+   *
+   * @param count as the maximum amount of players to return.
+   * @return up to count entries, best player first.
+   */
+  public List<LeaderboardEntry> getTop(int count) {
+    List<LeaderboardEntry> top = new ArrayList<>(Math.max(0, Math.min(count, playerCount)));
+    if (count <= 0) {
+      return top;
+    }
+    // Skip the outdated entry of a player that is just being updated.
+    Set<String> listed = new HashSet<>();
+    for (LeaderboardEntry entry : ordered) {
+      if (listed.add(entry.getPlayerName())) {
+        top.add(entry);
+        if (top.size() == count) {
+          break;
+        }
+      }
+    }
+    return top;
+  }
+
+  /**
+   * Counts all players that finished at least one game.
+   *
+   * @return the amount of ranked players.
+   */
+  public int getPlayerCount() {
+    return playerCount;
+  }
+
+  /**
+   * Counts all games recorded on this leaderboard.
+   *
+   * @return the amount of finished games.
+   */
+  public long getFinishedGames() {
+    return finishedGames;
+  }
+
+  /**
+   * Replaces the entry of a player by one with updated counters. Caller must hold the write lock.
+   */
+  private void update(String playerName, int wins, int losses, int draws) {
+    LeaderboardEntry previous = entries.get(playerName);
+    LeaderboardEntry updated;
+    if (previous == null) {
+      updated = new LeaderboardEntry(playerName, wins, losses, draws);
+      playerCount++;
+    } else {
+      updated = new LeaderboardEntry(playerName, previous.getWins() + wins,
+          previous.getLosses() + losses, previous.getDraws() + draws);
+      addToTree(previous.getScore(), -1);
+    }
+    addToTree(updated.getScore(), 1);
+    // Add before remove, so concurrent top K reads never miss the player.
+    ordered.add(updated);
+    if (previous != null) {
+      ordered.remove(previous);
+    }
+    entries.put(playerName, updated);
+  }
+
+  /**
+   * Adds to the player count of a score. Caller must hold the write lock.
+   */
+  private void addToTree(int score, int delta) {
+    while (score + 1 >= scoreTree.length) {
+      growTree();
+    }
+    for (int index = score + 1; index < scoreTree.length; index += index & -index) {
+      scoreTree[index] += delta;
+    }
+  }
+
+  /**
+   * Doubles the score range of the Fenwick tree. All new nodes cover scores no player has reached
+   * yet, except for the new root which covers all scores. Caller must hold the write lock.
+   */
+  private void growTree() {
+    int capacity = scoreTree.length - 1;
+    int[] grown = new int[2 * capacity + 1];
+    System.arraycopy(scoreTree, 0, grown, 0, scoreTree.length);
+    grown[2 * capacity] = scoreTree[capacity];
+    scoreTree = grown;
+  }
+
+  /**
+   * Computes the rank of a score. Safe to call without lock, in which case the result may be
+   * garbage and must be validated.
+   */
+  private int rankOf(int score) {
+    int[] tree = scoreTree;
+    int atMost = 0;
+    for (int index = Math.min(score + 1, tree.length - 1); index > 0; index -= index & -index) {
+      atMost += tree[index];
+    }
+    return 1 + tree[tree.length - 1] - atMost;
+  }
+}
@@ -0,0 +1,80 @@
+package ca.uqam.xoxinternals.controller;
+
+/**
+ * Immutable standing of a single player on the global leaderboard. A win counts 2 points, a draw
+ * 1 point and a loss none.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public final class LeaderboardEntry {
+  private final String playerName;
+  private final int wins;
+  private final int losses;
+  private final int draws;
+
+  /**
+   * Constructor for leaderboard entries.
+   *
+   * @param playerName as the name of the player.
+   * @param wins       as the amount of games won.
+   * @param losses     as the amount of games lost.
+   * @param draws      as the amount of games ended in a draw.
+   */
+  LeaderboardEntry(String playerName, int wins, int losses, int draws) {
+    this.playerName = playerName;
+    this.wins = wins;
+    this.losses = losses;
+    this.draws = draws;
+  }
+
+  /**
+   * Getter for the name of the player.
+   *
+   * @return the player name.
+   */
+  public String getPlayerName() {
+    return playerName;
+  }
+
+  /**
+   * Getter for the amount of games won.
+   *
+   * @return the amount of wins.
+   */
+  public int getWins() {
+    return wins;
+  }
+
+  /**
+   * Getter for the amount of games lost.
+   *
+   * @return the amount of losses.
+   */
+  public int getLosses() {
+    return losses;
+  }
+
+  /**
+   * Getter for the amount of games ended in a draw.
+   *
+   * @return the amount of draws.
+   */
+  public int getDraws() {
+    return draws;
+  }
+
+  /**
+   * Getter for the leaderboard score, i.e. 2 points per win and 1 point per draw.
+   *
+   * @return the score of the player.
+   */
+  public int getScore() {
+    return 2 * wins + draws;
+  }
+
+  @Override
+  public String toString() {
+    return playerName + " -> score " + getScore() + " (" + wins + " wins, " + losses + " losses, "
+        + draws + " draws)";
+  }
+}
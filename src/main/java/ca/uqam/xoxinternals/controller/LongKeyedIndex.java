@@ -0,0 +1,430 @@
+package ca.uqam.xoxinternals.controller;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent index from primitive long keys to values. Keys are never boxed. The index is split
+ * into independently locked segments, each an open-addressing table with linear probing that
+ * stores keys and values in two parallel arrays. A lookup hashes the key once and probes a single
+ * run of adjacent slots, usually only one.
+ *
+ * <p>Lookups do not lock. They read optimistically and only fall back to the segment read lock if
+ * a concurrent modification of the same segment was detected. Modifications lock their segment
+ * exclusively. Removal shifts subsequent entries back instead of leaving tombstones, so probe runs
+ * never degrade over time.
+ *
+ * @param <V> as the type of the indexed values.
+ * @author Maximilian Schiedermeier
+ */
+final class LongKeyedIndex<V> {
+  // Amount of segments, must be a power of two. Top bits of the key hash select the segment.
+  private static final int SEGMENT_BITS = 6;
+  private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+  private static final int MIN_SEGMENT_CAPACITY = 16;
+  // Fibonacci hashing multiplier, spreads sequential keys over all slots.
+  private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+  /**
+   * Creates an empty index.
+   */
+  LongKeyedIndex() {
+    for (int i = 0; i < SEGMENT_COUNT; i++) {
+      segments[i] = new Segment(MIN_SEGMENT_CAPACITY);
+    }
+  }
+
+  /**
+   * Looks up the value stored for a key.
+   *
+   * @param key as the key to look up.
+   * @return the stored value, or null if the key is not indexed.
+   */
+  @SuppressWarnings("unchecked")
+  V get(long key) {
+    long hash = key * HASH_MULTIPLIER;
+    return (V) segments[segmentOf(hash)].get(key, hash);
+  }
+
+  /**
+   * Stores a value for a key, unless the key is already indexed.
+   *
+   * @param key   as the key to store the value for.
+   * @param value as the value to store. Must not be null.
+   * @return the value already stored for the key, or null if the provided value was stored.
+   */
+  @SuppressWarnings("unchecked")
+  V putIfAbsent(long key, V value) {
+    long hash = key * HASH_MULTIPLIER;
+    return (V) segments[segmentOf(hash)].put(key, hash, value, true);
+  }
+
+  /**
+   * Stores a value for a key, replacing any previously stored value.
+   *
+   * @param key   as the key to store the value for.
+   * @param value as the value to store. Must not be null.
+   * @return the previously stored value, or null if the key was not indexed.
+   */
+  @SuppressWarnings("unchecked")
+  V put(long key, V value) {
+    long hash = key * HASH_MULTIPLIER;
+    return (V) segments[segmentOf(hash)].put(key, hash, value, false);
+  }
+
+  /**
+   * Removes a key and its value from the index.
+   *
+   * @param key as the key to remove.
+   * @return the removed value, or null if the key was not indexed.
+   */
+  @SuppressWarnings("unchecked")
+  V remove(long key) {
+    long hash = key * HASH_MULTIPLIER;
+    return (V) segments[segmentOf(hash)].remove(key, hash);
+  }
+
+  /**
+   * Grows the segments ahead of a burst of insertions, so the insertions do not trigger repeated
+   * rehashing. Keys spread evenly over segments, so every segment reserves its share plus some
+   * slack.
+   *
+   * @param additional as the amount of keys about to be inserted.
+   */
+  void ensureCapacity(int additional) {
+    int share = (additional + additional / 8) / SEGMENT_COUNT + 1;
+    for (Segment segment : segments) {
+      long stamp = segment.lock.writeLock();
+      try {
+        segment.ensureCapacity(segment.size + share);
+      } finally {
+        segment.lock.unlockWrite(stamp);
+      }
+    }
+  }
+
+  /**
+   * Counts all indexed keys. Concurrent modifications may or may not be reflected.
+   *
+   * @return the amount of indexed keys.
+   */
+  int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.size;
+    }
+    return size;
+  }
+
+  /**
+   * Tells whether no key is indexed.
+   *
+   * @return true if the index is empty.
+   */
+  boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Copies all indexed keys. Each segment is copied consistently, concurrent modifications of
+   * other segments may or may not be reflected.
+   *
+   * @return array with all keys, in no particular order.
+   */
+  long[] keys() {
+    long[] keys = new long[size()];
+    int next = 0;
+    for (Segment segment : segments) {
+      long stamp = segment.lock.readLock();
+      try {
+        int needed = next + segment.size;
+        if (needed > keys.length) {
+          keys = Arrays.copyOf(keys, needed);
+        }
+        next = segment.copyKeys(keys, next);
+      } finally {
+        segment.lock.unlockRead(stamp);
+      }
+    }
+    return next == keys.length ? keys : Arrays.copyOf(keys, next);
+  }
+
+  /**
+   * Visits all entries. Each segment is copied under its read lock and visited afterwards, so the
+   * visitor may access the index. Concurrent modifications of other segments may or may not be
+   * reflected.
+   *
+   * @param visitor as the callback receiving all entries.
+   */
+  @SuppressWarnings("unchecked")
+  void forEach(EntryVisitor<V> visitor) {
+    for (Segment segment : segments) {
+      long[] keys;
+      Object[] values;
+      long stamp = segment.lock.readLock();
+      try {
+        keys = new long[segment.size];
+        values = new Object[keys.length];
+        segment.copyEntries(keys, values);
+      } finally {
+        segment.lock.unlockRead(stamp);
+      }
+      for (int i = 0; i < keys.length; i++) {
+        visitor.visit(keys[i], (V) values[i]);
+      }
+    }
+  }
+
+  private static int segmentOf(long hash) {
+    return (int) (hash >>> (64 - SEGMENT_BITS));
+  }
+
+  /**
+   * Slot of a hash within a table. Uses bits below the segment selector.
+   */
+  private static int slotOf(long hash, int mask) {
+    return (int) (hash >>> 32) & mask;
+  }
+
+  /**
+   * Parallel key and value arrays of a segment. Replaced as a whole on resize, so lookups always
+   * see arrays of matching length.
+   */
+  private static final class Table {
+    private final long[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    private Table(int capacity) {
+      keys = new long[capacity];
+      values = new Object[capacity];
+      mask = capacity - 1;
+    }
+  }
+
+  /**
+   * A single open-addressing table with its own lock. Key 0 marks empty slots, so the value of key
+   * 0 is kept in a dedicated field.
+   */
+  private static final class Segment {
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+    private Object zeroKeyValue;
+    private volatile int size;
+
+    private Segment(int capacity) {
+      table = new Table(capacity);
+    }
+
+    private Object get(long key, long hash) {
+      long stamp = lock.tryOptimisticRead();
+      Object value = find(key, hash);
+      if (lock.validate(stamp)) {
+        return value;
+      }
+      // A writer interfered, repeat the lookup in a consistent state.
+      stamp = lock.readLock();
+      try {
+        return find(key, hash);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    /**
+     * Probes for a key. Safe to call without lock, in which case the result may be garbage and must
+     * be validated. Probing is bounded by the table length, so racing writers can never cause an
+     * endless loop.
+     */
+    private Object find(long key, long hash) {
+      if (key == 0) {
+        return zeroKeyValue;
+      }
+      Table current = table;
+      long[] keys = current.keys;
+      int mask = current.mask;
+      int slot = slotOf(hash, mask);
+      for (int probes = 0; probes <= mask; probes++) {
+        long candidate = keys[slot];
+        if (candidate == key) {
+          return current.values[slot];
+        }
+        if (candidate == 0) {
+          return null;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return null;
+    }
+
+    private Object put(long key, long hash, Object value, boolean onlyIfAbsent) {
+      long stamp = lock.writeLock();
+      try {
+        if (key == 0) {
+          Object previous = zeroKeyValue;
+          if (previous == null || !onlyIfAbsent) {
+            zeroKeyValue = value;
+          }
+          if (previous == null) {
+            size++;
+          }
+          return previous;
+        }
+        long[] keys = table.keys;
+        int mask = table.mask;
+        int slot = slotOf(hash, mask);
+        while (keys[slot] != 0) {
+          if (keys[slot] == key) {
+            Object previous = table.values[slot];
+            if (!onlyIfAbsent) {
+              table.values[slot] = value;
+            }
+            return previous;
+          }
+          slot = (slot + 1) & mask;
+        }
+        // Key not present. Grow first if the insertion would exceed a load factor of 3/4.
+        if ((size + 1) * 4L > (mask + 1) * 3L) {
+          resize((mask + 1) * 2);
+          insert(table, key, hash, value);
+        } else {
+          keys[slot] = key;
+          table.values[slot] = value;
+        }
+        size++;
+        return null;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    private Object remove(long key, long hash) {
+      long stamp = lock.writeLock();
+      try {
+        if (key == 0) {
+          Object previous = zeroKeyValue;
+          if (previous != null) {
+            zeroKeyValue = null;
+            size--;
+          }
+          return previous;
+        }
+        long[] keys = table.keys;
+        Object[] values = table.values;
+        int mask = table.mask;
+        int gap = slotOf(hash, mask);
+        while (keys[gap] != key) {
+          if (keys[gap] == 0) {
+            return null;
+          }
+          gap = (gap + 1) & mask;
+        }
+        final Object previous = values[gap];
+        // Shift back every subsequent entry of the run that would otherwise be cut off from its
+        // home slot by the gap.
+        int slot = gap;
+        while (true) {
+          slot = (slot + 1) & mask;
+          long candidate = keys[slot];
+          if (candidate == 0) {
+            break;
+          }
+          int home = slotOf(candidate * HASH_MULTIPLIER, mask);
+          if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+            keys[gap] = candidate;
+            values[gap] = values[slot];
+            gap = slot;
+          }
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+        size--;
+        return previous;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    /**
+     * Grows the table so it can hold the provided amount of entries without exceeding a load factor
+     * of 3/4. Caller must hold the write lock.
+     */
+    private void ensureCapacity(int entries) {
+      long required = entries * 4L / 3 + 1;
+      int capacity = table.mask + 1;
+      while (capacity < required && capacity < 1 << 30) {
+        capacity <<= 1;
+      }
+      if (capacity > table.mask + 1) {
+        resize(capacity);
+      }
+    }
+
+    /**
+     * Rehashes all entries into a new table. Caller must hold the write lock. The new table is only
+     * published once complete.
+     */
+    private void resize(int capacity) {
+      Table resized = new Table(capacity);
+      long[] keys = table.keys;
+      for (int slot = 0; slot < keys.length; slot++) {
+        if (keys[slot] != 0) {
+          insert(resized, keys[slot], keys[slot] * HASH_MULTIPLIER, table.values[slot]);
+        }
+      }
+      table = resized;
+    }
+
+    private static void insert(Table target, long key, long hash, Object value) {
+      int slot = slotOf(hash, target.mask);
+      while (target.keys[slot] != 0) {
+        slot = (slot + 1) & target.mask;
+      }
+      target.keys[slot] = key;
+      target.values[slot] = value;
+    }
+
+    /**
+     * Copies all entries into two arrays of the segment size. Caller must hold a lock.
+     */
+    private void copyEntries(long[] targetKeys, Object[] targetValues) {
+      int next = 0;
+      if (zeroKeyValue != null) {
+        targetValues[next++] = zeroKeyValue;
+      }
+      for (int slot = 0; slot < table.keys.length; slot++) {
+        if (table.keys[slot] != 0) {
+          targetKeys[next] = table.keys[slot];
+          targetValues[next++] = table.values[slot];
+        }
+      }
+    }
+
+    /**
+     * Copies all keys into an array. Caller must hold a lock.
+     */
+    private int copyKeys(long[] target, int offset) {
+      int next = offset;
+      if (zeroKeyValue != null) {
+        target[next++] = 0;
+      }
+      for (long key : table.keys) {
+        if (key != 0) {
+          target[next++] = key;
+        }
+      }
+      return next;
+    }
+  }
+
+  /**
+   * Callback for iterating over all entries of an index.
+   *
+   * @param <V> as the type of the indexed values.
+   */
+  interface EntryVisitor<V> {
+    void visit(long key, V value);
+  }
+}
@@ -5,7 +5,9 @@ import ca.uqam.xoxinternals.model.Player;
 
 /**
  * Represents player scores. Can be created at any point during the gameplay or at the end of the
- * game for final stats.
+ * game for final stats. A single instance may be shared by all callers: the constructor copies its
+ * input and the array getters return copies. The indexed accessors read the ranking without
+ * allocating.
  *
  * @author Maximilian Schiedermeier
  */
@@ -39,27 +41,66 @@ public class Ranking {
       throw new RuntimeException(
           "Unable to create ranking. Provided players and scored differ in size.");
     }
-    this.playersDescending = playersDescending;
-    this.scoresDescending = scoresDescending;
+    this.playersDescending = copyOf(playersDescending);
+    this.scoresDescending = scoresDescending.clone();
     this.gameOver = gameOver;
   }
 
   /**
    * Getter to obtain the player details, ordered by descending score.
    *
-   * @return the player details as an array.
+   * @return copies of the player details as an array.
    */
   public Player[] getPlayersDescending() {
-    return playersDescending;
+    return copyOf(playersDescending);
   }
 
   /**
    * Getter to obtain the player scores, ordered by descending value.
    *
-   * @return the player scores as an array.
+   * @return copy of the player scores as an array.
    */
   public int[] getScoresDescending() {
-    return scoresDescending;
+    return scoresDescending == null ? null : scoresDescending.clone();
+  }
+
+  /**
+   * Getter for the amount of ranked players.
+   *
+   * @return the number of players listed by this ranking.
+   */
+  public int getPlayerCount() {
+    return playersDescending == null ? 0 : playersDescending.length;
+  }
+
+  /**
+   * Getter for the name of a ranked player.
+   *
+   * @param rank as the position in the ranking, 0 for the highest score.
+   * @return the name of the player at that rank.
+   */
+  public String getPlayerName(int rank) {
+    return playersDescending[rank].getName();
+  }
+
+  /**
+   * Getter for the preferred colour of a ranked player.
+   *
+   * @param rank as the position in the ranking, 0 for the highest score.
+   * @return the preferred colour of the player at that rank.
+   */
+  public String getPlayerColour(int rank) {
+    return playersDescending[rank].getPreferredColour();
+  }
+
+  /**
+   * Getter for the score of a ranked player.
+   *
+   * @param rank as the position in the ranking, 0 for the highest score.
+   * @return the score of the player at that rank.
+   */
+  public int getScore(int rank) {
+    return scoresDescending[rank];
   }
 
   /**
@@ -88,6 +129,20 @@ public class Ranking {
     return gameOver;
   }
 
+  /**
+   * Copies players, since players are mutable beans.
+   */
+  private static Player[] copyOf(Player[] players) {
+    if (players == null) {
+      return null;
+    }
+    Player[] copies = new Player[players.length];
+    for (int i = 0; i < players.length; i++) {
+      copies[i] = new Player(players[i].getName(), players[i].getPreferredColour());
+    }
+    return copies;
+  }
+
   /**
    * Helper method to convert beans of this kind to a human readable string representation.
    *
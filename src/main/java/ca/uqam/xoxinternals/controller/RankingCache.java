@@ -0,0 +1,73 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.XoxGameReadOnly;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoizing ranking generator, placed in front of another generator. Every game keeps the ranking
+ * computed last, together with the version of the board snapshot it was computed for. The action
+ * interpreter publishes a new snapshot with every applied move, so a cached ranking is valid as
+ * long as the published version did not change. Moves that do not end the game leave all scores at
+ * 0, so the ranking of an unfinished game even stays valid across moves. Repeated lookups are
+ * therefore served with the same shared instance, without inspecting the game.
+ *
+ * <p>Served rankings copy their input and hand out copies, so sharing them among callers is safe.
+ *
+ * @author Maximilian Schiedermeier
+ */
+final class RankingCache implements RankingGenerator {
+  private final RankingGenerator generator;
+  // Latest ranking per game. Indexed by game instance, games do not override equals.
+  private final Map<XoxGameReadOnly, CachedRanking> rankings = new ConcurrentHashMap<>();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param generator as the generator to compute rankings on cache misses.
+   */
+  RankingCache(RankingGenerator generator) {
+    this.generator = generator;
+  }
+
+  @Override
+  public Ranking computeRanking(XoxGameReadOnly game) throws LogicException {
+    // Read the version first. A ranking computed afterwards reflects at least this version.
+    long version = game.getBoardSnapshot().getVersion();
+    CachedRanking cached = rankings.get(game);
+    if (cached != null) {
+      if (cached.version == version) {
+        return cached.ranking;
+      }
+      if (!cached.ranking.isGameOver() && !game.isFinished()) {
+        rankings.put(game, new CachedRanking(version, cached.ranking));
+        return cached.ranking;
+      }
+    }
+    Ranking ranking = generator.computeRanking(game);
+    rankings.put(game, new CachedRanking(version, ranking));
+    return ranking;
+  }
+
+  /**
+   * Drops the cached ranking of a game, typically because the game was removed.
+   *
+   * @param game as the game to forget.
+   */
+  void forget(XoxGameReadOnly game) {
+    rankings.remove(game);
+  }
+
+  /**
+   * A ranking and the snapshot version it is valid for.
+   */
+  private static final class CachedRanking {
+    private final long version;
+    private final Ranking ranking;
+
+    private CachedRanking(long version, Ranking ranking) {
+      this.version = version;
+      this.ranking = ranking;
+    }
+  }
+}
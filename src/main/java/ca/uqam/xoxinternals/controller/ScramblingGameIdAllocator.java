@@ -0,0 +1,137 @@
+package ca.uqam.xoxinternals.controller;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Game id allocator that draws ids from a sequence and passes them through a keyed, bijective
+ * scrambler. Since the scrambler is a permutation of all non-negative longs, distinct sequence
+ * values always result in distinct ids, so uniqueness is guaranteed without looking at existing
+ * games. The ids still look random to clients. Allocation is lock-free and costs one atomic
+ * increment. Exactly one sequence value scrambles to id 0, which managers never hand out.
+ *
+ * <p>Several allocators that share a key can hand out ids from disjoint sequences, by using the
+ * same stride and distinct offsets. The allocator that produced an id can then be recovered with
+ * unscramble(id) % stride, which is how the ShardedXoxManager routes games to shards.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class ScramblingGameIdAllocator implements GameIdAllocator {
+  // All computations are modulo 2^63, so ids are never negative.
+  private static final long MASK = Long.MAX_VALUE;
+  private static final long MULTIPLIER_1 = 0xBF58476D1CE4E5B9L & MASK;
+  private static final long MULTIPLIER_2 = 0x94D049BB133111EBL & MASK;
+  private static final long INVERSE_1 = inverse(MULTIPLIER_1);
+  private static final long INVERSE_2 = inverse(MULTIPLIER_2);
+
+  private final long key;
+  private final long stride;
+  private final AtomicLong sequence;
+
+  /**
+   * Creates a stand-alone allocator with a random key.
+   */
+  public ScramblingGameIdAllocator() {
+    this(randomKey(), 1, 0);
+  }
+
+  /**
+   * Creates an allocator that hands out the sequence values offset, offset + stride, offset + 2 *
+   * stride, and so on, scrambled with the provided key.
+   *
+   * @param key    as the secret that selects the permutation. Allocators sharing a key and a stride
+   *               but with different offsets never hand out the same id.
+   * @param stride as the distance between two sequence values. Must be positive.
+   * @param offset as the first sequence value. Must be in range [0, stride).
+   */
+  public ScramblingGameIdAllocator(long key, int stride, int offset) {
+    if (stride < 1 || offset < 0 || offset >= stride) {
+      throw new IllegalArgumentException("Offset must be in range [0, stride).");
+    }
+    this.key = key & MASK;
+    this.stride = stride;
+    this.sequence = new AtomicLong(offset);
+  }
+
+  /**
+   * Draws a random scrambler key.
+   *
+   * @return a key suitable for the constructor of this class.
+   */
+  public static long randomKey() {
+    return new SecureRandom().nextLong() & MASK;
+  }
+
+  @Override
+  public long nextGameId() {
+    return scramble(sequence.getAndAdd(stride));
+  }
+
+  /**
+   * Reserves a whole block of sequence values with a single atomic increment.
+   */
+  @Override
+  public long[] nextGameIds(int count) {
+    long value = sequence.getAndAdd(stride * count);
+    long[] gameIds = new long[count];
+    for (int i = 0; i < count; i++) {
+      gameIds[i] = scramble(value);
+      value += stride;
+    }
+    return gameIds;
+  }
+
+  /**
+   * Maps a sequence value to a game id. Bijective on all non-negative longs.
+   *
+   * @param value as the sequence value.
+   * @return the scrambled game id.
+   */
+  public long scramble(long value) {
+    long x = (value ^ key) & MASK;
+    x ^= x >>> 31;
+    x = (x * MULTIPLIER_1) & MASK;
+    x ^= x >>> 29;
+    x = (x * MULTIPLIER_2) & MASK;
+    x ^= x >>> 32;
+    return x;
+  }
+
+  /**
+   * Inverse of scramble. Maps a game id back to the sequence value it was created from.
+   *
+   * @param gameId as the scrambled game id.
+   * @return the original sequence value.
+   */
+  public long unscramble(long gameId) {
+    long x = gameId & MASK;
+    x = undoShift(x, 32);
+    x = (x * INVERSE_2) & MASK;
+    x = undoShift(x, 29);
+    x = (x * INVERSE_1) & MASK;
+    x = undoShift(x, 31);
+    return x ^ key;
+  }
+
+  /**
+   * Reverts x ^= x >>> shift on a 63-bit value.
+   */
+  private static long undoShift(long value, int shift) {
+    long result = value;
+    for (int applied = shift; applied < 63; applied += shift) {
+      result ^= value >>> applied;
+    }
+    return result;
+  }
+
+  /**
+   * Computes the multiplicative inverse of an odd number modulo 2^63, by Newton iteration.
+   */
+  private static long inverse(long odd) {
+    long inverse = odd;
+    for (int i = 0; i < 5; i++) {
+      inverse *= 2 - odd * inverse;
+    }
+    return inverse & MASK;
+  }
+}
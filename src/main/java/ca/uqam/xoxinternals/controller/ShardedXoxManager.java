@@ -0,0 +1,302 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.BoardReadOnly;
+import ca.uqam.xoxinternals.model.BoardSnapshot;
+import ca.uqam.xoxinternals.model.Player;
+import ca.uqam.xoxinternals.model.XoxInitSettings;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Xox Controller Implementation that partitions all games over a fixed amount of independent
+ * shards. Every shard owns its own game registry, action generator and action interpreter, and is
+ * bound to a dedicated single-threaded executor. All modifications of a shard are executed by that
+ * executor, so each shard has exactly one writer. Reads are served directly from the calling
+ * thread. Every shard allocates ids from its own scrambled sequence, all sequences being disjoint.
+ * Unscrambling an id yields the shard that created it, so a game always stays on the same shard.
+ *
+ * <p>In contrast to XoxManagerImpl, a sharded manager is not a singleton and does not come with a
+ * sample game. Call shutdown once the manager is no longer needed, to stop the shard executors.
+ *
+ * <p>Modifications submitted to a shard are always completed, so callers wait for them even if
+ * interrupted. The interrupt flag is restored afterwards.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class ShardedXoxManager implements XoxManager {
+  private final XoxManagerImpl[] shards;
+  private final ExecutorService[] writers;
+  // Shares the key of all shard allocators. Only used to route ids.
+  private final ScramblingGameIdAllocator router;
+  // Shared by all shards.
+  private final Leaderboard leaderboard = new Leaderboard();
+
+  /**
+   * Creates a sharded manager with one shard per available processor.
+   */
+  public ShardedXoxManager() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a sharded manager with a custom amount of shards.
+   *
+   * @param shardCount as the amount of independent shards. Must be positive.
+   */
+  public ShardedXoxManager(int shardCount) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Sharded manager requires at least one shard.");
+    }
+    shards = new XoxManagerImpl[shardCount];
+    writers = new ExecutorService[shardCount];
+    long key = ScramblingGameIdAllocator.randomKey();
+    router = new ScramblingGameIdAllocator(key, 1, 0);
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new XoxManagerImpl(false, new ScramblingGameIdAllocator(key, shardCount, i),
+          leaderboard);
+      String threadName = "xox-shard-" + i;
+      writers[i] = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, threadName);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Getter for the amount of shards.
+   *
+   * @return the amount of independent shards.
+   */
+  public int getShardCount() {
+    return shards.length;
+  }
+
+  /**
+   * Resolves the shard responsible for a game id.
+   *
+   * @param gameId as the game id to route.
+   * @return index of the responsible shard.
+   */
+  int shardIndex(long gameId) {
+    return (int) Long.remainderUnsigned(router.unscramble(gameId), shards.length);
+  }
+
+  @Override
+  public Collection<Long> getGames() {
+    Collection<Long> allGames = new ArrayList<>();
+    for (XoxManagerImpl shard : shards) {
+      allGames.addAll(shard.getGames());
+    }
+    return allGames;
+  }
+
+  @Override
+  public void removeGame(long gameId) {
+    int shard = shardIndex(gameId);
+    write(shard, () -> {
+      shards[shard].removeGame(gameId);
+      return null;
+    });
+  }
+
+  @Override
+  public long addGame(XoxInitSettings initSettings) {
+    // Any shard will do, its allocator hands out ids that route back to it.
+    int shard = ThreadLocalRandom.current().nextInt(shards.length);
+    return write(shard, () -> shards[shard].addGame(initSettings));
+  }
+
+  @Override
+  public long[] addGames(List<XoxInitSettings> initSettings) {
+    // Deal the batch round-robin over all shards, and let the shards create their parts in
+    // parallel.
+    int shardCount = shards.length;
+    List<List<XoxInitSettings>> parts = new ArrayList<>(shardCount);
+    for (int shard = 0; shard < shardCount; shard++) {
+      parts.add(new ArrayList<>(initSettings.size() / shardCount + 1));
+    }
+    int next = 0;
+    for (XoxInitSettings settings : initSettings) {
+      parts.get(next++ % shardCount).add(settings);
+    }
+    List<Future<long[]>> pending = new ArrayList<>(shardCount);
+    for (int shard = 0; shard < shardCount; shard++) {
+      XoxManagerImpl target = shards[shard];
+      List<XoxInitSettings> part = parts.get(shard);
+      pending.add(writers[shard].submit(() -> target.addGames(part)));
+    }
+    List<long[]> results = awaitAll(pending);
+    long[] gameIds = new long[initSettings.size()];
+    for (int shard = 0; shard < shardCount; shard++) {
+      long[] partIds = results.get(shard);
+      for (int i = 0; i < partIds.length; i++) {
+        gameIds[i * shardCount + shard] = partIds[i];
+      }
+    }
+    return gameIds;
+  }
+
+  @Override
+  public BoardReadOnly getBoard(long gameId) {
+    return shards[shardIndex(gameId)].getBoard(gameId);
+  }
+
+  @Override
+  public long getStateVersion(long gameId) {
+    return shards[shardIndex(gameId)].getStateVersion(gameId);
+  }
+
+  @Override
+  public long getBoardHash(long gameId) {
+    return shards[shardIndex(gameId)].getBoardHash(gameId);
+  }
+
+  @Override
+  public Player[] getPlayers(long gameId) {
+    return shards[shardIndex(gameId)].getPlayers(gameId);
+  }
+
+  @Override
+  public XoxClaimFieldAction[] getActions(long gameId, String player) {
+    return shards[shardIndex(gameId)].getActions(gameId, player);
+  }
+
+  @Override
+  public void performAction(long gameId, String player, int actionIndex) {
+    int shard = shardIndex(gameId);
+    write(shard, () -> {
+      shards[shard].performAction(gameId, player, actionIndex);
+      return null;
+    });
+  }
+
+  @Override
+  public XoxMoveStatus[] performActions(List<XoxMove> moves) {
+    // Split the batch by shard, remembering the batch position of every move.
+    int shardCount = shards.length;
+    List<List<XoxMove>> parts = new ArrayList<>(shardCount);
+    List<List<Integer>> positions = new ArrayList<>(shardCount);
+    for (int shard = 0; shard < shardCount; shard++) {
+      parts.add(new ArrayList<>());
+      positions.add(new ArrayList<>());
+    }
+    int next = 0;
+    for (XoxMove move : moves) {
+      int shard = shardIndex(move.getGameId());
+      parts.get(shard).add(move);
+      positions.get(shard).add(next++);
+    }
+    // Shards apply their parts in parallel, each on its own writer.
+    List<Future<XoxMoveStatus[]>> pending = new ArrayList<>(shardCount);
+    for (int shard = 0; shard < shardCount; shard++) {
+      XoxManagerImpl target = shards[shard];
+      List<XoxMove> part = parts.get(shard);
+      pending.add(part.isEmpty() ? null : writers[shard].submit(() -> target.performActions(part)));
+    }
+    List<XoxMoveStatus[]> results = awaitAll(pending);
+    XoxMoveStatus[] statuses = new XoxMoveStatus[next];
+    for (int shard = 0; shard < shardCount; shard++) {
+      XoxMoveStatus[] partStatuses = results.get(shard);
+      if (partStatuses == null) {
+        continue;
+      }
+      List<Integer> partPositions = positions.get(shard);
+      for (int i = 0; i < partStatuses.length; i++) {
+        statuses[partPositions.get(i)] = partStatuses[i];
+      }
+    }
+    return statuses;
+  }
+
+  @Override
+  public CompletableFuture<BoardSnapshot> awaitBoardChange(long gameId, long knownVersion) {
+    return shards[shardIndex(gameId)].awaitBoardChange(gameId, knownVersion);
+  }
+
+  @Override
+  public GameSubscription subscribe(long gameId, GameStateListener listener) {
+    return shards[shardIndex(gameId)].subscribe(gameId, listener);
+  }
+
+  @Override
+  public Leaderboard getLeaderboard() {
+    return leaderboard;
+  }
+
+  @Override
+  public Ranking getRanking(long gameId) {
+    return shards[shardIndex(gameId)].getRanking(gameId);
+  }
+
+  /**
+   * Stops all shard executors and the notification threads of all shards. Modifications submitted
+   * afterwards are rejected, and subscribers are no longer notified.
+   */
+  public void shutdown() {
+    for (int shard = 0; shard < shards.length; shard++) {
+      writers[shard].shutdown();
+      shards[shard].stopNotifications();
+    }
+  }
+
+  /**
+   * Runs a modification on the single writer of a shard and waits for its completion. Runtime
+   * exceptions raised by the modification are passed on to the caller.
+   *
+   * @return the result of the modification.
+   */
+  private <T> T write(int shard, Callable<T> modification) {
+    List<Future<T>> pending = new ArrayList<>(1);
+    pending.add(writers[shard].submit(modification));
+    return awaitAll(pending).get(0);
+  }
+
+  /**
+   * Waits for all modifications submitted to shard writers, even if interrupted meanwhile. Once
+   * all are completed, the first runtime exception raised by any of them is passed on to the
+   * caller.
+   *
+   * @param modifications as the pending modifications. Null entries stand for shards without work.
+   * @return the results of all modifications, null for null entries.
+   */
+  private static <T> List<T> awaitAll(List<Future<T>> modifications) {
+    List<T> results = new ArrayList<>(modifications.size());
+    RuntimeException failure = null;
+    boolean interrupted = false;
+    for (Future<T> modification : modifications) {
+      T result = null;
+      boolean done = modification == null;
+      while (!done) {
+        try {
+          result = modification.get();
+          done = true;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause() instanceof RuntimeException
+                ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+          }
+          done = true;
+        }
+      }
+      results.add(result);
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return results;
+  }
+}
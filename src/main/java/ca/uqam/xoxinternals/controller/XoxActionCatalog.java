@@ -0,0 +1,75 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.Player;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * Precomputed action identifiers of a single player. The identifier of a claim-field action is the
+ * MD5 hash of its JSON string representation, which only depends on the targeted cell and on the
+ * name and colour of the player. A catalog therefore computes the 9 identifiers of a player once,
+ * and can be reused for every action bundle generated for the same player.
+ *
+ * @author Maximilian Schiedermeier
+ */
+class XoxActionCatalog {
+  // Player details the identifiers were computed for.
+  private final String playerName;
+  private final String playerColour;
+  // MD5 based action identifiers, indexed by cell (3 * ypos + xpos).
+  private final String[] keys = new String[9];
+
+  /**
+   * Computes the identifiers of all 9 claim-field actions of a player.
+   *
+   * @param player as the player the catalog is built for.
+   * @throws LogicException in case one of the actions could not be created.
+   */
+  XoxActionCatalog(Player player) throws LogicException {
+    playerName = player.getName();
+    playerColour = player.getPreferredColour();
+    for (int cell = 0; cell < keys.length; cell++) {
+      keys[cell] = actionToHash(new XoxClaimFieldAction(cell % 3, cell / 3, player));
+    }
+  }
+
+  /**
+   * Tells whether this catalog still matches the current name and colour of a player.
+   *
+   * @param player as the player to test.
+   * @return true if the identifiers of this catalog are valid for the provided player.
+   */
+  boolean matches(Player player) {
+    return Objects.equals(playerName, player.getName())
+        && Objects.equals(playerColour, player.getPreferredColour());
+  }
+
+  /**
+   * Looks up the identifier of the action that claims a given cell.
+   *
+   * @param xpos as the column-index of the cell.
+   * @param ypos as the row-index of the cell.
+   * @return MD5 hash of the JSON string representation of the action.
+   */
+  String getKey(int xpos, int ypos) {
+    return keys[3 * ypos + xpos];
+  }
+
+  /**
+   * Computes a unique MD5 checksum based on the string representation of an action object. See:
+   * https://stackoverflow.com/a/5470263
+   *
+   * @param action as the object to create an MD5 hash for.
+   */
+  private static String actionToHash(XoxClaimFieldAction action) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("MD5");
+      byte[] md5sum = md.digest(action.toString().getBytes());
+      return String.format("%032X", new BigInteger(1, md5sum));
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("MD5 hashing not supported.");
+    }
+  }
+}
@@ -4,18 +4,32 @@ import ca.uqam.xoxinternals.model.BoardReadOnly;
 import ca.uqam.xoxinternals.model.Player;
 import ca.uqam.xoxinternals.model.XoxGameImpl;
 import ca.uqam.xoxinternals.model.XoxGameReadOnly;
-import java.math.BigInteger;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.LinkedHashMap;
+import java.util.Collections;
 import java.util.Map;
 
 /**
- * Analyzes a Xox game and generates a collection of valid actions for a player.
+ * Analyzes a Xox game and generates a collection of valid actions for a player. The MD5 based
+ * action identifiers are computed once per player and cell, then served from a cache. Likewise,
+ * action bundles are shared immutable instances, cached per player name and free-cell mask, so
+ * repeated requests do not allocate. Both caches are read without locking, bounded approximately,
+ * and evict players that were not requested recently.
  *
  * @author Maximilian Schiedermeier
  */
 public class XoxActionGenerator implements ActionGenerator {
+  // Upper bound for the amount of cached action identifier catalogs.
+  private static final int MAX_CACHED_CATALOGS = 1 << 16;
+  // Upper bound for the amount of players with cached action sets.
+  private static final int MAX_CACHED_PLAYERS = 1 << 12;
+  // Shared result for players who can not act.
+  private static final XoxClaimFieldAction[] NO_ACTIONS = new XoxClaimFieldAction[0];
+  // Precomputed action identifiers, by player name.
+  private final BoundedCache<String, XoxActionCatalog> catalogs =
+      new BoundedCache<>(MAX_CACHED_CATALOGS);
+  // Flyweight action sets, by player name.
+  private final BoundedCache<String, XoxActionSets> actionSets =
+      new BoundedCache<>(MAX_CACHED_PLAYERS);
+
   /**
    * Default constructor.
    */
@@ -36,51 +50,85 @@ public class XoxActionGenerator implements ActionGenerator {
   }
 
   /**
-   * Iterates over all cells of a provided Xox-Board and creates an action object for every
-   * unoccupied cell.
+   * Tells whether a player may currently claim cells in a game, i.e. whether the player is a
+   * participant, the game is still running and it is the player's turn. These are the exact
+   * criteria for a non-empty action bundle.
+   *
+   * @param game   as the xox game.
+   * @param player as the player to test. Can be null.
+   * @return true if the player is entitled to act.
+   */
+  boolean canAct(XoxGameReadOnly game, Player player) {
+    // Non-participants (observers) always receive an empty action bundle.
+    if (player == null || !isParticipant(game, player)) {
+      return false;
+    }
+    // If the game is already over, return an empty set
+    if (game.isFinished()) {
+      return false;
+    }
+    // If not the player's turn, return an empty set. (Check is performed by comparing the name
+    // of the current player)
+    return player.getName().toLowerCase().equals(game.getCurrentPlayerName().toLowerCase());
+  }
+
+  /**
+   * Resolves the shared set of actions for all unoccupied cells of a provided Xox-Board.
    *
    * @param board as the 3x3 grid to be analyzed.
-   * @return an array of possible lay actions.
+   * @return the immutable action set matching the free cells of the board.
    * @throws LogicException in case one of the resulting player actions could not be correctly
    *                        created.
    */
-  private static Map<String, XoxClaimFieldAction> emptyCellsToActions(BoardReadOnly board,
-                                                                      Player player)
+  private XoxActionSets.ActionSet emptyCellsToActions(BoardReadOnly board, Player player)
       throws LogicException {
-    Map<String, XoxClaimFieldAction> actionMap = new LinkedHashMap();
-    // Iterate over board
-    for (int ypos = 0; ypos < 3; ypos++) {
-      for (int xpos = 0; xpos < 3; xpos++) {
-        // Add an action if the position is free
-        if (board.isFree(xpos, ypos)) {
-          XoxClaimFieldAction action = new XoxClaimFieldAction(xpos, ypos, player);
-          String actionMd5 = actionToHash(action);
-          actionMap.put(actionMd5, action);
-        }
-      }
+    return lookupActionSets(player).getActionSet(board.getFreeCells());
+  }
+
+  /**
+   * Resolves the flyweight action sets of a player. Action sets are cached by player name, and
+   * rebuilt if the cached sets were built for a different colour, or the name or colour of the
+   * player changed since. Equal players of different games share the same sets.
+   *
+   * @param player as the player to look up the action sets for.
+   * @return the shared action sets of the player.
+   * @throws LogicException in case the actions could not be built.
+   */
+  private XoxActionSets lookupActionSets(Player player) throws LogicException {
+    if (player.getName() == null) {
+      return new XoxActionSets(player, lookupCatalog(player));
     }
-    return actionMap;
+    XoxActionSets playerSets = actionSets.get(player.getName());
+    if (playerSets == null || !playerSets.matches(player)) {
+      playerSets = new XoxActionSets(player, lookupCatalog(player));
+      actionSets.put(player.getName(), playerSets);
+    }
+    return playerSets;
   }
 
   /**
-   * Computes a unique MD5 checksum based on the string representation of an action object. See:
-   * https://stackoverflow.com/a/5470263
+   * Resolves the catalog of precomputed action identifiers for a player. Catalogs are cached by
+   * player name, and rebuilt if the name or colour of the player no longer matches.
    *
-   * @param action as the object to create an MD5 hash for.
+   * @param player as the player to look up the action identifiers for.
+   * @return catalog with the action identifiers of all cells.
+   * @throws LogicException in case the catalog could not be built.
    */
-  private static String actionToHash(XoxClaimFieldAction action) {
-    try {
-      MessageDigest md = MessageDigest.getInstance("MD5");
-      byte[] md5sum = md.digest(action.toString().getBytes());
-      return String.format("%032X", new BigInteger(1, md5sum));
-    } catch (NoSuchAlgorithmException e) {
-      throw new RuntimeException("MD5 hashing not supported.");
+  private XoxActionCatalog lookupCatalog(Player player) throws LogicException {
+    if (player.getName() == null) {
+      return new XoxActionCatalog(player);
+    }
+    XoxActionCatalog catalog = catalogs.get(player.getName());
+    if (catalog == null || !catalog.matches(player)) {
+      catalog = new XoxActionCatalog(player);
+      catalogs.put(player.getName(), catalog);
     }
+    return catalog;
   }
 
   /**
    * Generates a map of valid actions for a given xox game instance. Map keys are each action's MD5
-   * hash.
+   * hash. The returned map is shared and unmodifiable.
    *
    * @param game   as the game instance for which the
    * @param player as the player object defining the participant for why tha action bundle shall be
@@ -91,26 +139,42 @@ public class XoxActionGenerator implements ActionGenerator {
   @Override
   public Map<String, XoxClaimFieldAction> generateActions(XoxGameReadOnly game, Player player)
       throws LogicException {
+    XoxActionSets.ActionSet set = resolveActionSet(game, player);
+    return set == null ? Collections.emptyMap() : set.getActionMap();
+  }
+
+  /**
+   * Generates the valid actions for a given xox game instance, as array. The returned array is
+   * shared with other callers and must not be modified.
+   *
+   * @param game   as the game instance to analyze.
+   * @param player as the player to generate the actions for. Can be null, see generateActions.
+   * @return array of all valid actions, in row-major order of the targeted cells.
+   * @throws LogicException in case the provided game type is not supported.
+   */
+  public XoxClaimFieldAction[] generateActionArray(XoxGameReadOnly game, Player player)
+      throws LogicException {
+    XoxActionSets.ActionSet set = resolveActionSet(game, player);
+    return set == null ? NO_ACTIONS : set.getActions();
+  }
+
+  /**
+   * Runs all checks on game and player, then resolves the shared action set.
+   *
+   * @return the action set for the free cells of the game board, or null if the player can not act.
+   */
+  private XoxActionSets.ActionSet resolveActionSet(XoxGameReadOnly game, Player player)
+      throws LogicException {
     // Verify and cast the game type
     if (game.getClass() != XoxGameImpl.class) {
       throw new LogicException("Xox Action Generator can only handle Xox games.");
     }
     XoxGameImpl xoxGame = (XoxGameImpl) game;
-    // Non-participants (observers) always receive an empty action bundle.
-    if (player == null || !isParticipant(xoxGame, player)) {
-      return new LinkedHashMap<>();
-    }
-    // If the game is already over, return an empty set
-    if (xoxGame.isFinished()) {
-      return new LinkedHashMap<>();
+    // Observers, players of finished games and players waiting for their turn get no actions.
+    if (!canAct(xoxGame, player)) {
+      return null;
     }
-    // If not the player's turn, return an empty set. (Check is performed by comparing the name
-    // of the current player)
-    if (!player.getName().toLowerCase().equals(xoxGame.getCurrentPlayerName().toLowerCase())) {
-      return new LinkedHashMap<>();
-    }
-    // Iterate over board and add an action for every unoccupied cell.
+    // Look up the action set matching the unoccupied cells of the board.
     return emptyCellsToActions(xoxGame.getModifiableBoard(), player);
   }
 }
-
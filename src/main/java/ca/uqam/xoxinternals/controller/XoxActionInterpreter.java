@@ -1,9 +1,9 @@
 package ca.uqam.xoxinternals.controller;
 
 import ca.uqam.xoxinternals.model.ModelAccessException;
+import ca.uqam.xoxinternals.model.Player;
 import ca.uqam.xoxinternals.model.XoxGameImpl;
 import ca.uqam.xoxinternals.model.XoxGameReadOnly;
-import java.util.Collection;
 
 /**
  * Business Logic class that applies a Xox Action on a provided Xox model instance. A Xox action
@@ -16,6 +16,8 @@ import java.util.Collection;
 public class XoxActionInterpreter implements ActionInterpreter {
   private final XoxActionGenerator actionGenerator;
   private final XoxEndingAnalyzer endingAnalyzer;
+  // Notified after every applied move, null if nobody is interested.
+  private volatile GameChangeObserver changeObserver;
 
   /**
    * Constructor for new action interpreter instance.
@@ -33,44 +35,61 @@ public class XoxActionInterpreter implements ActionInterpreter {
   @Override
   public void interpretAndApplyAction(XoxClaimFieldAction action, XoxGameReadOnly game)
       throws LogicException, ModelAccessException {
-    // Verify action and game input type
+    // Verify action input type
     if (action.getClass() != XoxClaimFieldAction.class) {
       throw new LogicException("Xox Action Interpreter can only handle XoxClaimFieldActions");
     }
+    interpretAndApplyClaim(game, action.getPlayer(), action.getX(), action.getY());
+  }
+
+  /**
+   * Validates and applies a claim of a single cell, without materializing any action objects. The
+   * validation is equivalent to testing whether the claim is contained in the action bundle of the
+   * action generator, but only runs constant-time checks: the player must be a participant whose
+   * turn it is in a running game, and the targeted cell must be on the board and vacant.
+   *
+   * @param game   as the game instance the claim shall be applied on.
+   * @param player as the player claiming the cell.
+   * @param xpos   as the column-index of the claimed cell.
+   * @param ypos   as the row-index of the claimed cell.
+   * @throws LogicException       in case the claim is not a valid action.
+   * @throws ModelAccessException in case the claim attempts to modify restricted parts of the
+   *                              model.
+   */
+  public void interpretAndApplyClaim(XoxGameReadOnly game, Player player, int xpos, int ypos)
+      throws LogicException, ModelAccessException {
     if (game.getClass() != XoxGameImpl.class) {
       throw new LogicException("Xox Action Interpreter can only handle XoxGames");
     }
-    XoxClaimFieldAction xoxClaimFieldAction = (XoxClaimFieldAction) action;
     XoxGameImpl xoxGame = (XoxGameImpl) game;
-    // Verify the action is legit (must be included in list of actions provided by generator)
-    if (!isValidAction(game, xoxClaimFieldAction)) {
+    // Verify the action is legit (turn, participation, bounds and vacancy). Bounds are checked
+    // here, since not every board implementation checks them in isFree.
+    if (xpos < 0 || xpos > 2 || ypos < 0 || ypos > 2 || !actionGenerator.canAct(xoxGame, player)
+        || !xoxGame.getModifiableBoard().isFree(xpos, ypos)) {
       throw new LogicException(
           "Provided action can not be applied on game - is not a valid action.");
     }
     // Apply action on model
-    xoxGame.getModifiableBoard().occupy(xoxClaimFieldAction.getX(), xoxClaimFieldAction.getY(),
-        xoxGame.isFirstPlayer(xoxClaimFieldAction.getPlayer()));
+    xoxGame.getModifiableBoard().occupy(xpos, ypos, xoxGame.isFirstPlayer(player));
+    xoxGame.incrementMoveCount();
     // Update current player
     xoxGame.setCurrentPlayer(1 - xoxGame.getCurrentPlayerIndex());
-    // Pass Game-Over test on model instance
-    endingAnalyzer.analyzeAndUpdate(game);
+    // Pass Game-Over test on model instance, only inspecting what the move could have changed
+    endingAnalyzer.analyzeAndUpdate(game, xpos, ypos);
+    // Make the new board state visible to readers, as a whole
+    xoxGame.publishSnapshot();
+    GameChangeObserver observer = changeObserver;
+    if (observer != null) {
+      observer.gameChanged(xoxGame);
+    }
   }
 
   /**
-   * Helper method verify if a specific xox action is contained in an actions bundle. The action is
-   * identified by grid position and player information.
+   * Registers the observer to notify after every applied move.
+   *
+   * @param changeObserver as the observer, or null to stop notifications.
    */
-  private boolean isValidAction(XoxGameReadOnly game, XoxClaimFieldAction selectedAction)
-      throws LogicException {
-    // retrieve all valid actions for player
-    Collection<XoxClaimFieldAction> validActions =
-        actionGenerator.generateActions(game, selectedAction.getPlayer()).values();
-    // look up if provided action is contained
-    for (XoxClaimFieldAction currentAction : validActions) {
-      if (currentAction.equals(selectedAction)) {
-        return true;
-      }
-    }
-    return false;
+  void setChangeObserver(GameChangeObserver changeObserver) {
+    this.changeObserver = changeObserver;
   }
 }
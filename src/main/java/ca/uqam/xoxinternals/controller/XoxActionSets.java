@@ -0,0 +1,111 @@
+package ca.uqam.xoxinternals.controller;
+
+import ca.uqam.xoxinternals.model.Player;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shared, immutable action sets of a single player. The claim-field actions a player can choose
+ * from only depend on the player and the mask of free cells, so at most 512 distinct sets exist
+ * per player. Every set is built on first request and then shared by all subsequent requests for
+ * the same free-cell mask. The actions of all sets are bound to a private copy of the player,
+ * so players of different games who share name and colour also share their actions.
+ *
+ * @author Maximilian Schiedermeier
+ */
+class XoxActionSets {
+  // Private copy of the player all actions of this instance are bound to.
+  private final Player player;
+  // Precomputed action identifiers of the player.
+  private final XoxActionCatalog catalog;
+  // The 9 claim-field actions of the player, indexed by cell (3 * ypos + xpos).
+  private final XoxClaimFieldAction[] cellActions = new XoxClaimFieldAction[9];
+  // Lazily built action sets, indexed by free-cell mask.
+  private final AtomicReferenceArray<ActionSet> sets = new AtomicReferenceArray<>(512);
+
+  /**
+   * Creates the flyweight actions of a player. Action sets themselves are only built on demand.
+   *
+   * @param player  as the player to bind all actions to. Only name and colour are retained.
+   * @param catalog as the precomputed action identifiers of the player.
+   * @throws LogicException in case one of the actions could not be created.
+   */
+  XoxActionSets(Player player, XoxActionCatalog catalog) throws LogicException {
+    this.player = new Player(player.getName(), player.getPreferredColour());
+    this.catalog = catalog;
+    for (int cell = 0; cell < cellActions.length; cell++) {
+      cellActions[cell] = new XoxClaimFieldAction(cell % 3, cell / 3, this.player);
+    }
+  }
+
+  /**
+   * Tells whether the actions of this instance are valid for a player, i.e. whether the player's
+   * name and colour equal those the actions were built for. Values are compared, not references.
+   *
+   * @param player as the player to test.
+   * @return true if this instance can serve actions for the provided player.
+   */
+  boolean matches(Player player) {
+    return catalog.matches(player);
+  }
+
+  /**
+   * Retrieves the shared set of actions for a free-cell mask.
+   *
+   * @param freeCells as the 9-bit mask of vacant cells.
+   * @return immutable action set with one action per free cell, in row-major order.
+   */
+  ActionSet getActionSet(int freeCells) {
+    ActionSet set = sets.get(freeCells);
+    if (set == null) {
+      set = new ActionSet(freeCells);
+      // Concurrent builders produce equal sets. First one wins, so all callers share an instance.
+      if (!sets.compareAndSet(freeCells, null, set)) {
+        set = sets.get(freeCells);
+      }
+    }
+    return set;
+  }
+
+  /**
+   * Immutable bundle of the actions available for one free-cell mask. Serves the same actions as
+   * array and as map indexed by action identifier. Neither must be modified by callers.
+   */
+  class ActionSet {
+    private final XoxClaimFieldAction[] actions;
+    private final Map<String, XoxClaimFieldAction> actionMap;
+
+    private ActionSet(int freeCells) {
+      actions = new XoxClaimFieldAction[Integer.bitCount(freeCells)];
+      Map<String, XoxClaimFieldAction> map = new LinkedHashMap<>();
+      int next = 0;
+      for (int cell = 0; cell < cellActions.length; cell++) {
+        if ((freeCells >>> cell & 1) != 0) {
+          actions[next++] = cellActions[cell];
+          map.put(catalog.getKey(cell % 3, cell / 3), cellActions[cell]);
+        }
+      }
+      actionMap = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Shared array of all actions in this set.
+     *
+     * @return the actions, in row-major order of the targeted cells.
+     */
+    XoxClaimFieldAction[] getActions() {
+      return actions;
+    }
+
+    /**
+     * Shared, unmodifiable map of all actions in this set.
+     *
+     * @return the actions, indexed by their MD5 based identifiers.
+     */
+    Map<String, XoxClaimFieldAction> getActionMap() {
+      return actionMap;
+    }
+  }
+}
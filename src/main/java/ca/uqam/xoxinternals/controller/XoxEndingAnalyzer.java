@@ -1,5 +1,7 @@
 package ca.uqam.xoxinternals.controller;
 
+import ca.uqam.xoxinternals.model.Player;
+import ca.uqam.xoxinternals.model.PositionTable;
 import ca.uqam.xoxinternals.model.XoxGameImpl;
 import ca.uqam.xoxinternals.model.XoxGameReadOnly;
 
@@ -9,10 +11,23 @@ import ca.uqam.xoxinternals.model.XoxGameReadOnly;
  * @author Maximilian Schiedermeier
  */
 public class XoxEndingAnalyzer implements EndingAnalyzer {
+  // Receives the outcome of every game this analyzer marks as finished. Null if not tracked.
+  private final Leaderboard leaderboard;
+
   /**
    * Default constructor.
    */
   public XoxEndingAnalyzer() {
+    this(null);
+  }
+
+  /**
+   * Constructor for analyzers that record every game outcome on a global leaderboard.
+   *
+   * @param leaderboard as the leaderboard to update whenever a game is marked as finished.
+   */
+  public XoxEndingAnalyzer(Leaderboard leaderboard) {
+    this.leaderboard = leaderboard;
   }
 
   /**
@@ -27,17 +42,73 @@ public class XoxEndingAnalyzer implements EndingAnalyzer {
       throw new LogicException("Xox Ending Analyzer can only work on instances of Xox games.");
     }
     XoxGameImpl xoxGame = (XoxGameImpl) game;
-    // check if board is full
-    if (xoxGame.getModifiableBoard().isFull()) {
-      xoxGame.markAsFinished();
+    // Games already marked must not be recorded on the leaderboard twice.
+    if (xoxGame.isFinished()) {
+      return true;
+    }
+    // Full board and three in a line are both resolved by a single table lookup.
+    int entry = PositionTable.lookup(xoxGame.getModifiableBoard());
+    if (PositionTable.getWinner(entry) != 0) {
+      markAsWon(xoxGame, PositionTable.getWinner(entry) - 1, PositionTable.getWinningLine(entry));
+      return true;
+    }
+    if (PositionTable.isDraw(entry)) {
+      markAsDraw(xoxGame);
+      return true;
+    }
+    // No end criteria matched. Game is still running.
+    return false;
+  }
+
+  /**
+   * Incremental variant of analyzeAndUpdate, to be called right after a move was applied. Only the
+   * lines through the claimed cell are inspected, and fullness is derived from the move counter of
+   * the game, so the cost is the same no matter how many moves have been played. Records the
+   * outcome (winner and winning line, or draw) on the game, if the move ended it.
+   *
+   * @param game as the xox game object the move was applied on.
+   * @param xpos as the column-index of the cell claimed by the last move.
+   * @param ypos as the row-index of the cell claimed by the last move.
+   * @return boolean to indicate whether the game is already finished.
+   * @throws LogicException if the provided game is not a xox game.
+   */
+  public boolean analyzeAndUpdate(XoxGameReadOnly game, int xpos, int ypos)
+      throws LogicException {
+    if (game.getClass() != XoxGameImpl.class) {
+      throw new LogicException("Xox Ending Analyzer can only work on instances of Xox games.");
+    }
+    XoxGameImpl xoxGame = (XoxGameImpl) game;
+    int cell = 3 * ypos + xpos;
+    // The last move was made by whoever occupies the claimed cell.
+    int mover = (xoxGame.getModifiableBoard().getPlayerCells(0) >>> cell & 1) != 0 ? 0 : 1;
+    int line =
+        PositionTable.findLineThrough(xoxGame.getModifiableBoard().getPlayerCells(mover), cell);
+    // A line wins, even if it was completed on the last free cell.
+    if (line != -1) {
+      markAsWon(xoxGame, mover, line);
       return true;
     }
-    // check if one player has 3 in a line
-    if (xoxGame.getModifiableBoard().isThreeInaLine()) {
-      xoxGame.markAsFinished();
+    if (xoxGame.getMoveCount() == 9) {
+      markAsDraw(xoxGame);
       return true;
     }
     // No end criteria matched. Game is still running.
     return false;
   }
+
+  private void markAsWon(XoxGameImpl game, int winnerIndex, int winningLine) {
+    game.markAsWon(winnerIndex, winningLine);
+    if (leaderboard != null) {
+      Player[] players = game.getPlayers();
+      leaderboard.recordWin(players[winnerIndex].getName(), players[1 - winnerIndex].getName());
+    }
+  }
+
+  private void markAsDraw(XoxGameImpl game) {
+    game.markAsDraw();
+    if (leaderboard != null) {
+      Player[] players = game.getPlayers();
+      leaderboard.recordDraw(players[0].getName(), players[1].getName());
+    }
+  }
 }
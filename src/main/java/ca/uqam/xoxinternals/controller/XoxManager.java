@@ -1,9 +1,12 @@
 package ca.uqam.xoxinternals.controller;
 
 import ca.uqam.xoxinternals.model.BoardReadOnly;
+import ca.uqam.xoxinternals.model.BoardSnapshot;
 import ca.uqam.xoxinternals.model.Player;
 import ca.uqam.xoxinternals.model.XoxInitSettings;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface for managing instances of xox games and accessing their details.
@@ -33,14 +36,43 @@ public interface XoxManager {
    */
   long addGame(XoxInitSettings initSettings);
 
+  /**
+   * Creates many new game entities at once. Ids and registry storage are reserved for the whole
+   * batch up front. Neither the list nor the provided settings are modified.
+   *
+   * @param initSettings as one settings bundle per game to create.
+   * @return ids of the newly created games, in the order of the provided settings.
+   */
+  long[] addGames(List<XoxInitSettings> initSettings);
+
   /**
    * Getter for the current game board state. Return null if no game is currently initialized.
+   * Never blocks: the returned snapshot is the state published after the latest applied move.
    *
    * @param gameId as the identifier of the game to inspect, provided as long.
    * @return immutable snapshot of current board.
    */
   BoardReadOnly getBoard(long gameId);
 
+  /**
+   * Getter for the state version of a game. Versions start at 0 and increase with every applied
+   * move, so an unchanged version means an unchanged game. Cheap enough to answer conditional
+   * requests without reading the board.
+   *
+   * @param gameId as the identifier of the game to inspect, provided as long.
+   * @return version of the latest published board snapshot, or -1 if there is no such game.
+   */
+  long getStateVersion(long gameId);
+
+  /**
+   * Getter for the Zobrist hash of the current board of a game. Equal cell assignments yield equal
+   * hashes, across games and processes, so the hash can serve as cache key for board state.
+   *
+   * @param gameId as the identifier of the game to inspect, provided as long.
+   * @return hash of the latest published board snapshot, or 0 if there is no such game.
+   */
+  long getBoardHash(long gameId);
+
   /**
    * Getter for static player objects (names, preferred colours) of the participants of the game
    * instance referenced by the provided game-id.
@@ -59,7 +91,8 @@ public interface XoxManager {
    * @param gameId as the identifier of the game to inspect, provided as long.
    * @return A map, indexing actions by the MD5 representation of their json string serialization .
    *     The index serves as key for later re-identification if an actions is selected. Returns null
-   *     if no such game is currently initialized.
+   *     if no such game is currently initialized. The returned array is shared with other
+   *     callers and must not be modified.
    */
   XoxClaimFieldAction[] getActions(long gameId, String player);
 
@@ -73,12 +106,54 @@ public interface XoxManager {
    */
   void performAction(long gameId, String player, int actionIndex);
 
+  /**
+   * Applies a batch of moves, possibly for many games. Moves for the same game are applied in the
+   * order they appear in the batch, moves for distinct games may be applied in parallel.
+   *
+   * @param moves as the moves to apply. Each move directly names the claimed cell.
+   * @return one status per move, in the order of the provided moves.
+   */
+  XoxMoveStatus[] performActions(List<XoxMove> moves);
+
+  /**
+   * Long-poll alternative to repeated getBoard calls. Waits until a game moves beyond a version the
+   * caller already knows. The returned future is completed on a dispatch thread, never on the
+   * thread applying the move. Callers may cancel it, e.g. on timeout.
+   *
+   * @param gameId       as the identifier of the game to watch, provided as long.
+   * @param knownVersion as the version of the latest board snapshot known to the caller.
+   * @return future completed with the first newer board snapshot, right away if the game already
+   *     moved on. Completed with null if there is no such game or the game is removed.
+   */
+  CompletableFuture<BoardSnapshot> awaitBoardChange(long gameId, long knownVersion);
+
+  /**
+   * Push alternative to polling. Registers a listener that is notified after moves are applied on
+   * a game, including the move that ends it. Notifications run on a dispatch thread, never on the
+   * thread applying the move.
+   *
+   * @param gameId   as the identifier of the game to watch, provided as long.
+   * @param listener as the receiver of the notifications.
+   * @return handle to cancel the subscription, or null if there is no such game.
+   */
+  GameSubscription subscribe(long gameId, GameStateListener listener);
+
   /**
    * Returns current player scores as a serialized ranking object. The ranking object also tells if
    * the game has already ended.
    *
    * @param gameId as the identifier of the game to inspect, provided as long.
-   * @return a ranking bundle object with details on the players and their scores.
+   * @return a ranking bundle object with details on the players and their scores. Rankings may be
+   *     shared with other callers, their array getters return copies.
    */
   Ranking getRanking(long gameId);
+
+  /**
+   * Getter for the global leaderboard, i.e. wins, losses and draws per player name over all games
+   * finished so far. Maintained incrementally as games end, so queries do not depend on the amount
+   * of games.
+   *
+   * @return the leaderboard of this manager.
+   */
+  Leaderboard getLeaderboard();
 }
@@ -1,14 +1,21 @@
 package ca.uqam.xoxinternals.controller;
 
 import ca.uqam.xoxinternals.model.BoardReadOnly;
+import ca.uqam.xoxinternals.model.BoardSnapshot;
+import ca.uqam.xoxinternals.model.GameArchive;
 import ca.uqam.xoxinternals.model.ModelAccessException;
+import ca.uqam.xoxinternals.model.OffHeapGameStore;
 import ca.uqam.xoxinternals.model.Player;
 import ca.uqam.xoxinternals.model.XoxGameImpl;
+import ca.uqam.xoxinternals.model.XoxGameReadOnly;
 import ca.uqam.xoxinternals.model.XoxInitSettings;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.Random;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 /**
  * Xox Controller Implementation. Acts as DAO for game state and provides endpoints to generate
@@ -17,25 +24,68 @@ import java.util.Random;
  * handling. In case of bad parameters, the controller will simply ignore a method call or return an
  * empty return object.
  *
+ * <p>The manager is thread-safe. The game registry is a concurrent index keyed by primitive game
+ * ids, so lookups neither box ids nor block. Moves are serialized per game, by locking the monitor
+ * of the affected game instance only. Moves on distinct games therefore never contend, while moves
+ * within a single game stay linearizable.
+ *
+ * <p>Games live on heap while they are played. Optionally, running games a game reaper evicts for
+ * capacity are moved to an off-heap store instead of being removed, see setOffHeapStore. They stay
+ * registered, and are moved back onto the heap as soon as they are played on again.
+ *
  * @author Maximilian Schiedermeier
  */
 public class XoxManagerImpl implements XoxManager {
-  private static XoxManagerImpl singletonReference;
+  // Fixed id of the sample game. Never handed out to other games.
+  private static final long SAMPLE_GAME_ID = 42;
   private final XoxActionGenerator actionGenerator;
-  private final ActionInterpreter actionInterpreter;
-  private final HashMap<Long, XoxGameImpl> games;
-  private final RankingGenerator rankingGenerator;
+  private final XoxActionInterpreter actionInterpreter;
+  private final LongKeyedIndex<XoxGameImpl> games;
+  private final RankingCache rankingCache;
+  // Stored and archived games are views created per lookup, so their rankings are not cached.
+  private final XoxRankingGenerator storedRankingGenerator = new XoxRankingGenerator();
+  private final GameSubscriptions subscriptions;
+  private final Leaderboard leaderboard;
+  private volatile GameIdAllocator idAllocator;
+  // Observer of registry modifications, null if nobody is listening.
+  private volatile GameRegistryListener registryListener;
+  // Cold tier for finished games, null if games are not archived.
+  private volatile GameArchive archive;
+  // Off-heap tier for running games, null if all running games stay on heap.
+  private volatile OffHeapGameStore offHeapStore;
+  // Coarse clock for approximate LRU. Advanced by the game reaper, recorded on games when accessed.
+  private volatile int accessClock;
 
   /**
    * Private default constructor for singleton pattern. Initializes all required util classes and
    * start a new game with players "X" and "O".
    */
   private XoxManagerImpl() {
+    this(true, new ScramblingGameIdAllocator(), new Leaderboard());
+  }
+
+  /**
+   * Constructor for additional, non-singleton manager instances, e.g. the shards of a
+   * ShardedXoxManager.
+   *
+   * @param withSampleGame flag to indicate whether the sample game shall be registered.
+   * @param idAllocator    as the source of ids for new games.
+   * @param leaderboard    as the leaderboard to record the outcome of finished games on. May be
+   *                       shared with other managers.
+   */
+  XoxManagerImpl(boolean withSampleGame, GameIdAllocator idAllocator, Leaderboard leaderboard) {
+    this.idAllocator = idAllocator;
+    this.leaderboard = leaderboard;
     actionGenerator = new XoxActionGenerator();
-    actionInterpreter = new XoxActionInterpreter(actionGenerator, new XoxEndingAnalyzer());
-    games = new LinkedHashMap<>();
-    rankingGenerator = new XoxRankingGenerator();
-    initializeSampleGame();
+    actionInterpreter =
+        new XoxActionInterpreter(actionGenerator, new XoxEndingAnalyzer(leaderboard));
+    subscriptions = new GameSubscriptions();
+    actionInterpreter.setChangeObserver(subscriptions);
+    games = new LongKeyedIndex<>();
+    rankingCache = new RankingCache(new XoxRankingGenerator());
+    if (withSampleGame) {
+      initializeSampleGame();
+    }
   }
 
   /**
@@ -45,67 +95,646 @@ public class XoxManagerImpl implements XoxManager {
    * @return unique singleton representative of this class.
    */
   public static XoxManagerImpl getInstance() {
-    if (singletonReference == null) {
-      singletonReference = new XoxManagerImpl();
-    }
-    return singletonReference;
+    return SingletonHolder.INSTANCE;
   }
 
   @Override
   public Collection<Long> getGames() {
-    return games.keySet();
+    long[] gameIds = games.keys();
+    OffHeapGameStore store = offHeapStore;
+    long[] storedIds = store == null ? new long[0] : store.getGameIds();
+    Collection<Long> result = new ArrayList<>(gameIds.length + storedIds.length);
+    for (long gameId : gameIds) {
+      result.add(gameId);
+    }
+    for (long gameId : storedIds) {
+      result.add(gameId);
+    }
+    return result;
   }
 
   @Override
   public void removeGame(long gameId) {
+    while (true) {
+      // Games stored off-heap are moved back first, so their removal is reported like any other.
+      XoxGameImpl game = liveGame(gameId);
+      if (game == null) {
+        GameArchive currentArchive = archive;
+        if (currentArchive != null) {
+          currentArchive.remove(gameId);
+        }
+        return;
+      }
+      // Locking the game orders the removal after all moves already applied on it.
+      synchronized (game) {
+        if (games.get(gameId) == game) {
+          unregister(gameId, game);
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes a game on behalf of the game reaper, unless the game changed in a way that makes it no
+   * longer eligible. The eviction listener is called before the game is removed. If it fails, or
+   * the registry listener rejects the removal, the game is kept. Running games evicted for capacity
+   * are moved to the off-heap store instead, if one is attached, without calling any listener.
+   *
+   * @param gameId    as the id of the game to evict.
+   * @param game      as the game registered with the id when eviction was decided.
+   * @param condition as the eviction criterion, re-checked while the game is locked.
+   * @param cause     as the reason for the eviction.
+   * @param listener  as the hook to call before removal, or null.
+   * @return true if the game was evicted.
+   */
+  boolean evictGame(long gameId, XoxGameImpl game, Predicate<XoxGameImpl> condition,
+                    EvictionCause cause, EvictionListener listener) {
+    synchronized (game) {
+      if (games.get(gameId) != game || !condition.test(game)) {
+        return false;
+      }
+      if (cause == EvictionCause.CAPACITY && !game.isFinished() && offHeapStore != null) {
+        return moveOffHeap(gameId, game);
+      }
+      if (listener != null) {
+        try {
+          listener.gameEvicted(gameId, game, cause);
+        } catch (RuntimeException e) {
+          // The hook could not take care of the game, e.g. archiving failed. Keep it.
+          return false;
+        }
+      }
+      try {
+        unregister(gameId, game);
+      } catch (RuntimeException e) {
+        // The removal could not be recorded, e.g. the journal failed. Keep the game.
+        return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Removes a game and notifies everybody interested. Caller must hold the monitor of the game. The
+   * registry listener is notified first, if it rejects the removal the game stays registered.
+   */
+  private void unregister(long gameId, XoxGameImpl game) {
+    if (games.get(gameId) != game) {
+      return;
+    }
+    GameRegistryListener listener = registryListener;
+    if (listener != null) {
+      listener.gameRemoved(gameId);
+    }
     games.remove(gameId);
+    subscriptions.gameRemoved(game);
+    rankingCache.forget(game);
+  }
+
+  /**
+   * Attaches a cold tier for finished games. Archived games are no longer listed by getGames, but
+   * getBoard, getPlayers, getRanking, getStateVersion and getBoardHash keep working for their ids.
+   * Finished games are moved to the archive by archiveGame, or by a game reaper using the
+   * archivingListener as hook.
+   *
+   * @param archive as the archive to look up games that are not registered, or null to detach.
+   */
+  public void setArchive(GameArchive archive) {
+    this.archive = archive;
+  }
+
+  /**
+   * Moves a finished game to the archive. Afterwards, the game only occupies its archive record.
+   *
+   * @param gameId as the id of the game to archive.
+   * @return true if the game was archived, false if there is no archive, no such game, or the game
+   *     is still running.
+   */
+  public boolean archiveGame(long gameId) {
+    XoxGameImpl game = games.get(gameId);
+    GameArchive currentArchive = archive;
+    if (game == null || currentArchive == null) {
+      return false;
+    }
+    synchronized (game) {
+      if (games.get(gameId) != game || !game.isFinished()) {
+        return false;
+      }
+      try {
+        currentArchive.archive(gameId, game);
+      } catch (ModelAccessException e) {
+        return false;
+      }
+      unregister(gameId, game);
+      return true;
+    }
+  }
+
+  /**
+   * Eviction hook that moves finished games to the archive before a game reaper removes them.
+   * Games still running are evicted without archiving. If archiving fails, the game is kept.
+   *
+   * @return listener to pass to a game reaper.
+   */
+  public EvictionListener archivingListener() {
+    return (gameId, game, cause) -> {
+      GameArchive currentArchive = archive;
+      if (currentArchive == null || !game.isFinished()) {
+        return;
+      }
+      try {
+        currentArchive.archive(gameId, game);
+      } catch (ModelAccessException e) {
+        throw new IllegalStateException(e.getMessage());
+      }
+    };
+  }
+
+  /**
+   * Looks up a game that was not found on heap, in the off-heap store and in the archive. A game
+   * leaves the store only after it is back on heap, so the heap is checked once more in between.
+   *
+   * @return read-only view of the game, or null if there is none.
+   */
+  private XoxGameReadOnly storedGame(long gameId) {
+    OffHeapGameStore store = offHeapStore;
+    XoxGameReadOnly stored = store == null ? null : store.getGame(gameId);
+    if (stored != null) {
+      return stored;
+    }
+    XoxGameImpl game = store == null ? null : games.get(gameId);
+    if (game != null) {
+      return game;
+    }
+    GameArchive currentArchive = archive;
+    return currentArchive == null ? null : currentArchive.getGame(gameId);
+  }
+
+  /**
+   * Attaches an off-heap tier for running games. From then on, running games evicted by a game
+   * reaper for capacity are moved to the store instead of being removed. Stored games stay
+   * registered: getGames lists them, and getBoard, getPlayers, getRanking, getStateVersion and
+   * getBoardHash read them directly from the store. Any other access moves a game back onto the
+   * heap first. The times of their moves are not stored, so returning games count as idle since
+   * their return.
+   *
+   * @param offHeapStore as the store to move running games to, or null to detach. Games still held
+   *                     by a detached store are no longer reachable.
+   */
+  public void setOffHeapStore(OffHeapGameStore offHeapStore) {
+    this.offHeapStore = offHeapStore;
+  }
+
+  /**
+   * Moves a running game to the off-heap store. Afterwards, the game only occupies its store
+   * record, until it is played on again.
+   *
+   * @param gameId as the id of the game to move.
+   * @return true if the game was moved, false if there is no store, no such game on heap, or the
+   *     game is finished.
+   */
+  public boolean moveOffHeap(long gameId) {
+    XoxGameImpl game = games.get(gameId);
+    if (game == null || offHeapStore == null) {
+      return false;
+    }
+    synchronized (game) {
+      if (games.get(gameId) != game || game.isFinished()) {
+        return false;
+      }
+      return moveOffHeap(gameId, game);
+    }
+  }
+
+  /**
+   * Moves a game to the off-heap store. The game stays registered, so neither the registry listener
+   * nor subscribers are told, except that subscriptions end like on removal. Caller must hold the
+   * monitor of the game.
+   */
+  private boolean moveOffHeap(long gameId, XoxGameImpl game) {
+    OffHeapGameStore store = offHeapStore;
+    if (store == null) {
+      return false;
+    }
+    // Serialized with moving games back, so a game is always found on heap or in the store.
+    synchronized (store) {
+      try {
+        store.add(gameId, game);
+      } catch (ModelAccessException e) {
+        return false;
+      }
+      games.remove(gameId);
+    }
+    subscriptions.gameRemoved(game);
+    rankingCache.forget(game);
+    return true;
+  }
+
+  /**
+   * Resolves a game for modification. A game stored off-heap is moved back onto the heap first.
+   * The returned game may be moved off-heap or removed again before the caller locks it.
+   *
+   * @return the game on heap, or null if there is no such game.
+   */
+  private XoxGameImpl liveGame(long gameId) {
+    XoxGameImpl game = games.get(gameId);
+    OffHeapGameStore store = offHeapStore;
+    if (game != null || store == null) {
+      return game;
+    }
+    synchronized (store) {
+      game = games.get(gameId);
+      if (game != null) {
+        return game;
+      }
+      XoxGameReadOnly stored = store.getGame(gameId);
+      if (stored == null) {
+        return null;
+      }
+      game = newGame(stored.getPlayerInfo(0), stored.getPlayerInfo(1));
+      // Running games contain no line, so replaying the cells alternately restores the position.
+      BoardSnapshot board = stored.getBoardSnapshot();
+      int first = board.getPlayerCells(0);
+      int second = board.getPlayerCells(1);
+      try {
+        while (first != 0) {
+          replayClaim(game, Integer.numberOfTrailingZeros(first));
+          first &= first - 1;
+          if (second != 0) {
+            replayClaim(game, Integer.numberOfTrailingZeros(second));
+            second &= second - 1;
+          }
+        }
+      } catch (LogicException | ModelAccessException internalException) {
+        // Ruled out, the stored cells form a valid running game.
+        return null;
+      }
+      games.put(gameId, game);
+      store.remove(gameId);
+      return game;
+    }
+  }
+
+  /**
+   * Applies a claim on behalf of the player whose turn it is, e.g. while rebuilding a game.
+   */
+  private void replayClaim(XoxGameImpl game, int cell)
+      throws LogicException, ModelAccessException {
+    Player currentPlayer = game.getPlayerInfo(game.getCurrentPlayerIndex());
+    actionInterpreter.interpretAndApplyClaim(game, currentPlayer, cell % 3, cell / 3);
+  }
+
+  /**
+   * Passes all registered games to a visitor, with full access. Reserved for the game reaper.
+   *
+   * @param visitor as the callback receiving all games.
+   */
+  void forEachGame(LongKeyedIndex.EntryVisitor<XoxGameImpl> visitor) {
+    games.forEach(visitor);
+  }
+
+  /**
+   * Counts all registered games on heap, i.e. not counting games stored off-heap.
+   *
+   * @return the amount of games, concurrent modifications may or may not be reflected.
+   */
+  int getGameCount() {
+    return games.size();
+  }
+
+  /**
+   * Advances the access clock. Games accessed afterwards are considered more recently used than
+   * all games accessed before.
+   *
+   * @return the new clock value.
+   */
+  int advanceAccessClock() {
+    return ++accessClock;
+  }
+
+  private void recordAccess(XoxGameImpl game) {
+    game.recordAccess(accessClock);
   }
 
   @Override
   public long addGame(XoxInitSettings initSettings) {
-    // Generate a new random game id
-    long gameId = generateUniqueGameId();
-    // If needed rearrange received array so that first player equals game creator
-    if (!initSettings.getCreator().equals(initSettings.getPlayers().getFirst().getName())) {
-      initSettings.getPlayers().add(initSettings.getPlayers().removeFirst());
-    }
-    games.put(gameId,
-        new XoxGameImpl(initSettings.getPlayers().getFirst(), initSettings.getPlayers().getLast()));
+    XoxGameImpl game = createGame(initSettings);
+    // The allocator guarantees unique ids. Registration still never overwrites, in case games were
+    // registered with ids of another origin.
+    long gameId = nextGameId();
+    // Locking the new game makes sure its creation is reported before any move on it.
+    synchronized (game) {
+      while (games.putIfAbsent(gameId, game) != null) {
+        gameId = nextGameId();
+      }
+      notifyGameAdded(gameId, game);
+    }
     return gameId;
   }
 
+  @Override
+  public long[] addGames(List<XoxInitSettings> initSettings) {
+    XoxGameImpl[] newGames = new XoxGameImpl[initSettings.size()];
+    int next = 0;
+    for (XoxInitSettings settings : initSettings) {
+      newGames[next++] = createGame(settings);
+    }
+    // Reserve all ids and all registry slots in one step, then register without further resizing.
+    long[] gameIds = idAllocator.nextGameIds(newGames.length);
+    games.ensureCapacity(newGames.length);
+    for (int i = 0; i < newGames.length; i++) {
+      long gameId = gameIds[i];
+      synchronized (newGames[i]) {
+        while (isReserved(gameId) || games.putIfAbsent(gameId, newGames[i]) != null) {
+          gameId = nextGameId();
+        }
+        try {
+          notifyGameAdded(gameId, newGames[i]);
+        } catch (RuntimeException e) {
+          unregisterAll(gameIds, newGames, i);
+          throw e;
+        }
+      }
+      gameIds[i] = gameId;
+    }
+    return gameIds;
+  }
+
+  /**
+   * Restores a game with a known id, e.g. while replaying a journal. Registry listeners are not
+   * notified.
+   *
+   * @param gameId       as the id the game was originally registered with.
+   * @param firstPlayer  as the player seated first.
+   * @param secondPlayer as the player seated second.
+   * @return true if the game was restored, false if the id is already in use.
+   */
+  public boolean restoreGame(long gameId, Player firstPlayer, Player secondPlayer) {
+    OffHeapGameStore store = offHeapStore;
+    if (store != null && store.contains(gameId)) {
+      return false;
+    }
+    return games.putIfAbsent(gameId, newGame(firstPlayer, secondPlayer)) == null;
+  }
+
+  /**
+   * Restores a move of a restored game, on behalf of the player whose turn it is. Registry
+   * listeners are not notified.
+   *
+   * @param gameId as the id of the game.
+   * @param cell   as the index of the claimed cell (3 * ypos + xpos).
+   * @return true if the move was applied, false if there is no such game or the move is invalid.
+   */
+  public boolean restoreMove(long gameId, int cell) {
+    if (cell < 0 || cell > 8) {
+      return false;
+    }
+    while (true) {
+      XoxGameImpl game = liveGame(gameId);
+      if (game == null) {
+        return false;
+      }
+      synchronized (game) {
+        if (games.get(gameId) != game) {
+          continue;
+        }
+        try {
+          replayClaim(game, cell);
+          return true;
+        } catch (LogicException | ModelAccessException internalException) {
+          return false;
+        }
+      }
+    }
+  }
+
+  /**
+   * Visits all registered games, including games stored off-heap. Games added or removed during
+   * the iteration may or may not be visited. Every game on heap is visited while locked, so
+   * modifications already reported to the registry listener are also applied on the visited game,
+   * and removed games are skipped. Games stored off-heap do not change. A game moving between heap
+   * and store during the iteration is visited at least once.
+   *
+   * @param visitor as the callback receiving all games.
+   */
+  public void visitGames(GameVisitor visitor) {
+    games.forEach((gameId, game) -> visitLocked(gameId, game, visitor));
+    OffHeapGameStore store = offHeapStore;
+    if (store == null) {
+      return;
+    }
+    for (long gameId : store.getGameIds()) {
+      XoxGameReadOnly stored = store.getGame(gameId);
+      if (stored != null) {
+        visitor.visitGame(gameId, stored);
+        continue;
+      }
+      // Moved back onto the heap since the heap was visited.
+      XoxGameImpl game = games.get(gameId);
+      if (game != null) {
+        visitLocked(gameId, game, visitor);
+      }
+    }
+  }
+
+  private void visitLocked(long gameId, XoxGameImpl game, GameVisitor visitor) {
+    synchronized (game) {
+      if (games.get(gameId) == game) {
+        visitor.visitGame(gameId, game);
+      }
+    }
+  }
+
+  /**
+   * Stops the thread delivering notifications to subscribers and long-polls. Reserved for managers
+   * that are shut down, like the shards of a ShardedXoxManager.
+   */
+  void stopNotifications() {
+    subscriptions.shutdown();
+  }
+
+  /**
+   * Registers an observer of all subsequent registry modifications. Replaces any previously
+   * registered listener.
+   *
+   * @param registryListener as the new listener, or null to stop notifications.
+   */
+  public void setRegistryListener(GameRegistryListener registryListener) {
+    this.registryListener = registryListener;
+  }
+
+  /**
+   * Reports a new game to the registry listener. If the listener rejects the game, it is
+   * unregistered again and the failure is passed on. Caller must hold the monitor of the game.
+   */
+  private void notifyGameAdded(long gameId, XoxGameImpl game) {
+    GameRegistryListener listener = registryListener;
+    if (listener != null) {
+      try {
+        listener.gameAdded(gameId, game.getPlayerInfo(0), game.getPlayerInfo(1));
+      } catch (RuntimeException e) {
+        games.remove(gameId);
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Rolls back the games of a batch registered before one of the batch was rejected. Games whose
+   * removal is rejected as well stay registered.
+   */
+  private void unregisterAll(long[] gameIds, XoxGameImpl[] newGames, int count) {
+    for (int i = 0; i < count; i++) {
+      synchronized (newGames[i]) {
+        try {
+          unregister(gameIds[i], newGames[i]);
+        } catch (RuntimeException e) {
+          // Nothing left to do, the game was recorded and stays consistent with the record.
+        }
+      }
+    }
+  }
+
+  /**
+   * Reports a validated move to the registry listener, then applies it. The move is recorded first,
+   * so a move is never applied without being recorded. Caller must hold the monitor of the game and
+   * must have verified game state, turn and vacancy of the cell.
+   */
+  private XoxMoveStatus recordAndApply(long gameId, XoxGameImpl game, Player player, int cell) {
+    GameRegistryListener listener = registryListener;
+    if (listener != null) {
+      try {
+        listener.moveApplied(gameId, cell);
+      } catch (RuntimeException e) {
+        // The move could not be recorded, e.g. the journal failed. Leave the game unmodified.
+        return XoxMoveStatus.NOT_RECORDED;
+      }
+    }
+    try {
+      actionInterpreter.interpretAndApplyClaim(game, player, cell % 3, cell / 3);
+      return XoxMoveStatus.APPLIED;
+    } catch (LogicException | ModelAccessException internalException) {
+      // Ruled out by the checks of the caller. Replaying the recorded move is ignored as well.
+      return XoxMoveStatus.INVALID_CELL;
+    }
+  }
+
+  /**
+   * Replaces the source of ids for games created from now on.
+   *
+   * @param idAllocator as the new game id allocator.
+   */
+  void setGameIdAllocator(GameIdAllocator idAllocator) {
+    this.idAllocator = idAllocator;
+  }
+
+  /**
+   * Draws the next id from the allocator, skipping reserved ids.
+   */
+  private long nextGameId() {
+    long gameId = idAllocator.nextGameId();
+    while (isReserved(gameId)) {
+      gameId = idAllocator.nextGameId();
+    }
+    return gameId;
+  }
+
+  /**
+   * Tells whether an id must not be handed out for new games. Besides the id of the sample game,
+   * id 0 is reserved, since it serves as empty marker in primitive id tables.
+   */
+  private static boolean isReserved(long gameId) {
+    return gameId == SAMPLE_GAME_ID || gameId == 0;
+  }
+
+  /**
+   * Creates a new game instance, seating the creator first. The provided settings are not modified.
+   */
+  private XoxGameImpl createGame(XoxInitSettings initSettings) {
+    Player first = initSettings.getPlayers().getFirst();
+    Player second = initSettings.getPlayers().getLast();
+    boolean creatorFirst = initSettings.getCreator().equals(first.getName());
+    return newGame(creatorFirst ? first : second, creatorFirst ? second : first);
+  }
+
+  /**
+   * Creates a game that counts as accessed right now, so capacity eviction does not take a new
+   * game for the least recently used one.
+   */
+  private XoxGameImpl newGame(Player startPlayer, Player secondPlayer) {
+    XoxGameImpl game = new XoxGameImpl(startPlayer, secondPlayer);
+    recordAccess(game);
+    return game;
+  }
+
   @Override
   public BoardReadOnly getBoard(long gameId) {
-    if (!games.containsKey(gameId)) {
-      return null;
+    XoxGameImpl game = games.get(gameId);
+    if (game == null) {
+      XoxGameReadOnly stored = storedGame(gameId);
+      return stored == null ? null : stored.getBoardSnapshot();
+    }
+    recordAccess(game);
+    return game.getBoardSnapshot();
+  }
+
+  @Override
+  public long getStateVersion(long gameId) {
+    XoxGameImpl game = games.get(gameId);
+    if (game == null) {
+      XoxGameReadOnly stored = storedGame(gameId);
+      return stored == null ? -1 : stored.getMoveCount();
     }
-    return games.get(gameId).getModifiableBoard();
+    return game.getBoardSnapshot().getVersion();
+  }
+
+  @Override
+  public long getBoardHash(long gameId) {
+    XoxGameImpl game = games.get(gameId);
+    if (game == null) {
+      XoxGameReadOnly stored = storedGame(gameId);
+      return stored == null ? 0 : stored.getBoardSnapshot().getZobristHash();
+    }
+    return game.getBoardSnapshot().getZobristHash();
   }
 
   @Override
   public Player[] getPlayers(long gameId) {
-    if (!games.containsKey(gameId)) {
-      return null;
+    XoxGameImpl game = games.get(gameId);
+    if (game == null) {
+      XoxGameReadOnly stored = storedGame(gameId);
+      return stored == null ? null : stored.getPlayers();
     }
-    return games.get(gameId).getPlayers();
+    recordAccess(game);
+    return game.getPlayers();
   }
 
   @Override
   public XoxClaimFieldAction[] getActions(long gameId, String player) {
     // Reject if no game is currently initialized
-    if (!games.containsKey(gameId)) {
+    XoxGameImpl game = liveGame(gameId);
+    if (game == null) {
       return null;
     }
+    recordAccess(game);
+    return getActions(game, player);
+  }
+
+  /**
+   * Builds the action bundle of a player for an already resolved game.
+   */
+  private XoxClaimFieldAction[] getActions(XoxGameImpl game, String player) {
     // Look up player and build an action bundle. (only non empty for current player)
-    Player playerObject = games.get(gameId).getPlayerByName(player);
+    Player playerObject = game.getPlayerByName(player);
     // Return empty map if the player is not recognized.
     // Error handling ignored for case study simplicity.
     if (playerObject == null) {
       return new XoxClaimFieldAction[] {};
     }
     try {
-      return actionGenerator.generateActions(games.get(gameId), playerObject).values()
-          .toArray(new XoxClaimFieldAction[] {});
+      // Served directly, no allocation. The interface contract forbids callers to modify it.
+      return actionGenerator.generateActionArray(game, playerObject);
     } catch (LogicException e) {
       // Error handling ignored for case study simplicity.
       return new XoxClaimFieldAction[] {};
@@ -114,29 +743,190 @@ public class XoxManagerImpl implements XoxManager {
 
   @Override
   public void performAction(long gameId, String player, int actionIndex) {
-    // Reject if no such game is currently initialized
-    if (!games.containsKey(gameId)) {
-      return;
+    while (true) {
+      // Reject if no such game is currently initialized
+      XoxGameImpl game = liveGame(gameId);
+      if (game == null) {
+        return;
+      }
+      recordAccess(game);
+      Player playerObject = game.getPlayerByName(player);
+      if (playerObject == null || actionIndex < 0) {
+        return;
+      }
+      // Validation and application must not interleave with other moves on the same game.
+      synchronized (game) {
+        // The game may have been moved off-heap meanwhile, then retry on its new instance.
+        if (games.get(gameId) != game) {
+          continue;
+        }
+        // Offered actions list the free cells in row-major order. Resolve the selected cell by
+        // skipping the free cells listed before it.
+        int freeCells = game.getModifiableBoard().getFreeCells();
+        for (int i = 0; i < actionIndex && freeCells != 0; i++) {
+          freeCells &= freeCells - 1;
+        }
+        if (freeCells == 0) {
+          return;
+        }
+        if (game.isFinished()
+            || !playerObject.getName().equalsIgnoreCase(game.getCurrentPlayerName())) {
+          return;
+        }
+        // Error handling ignored for case study simplicity.
+        recordAndApply(gameId, game, playerObject, Integer.numberOfTrailingZeros(freeCells));
+        return;
+      }
     }
-    // Verify the selected action was actually offered
-    XoxClaimFieldAction[] offeredActions = getActions(gameId, player);
-    // Looks good - perform the action by passing it to the XoxActionInterpreter
-    XoxClaimFieldAction selectedAction = offeredActions[actionIndex];
-    try {
-      actionInterpreter.interpretAndApplyAction(selectedAction, games.get(gameId));
-    } catch (LogicException | ModelAccessException internalException) {
-      // Error handling ignored for case study simplicity.
+  }
+
+  @Override
+  public XoxMoveStatus[] performActions(List<XoxMove> moves) {
+    XoxMove[] batch = moves.toArray(new XoxMove[0]);
+    XoxMoveStatus[] statuses = new XoxMoveStatus[batch.length];
+    // Chain the moves of each game, in batch order. Every game is looked up once per move, but
+    // locked only once for all of its moves.
+    XoxGameImpl[] targets = new XoxGameImpl[batch.length];
+    int[] nextOfGame = new int[batch.length];
+    Map<XoxGameImpl, int[]> lastOfGame = new IdentityHashMap<>();
+    for (int i = 0; i < batch.length; i++) {
+      nextOfGame[i] = -1;
+      targets[i] = liveGame(batch[i].getGameId());
+      if (targets[i] == null) {
+        statuses[i] = XoxMoveStatus.UNKNOWN_GAME;
+        continue;
+      }
+      recordAccess(targets[i]);
+      int[] last = lastOfGame.get(targets[i]);
+      if (last == null) {
+        lastOfGame.put(targets[i], new int[] {i});
+      } else {
+        nextOfGame[last[0]] = i;
+        last[0] = i;
+      }
+    }
+    for (int i = 0; i < batch.length; i++) {
+      // Only the first move of each chain is still without status here.
+      if (statuses[i] != null) {
+        continue;
+      }
+      applyChain(batch, statuses, nextOfGame, i, targets[i]);
+    }
+    return statuses;
+  }
+
+  /**
+   * Applies a chain of moves on the same game, locking the game once. Should the game have been
+   * moved off-heap since it was looked up, the chain is applied on its new instance.
+   */
+  private void applyChain(XoxMove[] batch, XoxMoveStatus[] statuses, int[] nextOfGame, int first,
+                          XoxGameImpl target) {
+    long gameId = batch[first].getGameId();
+    XoxGameImpl game = target;
+    while (game != null) {
+      synchronized (game) {
+        if (games.get(gameId) == game) {
+          for (int move = first; move != -1; move = nextOfGame[move]) {
+            statuses[move] = applyMove(game, batch[move]);
+          }
+          return;
+        }
+      }
+      game = liveGame(gameId);
+    }
+    // Removed since it was looked up.
+    for (int move = first; move != -1; move = nextOfGame[move]) {
+      statuses[move] = XoxMoveStatus.UNKNOWN_GAME;
     }
   }
 
+  /**
+   * Validates and applies a single move of a batch. Caller must hold the monitor of the game.
+   */
+  private XoxMoveStatus applyMove(XoxGameImpl game, XoxMove move) {
+    Player playerObject = game.getPlayerByName(move.getPlayer());
+    if (playerObject == null) {
+      return XoxMoveStatus.UNKNOWN_PLAYER;
+    }
+    if (game.isFinished()) {
+      return XoxMoveStatus.GAME_OVER;
+    }
+    if (!playerObject.getName().equalsIgnoreCase(game.getCurrentPlayerName())) {
+      return XoxMoveStatus.NOT_PLAYERS_TURN;
+    }
+    int x = move.getX();
+    int y = move.getY();
+    if (x < 0 || x > 2 || y < 0 || y > 2
+        || (game.getModifiableBoard().getFreeCells() & (1 << (3 * y + x))) == 0) {
+      return XoxMoveStatus.INVALID_CELL;
+    }
+    return recordAndApply(move.getGameId(), game, playerObject, 3 * y + x);
+  }
+
+  @Override
+  public CompletableFuture<BoardSnapshot> awaitBoardChange(long gameId, long knownVersion) {
+    while (true) {
+      XoxGameImpl game = liveGame(gameId);
+      if (game == null) {
+        return CompletableFuture.completedFuture(null);
+      }
+      // Registering under the lock of the game orders the poll before or after any removal.
+      synchronized (game) {
+        if (games.get(gameId) == game) {
+          return subscriptions.awaitChange(gameId, game, knownVersion);
+        }
+      }
+    }
+  }
+
+  @Override
+  public GameSubscription subscribe(long gameId, GameStateListener listener) {
+    while (true) {
+      XoxGameImpl game = liveGame(gameId);
+      if (game == null) {
+        return null;
+      }
+      synchronized (game) {
+        if (games.get(gameId) == game) {
+          return subscriptions.subscribe(gameId, game, listener);
+        }
+      }
+    }
+  }
+
+  @Override
+  public Leaderboard getLeaderboard() {
+    return leaderboard;
+  }
+
   @Override
   public Ranking getRanking(long gameId) {
     // Reject if no such game is currently initialized
-    if (!games.containsKey(gameId)) {
+    XoxGameImpl game = games.get(gameId);
+    if (game == null) {
+      return getStoredRanking(gameId);
+    }
+    recordAccess(game);
+    try {
+      Ranking ranking = rankingCache.computeRanking(game);
+      // The game may have been removed meanwhile. Do not let the cache hold on to it.
+      if (games.get(gameId) != game) {
+        rankingCache.forget(game);
+      }
+      return ranking;
+    } catch (LogicException e) {
+      // Error handling ignored for case study simplicity.
+      return null;
+    }
+  }
+
+  private Ranking getStoredRanking(long gameId) {
+    XoxGameReadOnly stored = storedGame(gameId);
+    if (stored == null) {
       return null;
     }
     try {
-      return rankingGenerator.computeRanking(games.get(gameId));
+      return storedRankingGenerator.computeRanking(stored);
     } catch (LogicException e) {
       // Error handling ignored for case study simplicity.
       return null;
@@ -152,17 +942,14 @@ public class XoxManagerImpl implements XoxManager {
     XoxGameImpl sampleGame =
         new XoxGameImpl(new Player("Max", "#CAFFEE"), new Player("Moritz", "#1CE7EA"));
     // Add sample game at fixed index ... (Note: all other game ID must be generated dynamically)
-    games.put(Long.valueOf(42), sampleGame);
+    games.put(SAMPLE_GAME_ID, sampleGame);
   }
 
   /**
-   * Creates a random game ID that is not yet in use.
+   * Lazy holder for the singleton instance. The JVM guarantees the instance is created exactly
+   * once, on first access, without any locking on later calls.
    */
-  private long generateUniqueGameId() {
-    long randomGameId = Math.abs(new Random().nextLong());
-    while (games.containsKey(randomGameId)) {
-      randomGameId = Math.abs(new Random().nextLong());
-    }
-    return randomGameId;
+  private static class SingletonHolder {
+    private static final XoxManagerImpl INSTANCE = new XoxManagerImpl();
   }
 }
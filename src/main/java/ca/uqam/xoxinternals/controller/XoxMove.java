@@ -0,0 +1,65 @@
+package ca.uqam.xoxinternals.controller;
+
+/**
+ * Immutable bundle describing a single move submitted in a batch: the game, the player who moves
+ * and the claimed cell. The origin of the cell coordinates is top-left, index counting starts at 0.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class XoxMove {
+  private final long gameId;
+  private final String player;
+  private final int xpos;
+  private final int ypos;
+
+  /**
+   * Constructor for a move. Moves are not validated on creation, but when they are applied.
+   *
+   * @param gameId as the identifier of the game to move in.
+   * @param player as the name of the player who claims the cell.
+   * @param xpos   as the column-index of the claimed cell.
+   * @param ypos   as the row-index of the claimed cell.
+   */
+  public XoxMove(long gameId, String player, int xpos, int ypos) {
+    this.gameId = gameId;
+    this.player = player;
+    this.xpos = xpos;
+    this.ypos = ypos;
+  }
+
+  /**
+   * Getter for the identifier of the game this move targets.
+   *
+   * @return the game id.
+   */
+  public long getGameId() {
+    return gameId;
+  }
+
+  /**
+   * Getter for the name of the player who submitted this move.
+   *
+   * @return the player name.
+   */
+  public String getPlayer() {
+    return player;
+  }
+
+  /**
+   * Getter for the X value of the claimed cell.
+   *
+   * @return x coordinate of the cell targeted by this move.
+   */
+  public int getX() {
+    return xpos;
+  }
+
+  /**
+   * Getter for the Y value of the claimed cell.
+   *
+   * @return y coordinate of the cell targeted by this move.
+   */
+  public int getY() {
+    return ypos;
+  }
+}
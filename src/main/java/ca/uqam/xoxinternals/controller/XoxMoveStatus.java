@@ -0,0 +1,23 @@
+package ca.uqam.xoxinternals.controller;
+
+/**
+ * Outcome of a single move submitted in a batch.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public enum XoxMoveStatus {
+  // The move was applied.
+  APPLIED,
+  // No game is registered under the provided id.
+  UNKNOWN_GAME,
+  // The player does not participate in the game.
+  UNKNOWN_PLAYER,
+  // The game was already over when the move was processed.
+  GAME_OVER,
+  // The game is waiting for a move of the other player.
+  NOT_PLAYERS_TURN,
+  // The cell is out of bounds or already claimed.
+  INVALID_CELL,
+  // The registry listener could not record the move, e.g. the journal failed. It was not applied.
+  NOT_RECORDED
+}
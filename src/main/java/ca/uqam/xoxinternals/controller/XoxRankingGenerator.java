@@ -1,7 +1,6 @@
 package ca.uqam.xoxinternals.controller;
 
 import ca.uqam.xoxinternals.model.Player;
-import ca.uqam.xoxinternals.model.XoxGameImpl;
 import ca.uqam.xoxinternals.model.XoxGameReadOnly;
 
 /**
@@ -19,25 +18,21 @@ public class XoxRankingGenerator implements RankingGenerator {
 
   @Override
   public Ranking computeRanking(XoxGameReadOnly game) throws LogicException {
-    // can only be applied on Xox games
-    if (game.getClass() != XoxGameImpl.class) {
-      throw new LogicException("Xox Ranking generator can only operate on Xox games.");
-    }
-    XoxGameImpl xoxGame = (XoxGameImpl) game;
+    // Only the recorded outcome is inspected, so live and archived Xox games are both supported.
     // Will only provide a ranking with non-0 scores, if the game has already ended.
-    if (!((XoxGameImpl) game).isFinished()) {
+    if (!game.isFinished()) {
       return new Ranking(game.getPlayers(), new int[] {0, 0}, false);
     }
-    // Verify there actually is a player, if not:
-    if (isDraw(xoxGame)) {
+    // The outcome was recorded on the game when it ended. Verify there actually is a winner:
+    int winnerIndex = game.getWinnerIndex();
+    if (winnerIndex == -1) {
       return new Ranking(game.getPlayers(), new int[] {0, 0}, true);
     }
     // Winner (player with 3 in a row) gets 1 point, looser 0.
-    int winnerInt = xoxGame.getModifiableBoard().getThreeInaLineCharIfExists();
     Player[] rankedPlayers = game.getPlayers();
     // If the non-creator won, overwrite with a ranking that is the inverse of the games player
     // listing.
-    if (winnerInt != 1) {
+    if (winnerIndex != 0) {
       Player[] invertedRankedPlayers = new Player[2];
       invertedRankedPlayers[0] = rankedPlayers[1];
       invertedRankedPlayers[1] = rankedPlayers[0];
@@ -45,16 +40,4 @@ public class XoxRankingGenerator implements RankingGenerator {
     }
     return new Ranking(rankedPlayers, new int[] {1, 0}, true);
   }
-
-  /**
-   * Analyze if the provided game resulted in a draw (no winner).
-   *
-   * @return true if there is no winner, false otherwise.
-   */
-  private boolean isDraw(XoxGameImpl game) {
-    if (!game.isFinished()) {
-      return false;
-    }
-    return !game.getModifiableBoard().isThreeInaLine();
-  }
 }
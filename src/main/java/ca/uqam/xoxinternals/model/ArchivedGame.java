@@ -0,0 +1,93 @@
+package ca.uqam.xoxinternals.model;
+
+/**
+ * Read-only view of a finished game decoded from a GameArchive record. Holds the decoded record,
+ * all outcome details are derived from the final cell assignment.
+ *
+ * @author Maximilian Schiedermeier
+ */
+final class ArchivedGame implements XoxGameReadOnly {
+  private final Player firstPlayer;
+  private final Player secondPlayer;
+  private final int firstCells;
+  private final int secondCells;
+
+  ArchivedGame(Player firstPlayer, Player secondPlayer, int firstCells, int secondCells) {
+    this.firstPlayer = firstPlayer;
+    this.secondPlayer = secondPlayer;
+    this.firstCells = firstCells;
+    this.secondCells = secondCells;
+  }
+
+  @Override
+  public Player getPlayerByName(String name) {
+    if (firstPlayer.getName().equals(name)) {
+      return firstPlayer;
+    }
+    if (secondPlayer.getName().equals(name)) {
+      return secondPlayer;
+    }
+    return null;
+  }
+
+  @Override
+  public Player[] getPlayers() {
+    return new Player[] {firstPlayer, secondPlayer};
+  }
+
+  @Override
+  public Player getPlayerInfo(int index) {
+    return index == 0 ? firstPlayer : secondPlayer;
+  }
+
+  @Override
+  public boolean isFinished() {
+    return true;
+  }
+
+  @Override
+  public int getCurrentPlayerIndex() {
+    // Players alternate, so the move count tells whose turn it would be.
+    return getMoveCount() % 2;
+  }
+
+  @Override
+  public boolean isFirstPlayer(Player player) {
+    return firstPlayer.equals(player);
+  }
+
+  @Override
+  public String getCurrentPlayerName() {
+    return getPlayerInfo(getCurrentPlayerIndex()).getName();
+  }
+
+  @Override
+  public int getMoveCount() {
+    return Integer.bitCount(firstCells | secondCells);
+  }
+
+  @Override
+  public int getWinnerIndex() {
+    return PositionTable.getWinner(outcome()) - 1;
+  }
+
+  @Override
+  public int getWinningLine() {
+    return PositionTable.getWinningLine(outcome());
+  }
+
+  @Override
+  public boolean isDraw() {
+    return PositionTable.getWinner(outcome()) == 0;
+  }
+
+  @Override
+  public BoardSnapshot getBoardSnapshot() {
+    // The version of a game state equals its move count, same as for heap games.
+    return new BoardSnapshot(firstCells, secondCells, getMoveCount());
+  }
+
+  private int outcome() {
+    return PositionTable.lookup(BitBoards.positionIndex(firstCells, secondCells));
+  }
+}
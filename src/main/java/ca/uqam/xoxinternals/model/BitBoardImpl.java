@@ -0,0 +1,127 @@
+package ca.uqam.xoxinternals.model;
+
+/**
+ * Bitboard implementation of the board interface. Instead of a cell matrix, the board state is
+ * encoded by two 9-bit occupancy masks, one per player. All board checks resolve with a few mask
+ * operations against the 8 precomputed line masks.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class BitBoardImpl implements Board {
+  // Cells claimed by the first player. Bit n represents cell (n % 3, n / 3). Masks are volatile, so
+  // unsynchronized readers always see the latest claimed cells.
+  private volatile int firstPlayerCells;
+  // Cells claimed by the second player. Same encoding as for the first player.
+  private volatile int secondPlayerCells;
+  // Zobrist hash of the cell assignment, updated with every claim.
+  private volatile long zobristHash = BitBoards.EMPTY_BOARD_HASH;
+  // Amount of claims applied so far.
+  private volatile int version;
+
+  /**
+   * Default constructor for bitboards. Creates an empty board.
+   */
+  public BitBoardImpl() {
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return (firstPlayerCells | secondPlayerCells) == 0;
+  }
+
+  @Override
+  public boolean isFull() {
+    return (firstPlayerCells | secondPlayerCells) == BitBoards.FULL_MASK;
+  }
+
+  @Override
+  public boolean isFree(int xpos, int ypos) {
+    if (!BitBoards.isOnBoard(xpos, ypos)) {
+      return false;
+    }
+    return ((firstPlayerCells | secondPlayerCells) & BitBoards.cellBit(xpos, ypos)) == 0;
+  }
+
+  @Override
+  public int[][] getCells() {
+    return BitBoards.toCells(firstPlayerCells, secondPlayerCells);
+  }
+
+  @Override
+  public boolean isThreeInaLine() {
+    return getThreeInaLineCharIfExists() != 0;
+  }
+
+  @Override
+  public int getThreeInaLineCharIfExists() {
+    if (BitBoards.findLine(firstPlayerCells) != -1) {
+      return 1;
+    }
+    if (BitBoards.findLine(secondPlayerCells) != -1) {
+      return 2;
+    }
+    return 0;
+  }
+
+  @Override
+  public int getPlayerCells(int playerIndex) {
+    return playerIndex == 0 ? firstPlayerCells : secondPlayerCells;
+  }
+
+  @Override
+  public int getFreeCells() {
+    return ~(firstPlayerCells | secondPlayerCells) & BitBoards.FULL_MASK;
+  }
+
+  @Override
+  public int getPositionIndex() {
+    return BitBoards.positionIndex(firstPlayerCells, secondPlayerCells);
+  }
+
+  @Override
+  public void occupy(int xpos, int ypos, boolean firstPlayer) throws ModelAccessException {
+    if (!BitBoards.isOnBoard(xpos, ypos)) {
+      throw new ModelAccessException("Requested cell can not by occupied. Is out of bounds.");
+    }
+    if (!isFree(xpos, ypos)) {
+      throw new ModelAccessException("Requested cell can not by occupied. Is not free.");
+    }
+    if (firstPlayer) {
+      firstPlayerCells |= BitBoards.cellBit(xpos, ypos);
+    } else {
+      secondPlayerCells |= BitBoards.cellBit(xpos, ypos);
+    }
+    zobristHash ^= BitBoards.zobristKey(firstPlayer ? 0 : 1, 3 * ypos + xpos);
+    version++;
+  }
+
+  @Override
+  public long getZobristHash() {
+    return zobristHash;
+  }
+
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public int getPackedCells() {
+    return BitBoards.packCells(firstPlayerCells, secondPlayerCells);
+  }
+
+  @Override
+  public void copyCells(int[][] target) {
+    BitBoards.copyCells(firstPlayerCells, secondPlayerCells, target);
+  }
+
+  @Override
+  public void visitCells(CellVisitor visitor) {
+    BitBoards.visitCells(firstPlayerCells, secondPlayerCells, visitor);
+  }
+
+  @Override
+  public String toString() {
+    return BitBoards.render(firstPlayerCells, secondPlayerCells);
+  }
+}
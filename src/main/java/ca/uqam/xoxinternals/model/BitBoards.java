@@ -0,0 +1,289 @@
+package ca.uqam.xoxinternals.model;
+
+import java.util.Arrays;
+
+/**
+ * Static helpers and precomputed masks for 9-bit encodings of the Xox board. Bit n of a mask
+ * represents the cell at horizontal position n % 3 and vertical position n / 3.
+ *
+ * @author Maximilian Schiedermeier
+ */
+final class BitBoards {
+  // Mask with all 9 cells set.
+  static final int FULL_MASK = 0x1FF;
+
+  // The 8 lines that count as three in a line: 3 rows, 3 columns, 2 diagonals.
+  static final int[] LINE_MASKS = {
+      0x007, 0x038, 0x1C0,
+      0x049, 0x092, 0x124,
+      0x111, 0x054
+  };
+
+  // Indexes into LINE_MASKS of all lines running through a cell, indexed by cell.
+  static final int[][] CELL_LINES = new int[9][];
+
+  static {
+    for (int cell = 0; cell < 9; cell++) {
+      int count = 0;
+      int[] lines = new int[4];
+      for (int line = 0; line < LINE_MASKS.length; line++) {
+        if ((LINE_MASKS[line] >>> cell & 1) != 0) {
+          lines[count++] = line;
+        }
+      }
+      CELL_LINES[cell] = Arrays.copyOf(lines, count);
+    }
+  }
+
+  // Each 9-bit mask with bit n moved to bit 2n, for packing two masks into one int.
+  static final int[] SPREAD_BITS = new int[512];
+
+  static {
+    for (int mask = 0; mask < SPREAD_BITS.length; mask++) {
+      for (int cell = 0; cell < 9; cell++) {
+        SPREAD_BITS[mask] |= (mask >>> cell & 1) << (2 * cell);
+      }
+    }
+  }
+
+  // Base-3 weight of each 9-bit mask, i.e. the sum of 3^n over all set bits n.
+  static final int[] TERNARY_WEIGHTS = new int[512];
+
+  static {
+    for (int mask = 0; mask < TERNARY_WEIGHTS.length; mask++) {
+      int weight = 0;
+      int power = 1;
+      for (int cell = 0; cell < 9; cell++) {
+        if ((mask >>> cell & 1) != 0) {
+          weight += power;
+        }
+        power *= 3;
+      }
+      TERNARY_WEIGHTS[mask] = weight;
+    }
+  }
+
+  // Seed of the Zobrist keys. Fixed, so hashes are stable across restarts and processes.
+  private static final long ZOBRIST_SEED = 0x586F78426F617264L;
+  // Hash of the empty board. Random rather than 0, so "no board" can never look like an empty one.
+  static final long EMPTY_BOARD_HASH;
+  // Random key per seat and cell. A board hash is the empty board hash xor the keys of all claims.
+  private static final long[][] ZOBRIST_KEYS = new long[2][9];
+  // Combined keys of each 9-bit mask, per seat, so full hashes resolve with two lookups.
+  private static final long[][] ZOBRIST_MASK_HASHES = new long[2][512];
+
+  static {
+    long state = ZOBRIST_SEED;
+    state += 0x9E3779B97F4A7C15L;
+    EMPTY_BOARD_HASH = mix(state);
+    for (int seat = 0; seat < 2; seat++) {
+      for (int cell = 0; cell < 9; cell++) {
+        state += 0x9E3779B97F4A7C15L;
+        ZOBRIST_KEYS[seat][cell] = mix(state);
+      }
+      for (int mask = 1; mask < 512; mask++) {
+        int lowestCell = Integer.numberOfTrailingZeros(mask);
+        ZOBRIST_MASK_HASHES[seat][mask] =
+            ZOBRIST_MASK_HASHES[seat][mask & (mask - 1)] ^ ZOBRIST_KEYS[seat][lowestCell];
+      }
+    }
+  }
+
+  /**
+   * Private constructor, no instances of this helper class.
+   */
+  private BitBoards() {
+  }
+
+  /**
+   * Tells whether the provided coordinates lie on the 3x3 grid.
+   *
+   * @param xpos as the horizontal position.
+   * @param ypos as the vertical position.
+   * @return true if both coordinates are in range [0-2].
+   */
+  static boolean isOnBoard(int xpos, int ypos) {
+    return xpos >= 0 && xpos < 3 && ypos >= 0 && ypos < 3;
+  }
+
+  /**
+   * Converts grid coordinates into a single bit of a board mask. Coordinates must be on the board.
+   *
+   * @param xpos as the horizontal position.
+   * @param ypos as the vertical position.
+   * @return int with exactly the bit of the specified cell set.
+   */
+  static int cellBit(int xpos, int ypos) {
+    return 1 << (ypos * 3 + xpos);
+  }
+
+  /**
+   * Looks up the first of the 8 lines that is entirely covered by the provided occupancy mask.
+   *
+   * @param mask as the cells claimed by a single player.
+   * @return index into LINE_MASKS, or -1 if the mask does not cover any line.
+   */
+  static int findLine(int mask) {
+    for (int i = 0; i < LINE_MASKS.length; i++) {
+      if ((mask & LINE_MASKS[i]) == LINE_MASKS[i]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Looks up a line through a specific cell that is entirely covered by the provided occupancy
+   * mask. Only inspects the 2 to 4 lines running through the cell.
+   *
+   * @param mask as the cells claimed by a single player.
+   * @param cell as the bit index of the cell, range [0-8].
+   * @return index into LINE_MASKS, or -1 if no line through the cell is covered.
+   */
+  static int findLineThrough(int mask, int cell) {
+    for (int line : CELL_LINES[cell]) {
+      if ((mask & LINE_MASKS[line]) == LINE_MASKS[line]) {
+        return line;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Computes the base-3 position index of a board. Every cell contributes its occupant code (0, 1
+   * or 2) times 3^n, where n is the bit index of the cell.
+   *
+   * @param firstMask  as the cells claimed by the first player.
+   * @param secondMask as the cells claimed by the second player.
+   * @return position index in range [0, 19682].
+   */
+  static int positionIndex(int firstMask, int secondMask) {
+    return TERNARY_WEIGHTS[firstMask] + 2 * TERNARY_WEIGHTS[secondMask];
+  }
+
+  /**
+   * Resolves the occupant code of a single cell.
+   *
+   * @param firstMask  as the cells claimed by the first player.
+   * @param secondMask as the cells claimed by the second player.
+   * @param cell       as the bit index of the cell, range [0-8].
+   * @return 0 if the cell is empty, 1 if claimed by the first player, 2 if claimed by the second.
+   */
+  static int occupantOf(int firstMask, int secondMask, int cell) {
+    if ((firstMask >>> cell & 1) != 0) {
+      return 1;
+    }
+    if ((secondMask >>> cell & 1) != 0) {
+      return 2;
+    }
+    return 0;
+  }
+
+  /**
+   * Looks up the Zobrist key of a single claim. Xoring it into a board hash adds the claim.
+   *
+   * @param playerIndex as the seat of the claiming player, 0 or 1.
+   * @param cell        as the bit index of the claimed cell, range [0-8].
+   * @return random but fixed 64-bit key of the claim.
+   */
+  static long zobristKey(int playerIndex, int cell) {
+    return ZOBRIST_KEYS[playerIndex][cell];
+  }
+
+  /**
+   * Computes the Zobrist hash of a board from scratch. Yields the same value as starting from the
+   * empty board hash and adding all claims one by one.
+   *
+   * @param firstMask  as the cells claimed by the first player.
+   * @param secondMask as the cells claimed by the second player.
+   * @return 64-bit hash of the cell assignment.
+   */
+  static long zobristHash(int firstMask, int secondMask) {
+    return EMPTY_BOARD_HASH ^ ZOBRIST_MASK_HASHES[0][firstMask]
+        ^ ZOBRIST_MASK_HASHES[1][secondMask];
+  }
+
+  /**
+   * SplitMix64 finalizer, turns consecutive seeds into well distributed keys.
+   */
+  private static long mix(long value) {
+    long mixed = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+    mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+    return mixed ^ (mixed >>> 31);
+  }
+
+  /**
+   * Packs a board into one int, 2 bits per cell, as specified by BoardReadOnly.getPackedCells.
+   *
+   * @param firstMask  as the cells claimed by the first player.
+   * @param secondMask as the cells claimed by the second player.
+   * @return packed 18-bit representation of the board.
+   */
+  static int packCells(int firstMask, int secondMask) {
+    return SPREAD_BITS[firstMask] | SPREAD_BITS[secondMask] << 1;
+  }
+
+  /**
+   * Writes the cell states into a caller-supplied buffer indexed by [ypos][xpos].
+   *
+   * @param firstMask  as the cells claimed by the first player.
+   * @param secondMask as the cells claimed by the second player.
+   * @param target     as a buffer with at least 3 rows of at least 3 cells each.
+   */
+  static void copyCells(int firstMask, int secondMask, int[][] target) {
+    for (int cell = 0; cell < 9; cell++) {
+      target[cell / 3][cell % 3] = occupantOf(firstMask, secondMask, cell);
+    }
+  }
+
+  /**
+   * Passes all cell states to a visitor, in row-major order.
+   *
+   * @param firstMask  as the cells claimed by the first player.
+   * @param secondMask as the cells claimed by the second player.
+   * @param visitor    as the callback to receive the cell states.
+   */
+  static void visitCells(int firstMask, int secondMask, CellVisitor visitor) {
+    for (int cell = 0; cell < 9; cell++) {
+      visitor.visitCell(cell % 3, cell / 3, occupantOf(firstMask, secondMask, cell));
+    }
+  }
+
+  /**
+   * Builds the 2D cell array representation used by BoardReadOnly.getCells.
+   *
+   * @param firstMask  as the cells claimed by the first player.
+   * @param secondMask as the cells claimed by the second player.
+   * @return freshly allocated int[3][3] array, indexed by [ypos][xpos].
+   */
+  static int[][] toCells(int firstMask, int secondMask) {
+    int[][] cells = new int[3][3];
+    for (int cell = 0; cell < 9; cell++) {
+      cells[cell / 3][cell % 3] = occupantOf(firstMask, secondMask, cell);
+    }
+    return cells;
+  }
+
+  /**
+   * Renders a board the exact same way BoardImpl does, so string representations of different
+   * board implementations can be compared.
+   *
+   * @param firstMask  as the cells claimed by the first player.
+   * @param secondMask as the cells claimed by the second player.
+   * @return ASCII art representation of the board.
+   */
+  static String render(int firstMask, int secondMask) {
+    StringBuilder sb = new StringBuilder("");
+    sb.append("\n -------------\n");
+    for (int ypos = 0; ypos < 3; ypos++) {
+      sb.append(" | ");
+      for (int xpos = 0; xpos < 3; xpos++) {
+        sb.append(occupantOf(firstMask, secondMask, ypos * 3 + xpos));
+        sb.append(" | ");
+      }
+      sb.append("\n");
+      sb.append(" -------------\n");
+    }
+    return sb.toString();
+  }
+}
@@ -1,6 +1,12 @@
 package ca.uqam.xoxinternals.model;
 
-interface Board extends BoardReadOnly {
+/**
+ * Modifiable board interface for Xox boards. Implemented by the cell matrix based BoardImpl and by
+ * the mask based BitBoardImpl.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public interface Board extends BoardReadOnly {
   /**
    * Occupies cell at given position, by associating it with player.
    *
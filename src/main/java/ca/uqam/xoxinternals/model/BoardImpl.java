@@ -11,6 +11,10 @@ public class BoardImpl implements Board {
   // ' ': empty. 'x': occupied by x, 'o': occupied by o, 'X' winning cell of x, 'O' winning cell
   // of o.
   private final int[][] cells;
+  // Zobrist hash of the cell assignment, updated with every claim.
+  private long zobristHash = BitBoards.EMPTY_BOARD_HASH;
+  // Amount of claims applied so far.
+  private int version;
 
   /**
    * Default constructor for Xox boards. Creates an empty 3x3 cell matrix.
@@ -80,6 +84,74 @@ public class BoardImpl implements Board {
     return copiedCells;
   }
 
+  @Override
+  public int getPlayerCells(int playerIndex) {
+    int playerCells = 0;
+    for (int y = 0; y < cells.length; y++) {
+      for (int x = 0; x < cells[y].length; x++) {
+        if (cells[y][x] == playerIndex + 1) {
+          playerCells |= 1 << (3 * y + x);
+        }
+      }
+    }
+    return playerCells;
+  }
+
+  @Override
+  public int getFreeCells() {
+    int freeCells = 0;
+    for (int y = 0; y < cells.length; y++) {
+      for (int x = 0; x < cells[y].length; x++) {
+        if (cells[y][x] == 0) {
+          freeCells |= 1 << (3 * y + x);
+        }
+      }
+    }
+    return freeCells;
+  }
+
+  @Override
+  public int getPositionIndex() {
+    int index = 0;
+    int power = 1;
+    for (int y = 0; y < cells.length; y++) {
+      for (int x = 0; x < cells[y].length; x++) {
+        index += cells[y][x] * power;
+        power *= 3;
+      }
+    }
+    return index;
+  }
+
+  @Override
+  public int getPackedCells() {
+    int packed = 0;
+    for (int y = 0; y < cells.length; y++) {
+      for (int x = 0; x < cells[y].length; x++) {
+        packed |= cells[y][x] << (2 * (3 * y + x));
+      }
+    }
+    return packed;
+  }
+
+  @Override
+  public void copyCells(int[][] target) {
+    for (int y = 0; y < cells.length; y++) {
+      for (int x = 0; x < cells[y].length; x++) {
+        target[y][x] = cells[y][x];
+      }
+    }
+  }
+
+  @Override
+  public void visitCells(CellVisitor visitor) {
+    for (int y = 0; y < cells.length; y++) {
+      for (int x = 0; x < cells[y].length; x++) {
+        visitor.visitCell(x, y, cells[y][x]);
+      }
+    }
+  }
+
   /**
    * Iterates over the board and initializes all cells with the whitespace character.
    */
@@ -97,6 +169,18 @@ public class BoardImpl implements Board {
       throw new ModelAccessException("Requested cell can not by occupied. Is not free.");
     }
     cells[ypos][xpos] = (firstPlayer ? 1 : 2);
+    zobristHash ^= BitBoards.zobristKey(firstPlayer ? 0 : 1, 3 * ypos + xpos);
+    version++;
+  }
+
+  @Override
+  public long getZobristHash() {
+    return zobristHash;
+  }
+
+  @Override
+  public long getVersion() {
+    return version;
   }
 
   @Override
@@ -53,4 +53,96 @@ public interface BoardReadOnly {
    * @return a character indicating the occupier of the line or a whitespace.
    */
   int getThreeInaLineCharIfExists();
+
+  /**
+   * Encodes the current cell assignment as a single base-3 number. Every cell contributes its
+   * occupant code (0 empty, 1 first player, 2 second player) times 3^(3 * ypos + xpos).
+   *
+   * @return position index in range [0, 19682], usable as index into the PositionTable.
+   */
+  default int getPositionIndex() {
+    return BitBoards.positionIndex(getPlayerCells(0), getPlayerCells(1));
+  }
+
+  /**
+   * Encodes all vacant cells as a 9-bit mask. Bit 3 * ypos + xpos is set if the cell at the
+   * corresponding position is free.
+   *
+   * @return mask of all free cells, 0 if the board is full.
+   */
+  default int getFreeCells() {
+    return BitBoards.FULL_MASK & ~(getPlayerCells(0) | getPlayerCells(1));
+  }
+
+  /**
+   * Encodes the cells claimed by one player as a 9-bit mask. Bit 3 * ypos + xpos is set if the
+   * cell at the corresponding position is occupied by the player.
+   *
+   * @param playerIndex as the seat of the player, 0 for the first and 1 for the second player.
+   * @return mask of all cells claimed by the player.
+   */
+  default int getPlayerCells(int playerIndex) {
+    int[][] cells = getCells();
+    int playerCells = 0;
+    for (int cell = 0; cell < 9; cell++) {
+      if (cells[cell / 3][cell % 3] == playerIndex + 1) {
+        playerCells |= 1 << cell;
+      }
+    }
+    return playerCells;
+  }
+
+  /**
+   * Encodes the entire board as a single int. Each cell uses 2 bits, the cell at position (xpos,
+   * ypos) is stored in bits 2 * (3 * ypos + xpos) and the following bit. Cell values are the same
+   * as in getCells: 0 for empty, 1 for first player, 2 for second player. The built-in boards
+   * encode without allocating.
+   *
+   * @return packed 18-bit representation of the board.
+   */
+  default int getPackedCells() {
+    return BitBoards.packCells(getPlayerCells(0), getPlayerCells(1));
+  }
+
+  /**
+   * Copies the cell states into a caller-supplied buffer. The layout matches the array returned by
+   * getCells, the built-in boards fill it without allocating.
+   *
+   * @param target as a buffer with at least 3 rows of at least 3 cells each.
+   */
+  default void copyCells(int[][] target) {
+    BitBoards.copyCells(getPlayerCells(0), getPlayerCells(1), target);
+  }
+
+  /**
+   * Passes every cell of the board to a visitor, in row-major order. The built-in boards do so
+   * without allocating.
+   *
+   * @param visitor as the callback to receive the cell states.
+   */
+  default void visitCells(CellVisitor visitor) {
+    BitBoards.visitCells(getPlayerCells(0), getPlayerCells(1), visitor);
+  }
+
+  /**
+   * Getter for a 64-bit Zobrist hash of the cell assignment. The built-in boards maintain the hash
+   * incrementally with every claim, so reading it neither allocates nor inspects the cells; the
+   * default recomputes it from getCells. Equal cell assignments always yield equal hashes, also
+   * across processes, since the underlying keys derive from a fixed seed.
+   *
+   * @return hash of the current cell assignment.
+   */
+  default long getZobristHash() {
+    return BitBoards.zobristHash(getPlayerCells(0), getPlayerCells(1));
+  }
+
+  /**
+   * Getter for the state version of the board. Versions start at 0 for an empty board and increase
+   * with every claim, so two reads with the same version saw the same board.
+   *
+   * @return amount of claims applied to the board.
+   */
+  default long getVersion() {
+    return Integer.bitCount(getPlayerCells(0) | getPlayerCells(1));
+  }
 }
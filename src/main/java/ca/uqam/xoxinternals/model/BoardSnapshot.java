@@ -0,0 +1,133 @@
+package ca.uqam.xoxinternals.model;
+
+/**
+ * Immutable snapshot of a Xox board. Snapshots are published by a game after every applied move,
+ * so readers can inspect a consistent board state without locking and without copying. Every
+ * snapshot carries the version of the game state it was taken from.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public final class BoardSnapshot implements BoardReadOnly {
+  // Cells claimed by the first player. Bit n represents cell (n % 3, n / 3).
+  private final int firstPlayerCells;
+  // Cells claimed by the second player. Same encoding as for the first player.
+  private final int secondPlayerCells;
+  // Version of the game state this snapshot was taken from.
+  private final long version;
+  // Zobrist hash of the cell assignment, derived from the masks.
+  private final long zobristHash;
+
+  /**
+   * Creates a snapshot from the occupancy masks of both players.
+   *
+   * @param firstPlayerCells  as the 9-bit mask of cells claimed by the first player.
+   * @param secondPlayerCells as the 9-bit mask of cells claimed by the second player.
+   * @param version           as the version of the game state the snapshot represents.
+   */
+  public BoardSnapshot(int firstPlayerCells, int secondPlayerCells, long version) {
+    if (((firstPlayerCells | secondPlayerCells) & ~BitBoards.FULL_MASK) != 0
+        || (firstPlayerCells & secondPlayerCells) != 0) {
+      throw new IllegalArgumentException(
+          "Unable to create board snapshot. Masks are out of range or overlap.");
+    }
+    this.firstPlayerCells = firstPlayerCells;
+    this.secondPlayerCells = secondPlayerCells;
+    this.version = version;
+    this.zobristHash = BitBoards.zobristHash(firstPlayerCells, secondPlayerCells);
+  }
+
+  /**
+   * Creates a snapshot of the current state of any board.
+   *
+   * @param board   as the board to take the snapshot of.
+   * @param version as the version of the game state the snapshot represents.
+   * @return immutable copy of the board state.
+   */
+  public static BoardSnapshot of(BoardReadOnly board, long version) {
+    return new BoardSnapshot(board.getPlayerCells(0), board.getPlayerCells(1), version);
+  }
+
+  /**
+   * Getter for the version of the game state this snapshot was taken from. Versions increase
+   * monotonically with every applied move.
+   *
+   * @return version of the snapshot.
+   */
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public long getZobristHash() {
+    return zobristHash;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return (firstPlayerCells | secondPlayerCells) == 0;
+  }
+
+  @Override
+  public boolean isFull() {
+    return (firstPlayerCells | secondPlayerCells) == BitBoards.FULL_MASK;
+  }
+
+  @Override
+  public boolean isFree(int xpos, int ypos) {
+    if (!BitBoards.isOnBoard(xpos, ypos)) {
+      return false;
+    }
+    return ((firstPlayerCells | secondPlayerCells) & BitBoards.cellBit(xpos, ypos)) == 0;
+  }
+
+  @Override
+  public int[][] getCells() {
+    return BitBoards.toCells(firstPlayerCells, secondPlayerCells);
+  }
+
+  @Override
+  public boolean isThreeInaLine() {
+    return getThreeInaLineCharIfExists() != 0;
+  }
+
+  @Override
+  public int getThreeInaLineCharIfExists() {
+    return PositionTable.getWinner(PositionTable.lookup(getPositionIndex()));
+  }
+
+  @Override
+  public int getPositionIndex() {
+    return BitBoards.positionIndex(firstPlayerCells, secondPlayerCells);
+  }
+
+  @Override
+  public int getFreeCells() {
+    return ~(firstPlayerCells | secondPlayerCells) & BitBoards.FULL_MASK;
+  }
+
+  @Override
+  public int getPlayerCells(int playerIndex) {
+    return playerIndex == 0 ? firstPlayerCells : secondPlayerCells;
+  }
+
+  @Override
+  public int getPackedCells() {
+    return BitBoards.packCells(firstPlayerCells, secondPlayerCells);
+  }
+
+  @Override
+  public void copyCells(int[][] target) {
+    BitBoards.copyCells(firstPlayerCells, secondPlayerCells, target);
+  }
+
+  @Override
+  public void visitCells(CellVisitor visitor) {
+    BitBoards.visitCells(firstPlayerCells, secondPlayerCells, visitor);
+  }
+
+  @Override
+  public String toString() {
+    return BitBoards.render(firstPlayerCells, secondPlayerCells);
+  }
+}
@@ -0,0 +1,19 @@
+package ca.uqam.xoxinternals.model;
+
+/**
+ * Callback interface to inspect the cells of a board one by one, without any intermediate array
+ * representation of the board.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public interface CellVisitor {
+  /**
+   * Called once per cell, in row-major order (top-left first).
+   *
+   * @param xpos     as the horizontal position of the cell.
+   * @param ypos     as the vertical position of the cell.
+   * @param occupant as the state of the cell: 0 if empty, 1 if claimed by the first player, 2 if
+   *                 claimed by the second player.
+   */
+  void visitCell(int xpos, int ypos, int occupant);
+}
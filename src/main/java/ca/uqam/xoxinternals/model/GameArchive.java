@@ -0,0 +1,240 @@
+package ca.uqam.xoxinternals.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Cold tier for finished games. Once a game has ended, its entire state is two players and the
+ * final cell assignment, from which the outcome and the move count follow. The archive stores
+ * exactly that, as fixed-width records of 20 bytes appended to segments of off-heap memory:
+ * the game id (8 bytes), both occupancy masks (4 bytes) and two references to interned players
+ * (4 bytes each). Segments are either direct buffers, or memory-mapped files on local disk, in
+ * which case the operating system may page out archived games that are not read.
+ *
+ * <p>Records are written once and never modified. Removing a game only drops it from the index,
+ * its record space is not reclaimed. Lookups use a primitive open-addressing index from game id to
+ * record number, read optimistically without locking. Archived games are handed out as read-only
+ * views decoded from their record.
+ *
+ * <p>Memory-mapped segment files are scratch space. They are unlinked right after mapping, so
+ * their content does not outlive the archive and is not recovered on restart.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public final class GameArchive implements Closeable {
+  // Record layout, in bytes.
+  private static final int RECORD_BYTES = 20;
+  private static final int CELLS_OFFSET = 8;
+  private static final int FIRST_PLAYER_OFFSET = 12;
+  private static final int SECOND_PLAYER_OFFSET = 16;
+  private static final int SECOND_SHIFT = 9;
+  private static final int DEFAULT_SEGMENT_RECORDS = 1 << 16;
+
+  private final int segmentRecords;
+  // Directory for segment files, null for direct buffers.
+  private final Path directory;
+  private final PlayerTable players = new PlayerTable();
+  private final StampedLock lock = new StampedLock();
+  // Index from game id to record number, guarded by the lock.
+  private final GameIdIndex index = new GameIdIndex();
+  private volatile ByteBuffer[] segments = new ByteBuffer[0];
+  private int nextRecord;
+  private volatile int size;
+
+  /**
+   * Creates an empty archive with segments in direct memory.
+   */
+  public GameArchive() {
+    this(null, DEFAULT_SEGMENT_RECORDS);
+  }
+
+  /**
+   * Creates an empty archive.
+   *
+   * @param directory      as the directory for memory-mapped segment files, or null to keep
+   *                       segments in direct memory.
+   * @param segmentRecords as the amount of records per segment.
+   */
+  public GameArchive(Path directory, int segmentRecords) {
+    if (segmentRecords < 1) {
+      throw new IllegalArgumentException("Archive segments must hold at least one record.");
+    }
+    this.directory = directory;
+    this.segmentRecords = segmentRecords;
+  }
+
+  /**
+   * Creates an empty archive with memory-mapped segments of default size.
+   *
+   * @param directory as the directory for segment files. Must exist.
+   * @return the new archive.
+   */
+  public static GameArchive mapped(Path directory) {
+    return new GameArchive(directory, DEFAULT_SEGMENT_RECORDS);
+  }
+
+  /**
+   * Appends a finished game to the archive.
+   *
+   * @param gameId as the id of the game.
+   * @param game   as the finished game to archive.
+   * @throws ModelAccessException if the game is not finished, the id is already archived or a
+   *                              segment file can not be created.
+   */
+  public void archive(long gameId, XoxGameReadOnly game) throws ModelAccessException {
+    if (!game.isFinished()) {
+      throw new ModelAccessException("Only finished games can be archived.");
+    }
+    BoardSnapshot board = game.getBoardSnapshot();
+    int cells = board.getPlayerCells(0) | board.getPlayerCells(1) << SECOND_SHIFT;
+    long stamp = lock.writeLock();
+    try {
+      if (index.find(gameId) != -1) {
+        throw new ModelAccessException("Game " + gameId + " is already archived.");
+      }
+      int record = nextRecord;
+      if (record / segmentRecords == segments.length) {
+        addSegment();
+      }
+      ByteBuffer segment = segments[record / segmentRecords];
+      int offset = record % segmentRecords * RECORD_BYTES;
+      segment.putLong(offset, gameId);
+      segment.putInt(offset + CELLS_OFFSET, cells);
+      segment.putInt(offset + FIRST_PLAYER_OFFSET, players.intern(game.getPlayerInfo(0)));
+      segment.putInt(offset + SECOND_PLAYER_OFFSET, players.intern(game.getPlayerInfo(1)));
+      nextRecord++;
+      // Indexing the record publishes it to readers.
+      index.insert(gameId, record);
+      size++;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Looks up an archived game.
+   *
+   * @param gameId as the id of the game.
+   * @return read-only view of the game, or null if the id is not archived.
+   */
+  public XoxGameReadOnly getGame(long gameId) {
+    long stamp = lock.tryOptimisticRead();
+    int record = index.find(gameId);
+    if (!lock.validate(stamp)) {
+      // The index was modified meanwhile, repeat the lookup in a consistent state.
+      stamp = lock.readLock();
+      try {
+        record = index.find(gameId);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    if (record == -1) {
+      return null;
+    }
+    // Records are immutable once indexed, no lock required.
+    ByteBuffer segment = segments[record / segmentRecords];
+    int offset = record % segmentRecords * RECORD_BYTES;
+    int cells = segment.getInt(offset + CELLS_OFFSET);
+    return new ArchivedGame(players.get(segment.getInt(offset + FIRST_PLAYER_OFFSET)),
+        players.get(segment.getInt(offset + SECOND_PLAYER_OFFSET)),
+        cells & BitBoards.FULL_MASK, cells >>> SECOND_SHIFT);
+  }
+
+  /**
+   * Tells whether a game is archived.
+   *
+   * @param gameId as the id of the game.
+   * @return true if the game can be looked up.
+   */
+  public boolean contains(long gameId) {
+    return getGame(gameId) != null;
+  }
+
+  /**
+   * Drops a game from the archive. The space of its record is not reclaimed.
+   *
+   * @param gameId as the id of the game.
+   * @return true if the game was archived.
+   */
+  public boolean remove(long gameId) {
+    long stamp = lock.writeLock();
+    try {
+      if (!index.remove(gameId)) {
+        return false;
+      }
+      size--;
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Counts the games that can be looked up.
+   *
+   * @return amount of archived games.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Tells how much off-heap memory, or mapped file space, is reserved for records.
+   *
+   * @return reserved bytes, including unused space of the latest segment and removed records.
+   */
+  public long getReservedBytes() {
+    return (long) segments.length * segmentRecords * RECORD_BYTES;
+  }
+
+  /**
+   * Drops all segments. The archive must not be used afterwards. Mapped segments are released once
+   * the garbage collector reclaims them.
+   */
+  @Override
+  public void close() {
+    long stamp = lock.writeLock();
+    try {
+      segments = new ByteBuffer[0];
+      nextRecord = 0;
+      index.clear();
+      size = 0;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Appends an empty segment. Caller must hold the write lock.
+   */
+  private void addSegment() throws ModelAccessException {
+    int bytes = segmentRecords * RECORD_BYTES;
+    ByteBuffer segment;
+    if (directory == null) {
+      segment = ByteBuffer.allocateDirect(bytes);
+    } else {
+      Path file = directory.resolve(String.format("archive-%06d.seg", segments.length));
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+          StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        // The mapping stays valid without the file name.
+        Files.delete(file);
+      } catch (IOException e) {
+        throw new ModelAccessException("Unable to create archive segment: " + e.getMessage());
+      }
+    }
+    segment.order(ByteOrder.nativeOrder());
+    ByteBuffer[] grown = Arrays.copyOf(segments, segments.length + 1);
+    grown[segments.length] = segment;
+    segments = grown;
+  }
+}
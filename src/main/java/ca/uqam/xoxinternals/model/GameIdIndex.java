@@ -0,0 +1,158 @@
+package ca.uqam.xoxinternals.model;
+
+/**
+ * Primitive open-addressing index from game id to record number, shared by the off-heap game
+ * tiers. Writers must be serialized by the owner. Lookups may run concurrently with a writer, in
+ * which case their result can be garbage and must be validated by the owner, e.g. with an
+ * optimistic read stamp.
+ *
+ * @author Maximilian Schiedermeier
+ */
+final class GameIdIndex {
+  // Fibonacci hashing multiplier, spreads sequential ids over all slots.
+  private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+  // Id 0 marks empty slots, so its record is kept apart.
+  private long[] keys = new long[16];
+  private int[] records = new int[16];
+  private int zeroKeyRecord = -1;
+  private int count;
+
+  private static int slotOf(long gameId, int mask) {
+    return (int) ((gameId * HASH_MULTIPLIER) >>> 32) & mask;
+  }
+
+  /**
+   * Probes the index. Probing is bounded by the table length, so racing writers can never cause an
+   * endless loop.
+   *
+   * @param gameId as the id to look up.
+   * @return record number of the id, or -1 if the id is not indexed.
+   */
+  int find(long gameId) {
+    if (gameId == 0) {
+      return zeroKeyRecord;
+    }
+    long[] currentKeys = keys;
+    int[] currentRecords = records;
+    int mask = Math.min(currentKeys.length, currentRecords.length) - 1;
+    int slot = slotOf(gameId, mask);
+    for (int probes = 0; probes <= mask; probes++) {
+      if (currentKeys[slot] == gameId) {
+        return currentRecords[slot];
+      }
+      if (currentKeys[slot] == 0) {
+        return -1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Adds an id that is not indexed yet.
+   *
+   * @param gameId as the id to add.
+   * @param record as the record number to map the id to.
+   */
+  void insert(long gameId, int record) {
+    if (gameId == 0) {
+      zeroKeyRecord = record;
+      return;
+    }
+    // Grow before exceeding a load factor of 3/4. New arrays are only published once filled.
+    if ((count + 1) * 4L > keys.length * 3L) {
+      long[] oldKeys = keys;
+      int[] oldRecords = records;
+      long[] grownKeys = new long[oldKeys.length * 2];
+      int[] grownRecords = new int[grownKeys.length];
+      for (int slot = 0; slot < oldKeys.length; slot++) {
+        if (oldKeys[slot] != 0) {
+          place(grownKeys, grownRecords, oldKeys[slot], oldRecords[slot]);
+        }
+      }
+      records = grownRecords;
+      keys = grownKeys;
+    }
+    place(keys, records, gameId, record);
+    count++;
+  }
+
+  private static void place(long[] keys, int[] records, long gameId, int record) {
+    int mask = keys.length - 1;
+    int slot = slotOf(gameId, mask);
+    while (keys[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    records[slot] = record;
+    keys[slot] = gameId;
+  }
+
+  /**
+   * Removes an id, shifting back subsequent entries of its probe run.
+   *
+   * @param gameId as the id to remove.
+   * @return true if the id was indexed.
+   */
+  boolean remove(long gameId) {
+    if (gameId == 0) {
+      boolean present = zeroKeyRecord != -1;
+      zeroKeyRecord = -1;
+      return present;
+    }
+    int mask = keys.length - 1;
+    int gap = slotOf(gameId, mask);
+    while (keys[gap] != gameId) {
+      if (keys[gap] == 0) {
+        return false;
+      }
+      gap = (gap + 1) & mask;
+    }
+    int slot = gap;
+    while (true) {
+      slot = (slot + 1) & mask;
+      long candidate = keys[slot];
+      if (candidate == 0) {
+        break;
+      }
+      int home = slotOf(candidate, mask);
+      if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+        keys[gap] = candidate;
+        records[gap] = records[slot];
+        gap = slot;
+      }
+    }
+    keys[gap] = 0;
+    count--;
+    return true;
+  }
+
+  /**
+   * Lists all indexed ids. Must not run concurrently with a writer.
+   *
+   * @return freshly allocated array of all ids, in no particular order.
+   */
+  long[] keys() {
+    long[] result = new long[count + (zeroKeyRecord == -1 ? 0 : 1)];
+    int next = 0;
+    if (zeroKeyRecord != -1) {
+      result[next++] = 0;
+    }
+    for (long key : keys) {
+      if (key != 0) {
+        result[next++] = key;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Drops all ids.
+   */
+  void clear() {
+    keys = new long[16];
+    records = new int[16];
+    zeroKeyRecord = -1;
+    count = 0;
+  }
+}
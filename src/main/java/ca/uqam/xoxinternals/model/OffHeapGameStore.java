@@ -0,0 +1,340 @@
+package ca.uqam.xoxinternals.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Compact store for very large amounts of live games, keyed by game id. Every game is a
+ * fixed-width record of 20 bytes in off-heap memory, so stored games neither occupy heap nor cause
+ * garbage collection work. Records are laid out in direct buffers of 65536 records each, allocated
+ * on demand. A manager uses the store as off-heap tier for running games, see
+ * XoxManagerImpl.setOffHeapStore.
+ *
+ * <p>A record consists of the game id (8 bytes) and three ints. The first int holds the complete
+ * game state: the occupancy masks of both players (bits 0-8 and 9-17), the index of the current
+ * player (bit 18), the finished flag (bit 19), the winning line + 1 (bits 20-23), an allocation
+ * flag (bit 24) and a generation count (bits 25-31) that changes whenever the record is reused. The
+ * other two ints reference the players, which are interned on heap and shared by all games they
+ * participate in.
+ *
+ * <p>Since the state of a game fits into a single int, claims are applied with a single
+ * compare-and-set and never lock. Lookups read the id index optimistically, also without locking.
+ * Games are handed out as immutable views decoded from their record, so a view stays consistent
+ * even if its game receives claims or is removed afterwards. Records of removed games are
+ * recycled.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public final class OffHeapGameStore {
+  // Record layout, in bytes.
+  private static final int RECORD_BYTES = 20;
+  private static final int STATE_OFFSET = 8;
+  private static final int FIRST_PLAYER_OFFSET = 12;
+  private static final int SECOND_PLAYER_OFFSET = 16;
+  // Chunk layout. Record n is located in chunk n >>> CHUNK_BITS.
+  private static final int CHUNK_BITS = 16;
+  private static final int CHUNK_RECORDS = 1 << CHUNK_BITS;
+  // State layout.
+  private static final int SECOND_SHIFT = 9;
+  private static final int CURRENT_BIT = 1 << 18;
+  private static final int FINISHED_BIT = 1 << 19;
+  private static final int LINE_SHIFT = 20;
+  private static final int ALLOCATED_BIT = 1 << 24;
+  private static final int GENERATION_SHIFT = 25;
+  private static final int GENERATION_MASK = -1 << GENERATION_SHIFT;
+  // Atomic int access to direct buffers.
+  private static final VarHandle INT =
+      MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+  private final PlayerTable players = new PlayerTable();
+  private final StampedLock lock = new StampedLock();
+  // Index from game id to record number, guarded by the lock.
+  private final GameIdIndex index = new GameIdIndex();
+  private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+  // Record bookkeeping, guarded by the lock.
+  private int[] freeRecords = new int[64];
+  private int freeRecordCount;
+  private int nextRecord;
+  private volatile int size;
+
+  /**
+   * Stores the current state of a game.
+   *
+   * @param gameId as the id of the game.
+   * @param game   as the game to store.
+   * @throws ModelAccessException if the id is already stored.
+   */
+  public void add(long gameId, XoxGameReadOnly game) throws ModelAccessException {
+    BoardSnapshot board = game.getBoardSnapshot();
+    int state = board.getPlayerCells(0) | board.getPlayerCells(1) << SECOND_SHIFT
+        | (game.getCurrentPlayerIndex() == 0 ? 0 : CURRENT_BIT)
+        | (game.isFinished() ? FINISHED_BIT : 0) | (game.getWinningLine() + 1) << LINE_SHIFT;
+    long stamp = lock.writeLock();
+    try {
+      if (index.find(gameId) != -1) {
+        throw new ModelAccessException("Game " + gameId + " is already stored.");
+      }
+      int record = freeRecordCount > 0 ? freeRecords[--freeRecordCount] : newRecord();
+      ByteBuffer chunk = chunkOf(record);
+      int offset = offsetOf(record);
+      int previous = (int) INT.getVolatile(chunk, offset + STATE_OFFSET);
+      final int generation = (previous >>> GENERATION_SHIFT) + 1;
+      chunk.putLong(offset, gameId);
+      chunk.putInt(offset + FIRST_PLAYER_OFFSET, players.intern(game.getPlayerInfo(0)));
+      chunk.putInt(offset + SECOND_PLAYER_OFFSET, players.intern(game.getPlayerInfo(1)));
+      // Publishing the state makes the whole record visible to claims.
+      INT.setVolatile(chunk, offset + STATE_OFFSET,
+          state | ALLOCATED_BIT | generation << GENERATION_SHIFT);
+      index.insert(gameId, record);
+      size++;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Removes a game from the store. Claims racing with the removal fail. The record may be reused
+   * for another game.
+   *
+   * @param gameId as the id of the game.
+   * @return true if the game was stored.
+   */
+  public boolean remove(long gameId) {
+    long stamp = lock.writeLock();
+    try {
+      int record = index.find(gameId);
+      if (record == -1) {
+        return false;
+      }
+      ByteBuffer chunk = chunkOf(record);
+      int offset = offsetOf(record);
+      int state = (int) INT.getVolatile(chunk, offset + STATE_OFFSET);
+      // Keep the generation, so the next game in this record gets a new one.
+      INT.setVolatile(chunk, offset + STATE_OFFSET, state & GENERATION_MASK);
+      players.release(chunk.getInt(offset + FIRST_PLAYER_OFFSET));
+      players.release(chunk.getInt(offset + SECOND_PLAYER_OFFSET));
+      if (freeRecordCount == freeRecords.length) {
+        freeRecords = Arrays.copyOf(freeRecords, freeRecordCount * 2);
+      }
+      freeRecords[freeRecordCount++] = record;
+      index.remove(gameId);
+      size--;
+      return true;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Validates and applies a claim of a single cell. The claim is only applied if the game is
+   * running, it is the turn of the claiming player and the cell is on the board and vacant.
+   * Finished games are detected as part of the same atomic update.
+   *
+   * @param gameId      as the id of the game.
+   * @param playerIndex as the seat of the claiming player, 0 or 1.
+   * @param xpos        as the column-index of the claimed cell.
+   * @param ypos        as the row-index of the claimed cell.
+   * @return true if the claim was applied, false if it was not valid or the game is not stored.
+   */
+  public boolean claim(long gameId, int playerIndex, int xpos, int ypos) {
+    if (!BitBoards.isOnBoard(xpos, ypos)) {
+      return false;
+    }
+    int record = lookup(gameId);
+    if (record == -1) {
+      return false;
+    }
+    ByteBuffer chunk = chunkOf(record);
+    int offset = offsetOf(record);
+    int cell = 3 * ypos + xpos;
+    while (true) {
+      int state = (int) INT.getVolatile(chunk, offset + STATE_OFFSET);
+      // The id is written before the state is published. Should the record have been reused
+      // meanwhile, the id tells, and the generation makes the compare-and-set below fail.
+      if ((state & ALLOCATED_BIT) == 0 || chunk.getLong(offset) != gameId
+          || (state & FINISHED_BIT) != 0 || currentPlayerOf(state) != playerIndex
+          || ((firstCellsOf(state) | secondCellsOf(state)) >>> cell & 1) != 0) {
+        return false;
+      }
+      int updated = applyClaim(state, playerIndex, cell);
+      if (INT.compareAndSet(chunk, offset + STATE_OFFSET, state, updated)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Computes the state after a valid claim: occupies the cell, passes the turn and detects the end
+   * of the game by inspecting the lines through the claimed cell only.
+   */
+  private static int applyClaim(int state, int playerIndex, int cell) {
+    int cellBit = 1 << cell;
+    int updated = (state | cellBit << (playerIndex * SECOND_SHIFT)) ^ CURRENT_BIT;
+    int playerCells = playerIndex == 0 ? firstCellsOf(updated) : secondCellsOf(updated);
+    int line = BitBoards.findLineThrough(playerCells, cell);
+    if (line != -1) {
+      return updated | FINISHED_BIT | (line + 1) << LINE_SHIFT;
+    }
+    if ((firstCellsOf(updated) | secondCellsOf(updated)) == BitBoards.FULL_MASK) {
+      return updated | FINISHED_BIT;
+    }
+    return updated;
+  }
+
+  /**
+   * Looks up a stored game. The view is decoded from a single read of the game state, later claims
+   * are not reflected.
+   *
+   * @param gameId as the id of the game.
+   * @return immutable view of the game, or null if the id is not stored.
+   */
+  public XoxGameReadOnly getGame(long gameId) {
+    long stamp = lock.tryOptimisticRead();
+    StoredGameView game = decode(gameId);
+    if (!lock.validate(stamp)) {
+      // A game was added or removed meanwhile, repeat the lookup in a consistent state.
+      stamp = lock.readLock();
+      try {
+        game = decode(gameId);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return game;
+  }
+
+  /**
+   * Tells whether a game is stored.
+   *
+   * @param gameId as the id of the game.
+   * @return true if the game can be looked up.
+   */
+  public boolean contains(long gameId) {
+    return lookup(gameId) != -1;
+  }
+
+  /**
+   * Lists the ids of all stored games.
+   *
+   * @return freshly allocated array of all ids, in no particular order.
+   */
+  public long[] getGameIds() {
+    long stamp = lock.readLock();
+    try {
+      return index.keys();
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Counts the games currently stored.
+   *
+   * @return amount of allocated records.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Tells how much off-heap memory the store has reserved so far.
+   *
+   * @return amount of reserved bytes.
+   */
+  public long getReservedBytes() {
+    return (long) chunks.length * CHUNK_RECORDS * RECORD_BYTES;
+  }
+
+  /**
+   * Counts the distinct players referenced by stored games.
+   *
+   * @return amount of interned players.
+   */
+  public int getPlayerCount() {
+    return players.size();
+  }
+
+  /**
+   * Resolves the record of a game, reading the index optimistically.
+   */
+  private int lookup(long gameId) {
+    long stamp = lock.tryOptimisticRead();
+    int record = index.find(gameId);
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        record = index.find(gameId);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    return record;
+  }
+
+  /**
+   * Decodes a record into a view. Safe to call without lock, in which case the result may be
+   * garbage and must be validated.
+   */
+  private StoredGameView decode(long gameId) {
+    int record = index.find(gameId);
+    ByteBuffer[] current = chunks;
+    if (record < 0 || record >>> CHUNK_BITS >= current.length) {
+      return null;
+    }
+    ByteBuffer chunk = current[record >>> CHUNK_BITS];
+    int offset = offsetOf(record);
+    int state = (int) INT.getVolatile(chunk, offset + STATE_OFFSET);
+    Player firstPlayer = players.get(chunk.getInt(offset + FIRST_PLAYER_OFFSET));
+    Player secondPlayer = players.get(chunk.getInt(offset + SECOND_PLAYER_OFFSET));
+    if ((state & ALLOCATED_BIT) == 0 || firstPlayer == null || secondPlayer == null) {
+      return null;
+    }
+    return new StoredGameView(firstPlayer, secondPlayer, state);
+  }
+
+  /**
+   * Hands out a record that was never used before. Caller must hold the write lock.
+   */
+  private int newRecord() {
+    int record = nextRecord++;
+    if ((record >>> CHUNK_BITS) == chunks.length) {
+      ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+      grown[chunks.length] =
+          ByteBuffer.allocateDirect(CHUNK_RECORDS * RECORD_BYTES).order(ByteOrder.nativeOrder());
+      chunks = grown;
+    }
+    return record;
+  }
+
+  static int firstCellsOf(int state) {
+    return state & BitBoards.FULL_MASK;
+  }
+
+  static int secondCellsOf(int state) {
+    return state >>> SECOND_SHIFT & BitBoards.FULL_MASK;
+  }
+
+  static int currentPlayerOf(int state) {
+    return (state & CURRENT_BIT) == 0 ? 0 : 1;
+  }
+
+  static boolean isFinished(int state) {
+    return (state & FINISHED_BIT) != 0;
+  }
+
+  static int winningLineOf(int state) {
+    return (state >>> LINE_SHIFT & 0xF) - 1;
+  }
+
+  private ByteBuffer chunkOf(int record) {
+    return chunks[record >>> CHUNK_BITS];
+  }
+
+  private static int offsetOf(int record) {
+    return (record & (CHUNK_RECORDS - 1)) * RECORD_BYTES;
+  }
+}
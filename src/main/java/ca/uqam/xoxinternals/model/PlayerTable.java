@@ -0,0 +1,100 @@
+package ca.uqam.xoxinternals.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Intern table for the players of archived and off-heap games. Players with the same name and
+ * preferred colour share one slot, so a game record only needs to hold two slot numbers. Slots are
+ * reference counted and recycled once no game refers to them anymore. Players are mutable beans,
+ * so the table stores private copies and hands out fresh copies. Modifying a player obtained from
+ * one stored game therefore affects neither the table nor the live game the player came from.
+ *
+ * @author Maximilian Schiedermeier
+ */
+final class PlayerTable {
+  // Interned players, indexed by slot. Replaced on growth, entries are written before publication.
+  private volatile Player[] players = new Player[16];
+  private int[] referenceCounts = new int[16];
+  private final Map<String, Integer> slotsByKey = new HashMap<>();
+  // Slots released by their last game, ready for reuse.
+  private int[] freeSlots = new int[16];
+  private int freeSlotCount;
+  private int nextSlot;
+
+  /**
+   * Resolves the slot of a player, interning a copy of the player if no equal player is stored
+   * yet. Adds a reference to the slot.
+   *
+   * @param player as the player to intern.
+   * @return slot number of the player, to be released once the referring game is gone.
+   */
+  synchronized int intern(Player player) {
+    String key = keyOf(player);
+    Integer existing = slotsByKey.get(key);
+    if (existing != null) {
+      referenceCounts[existing]++;
+      return existing;
+    }
+    int slot;
+    Player[] current = players;
+    if (freeSlotCount > 0) {
+      slot = freeSlots[--freeSlotCount];
+    } else {
+      slot = nextSlot++;
+      if (slot == current.length) {
+        current = Arrays.copyOf(current, slot * 2);
+        referenceCounts = Arrays.copyOf(referenceCounts, slot * 2);
+      }
+    }
+    current[slot] = new Player(player.getName(), player.getPreferredColour());
+    players = current;
+    referenceCounts[slot] = 1;
+    slotsByKey.put(key, slot);
+    return slot;
+  }
+
+  /**
+   * Drops one reference to a slot. The slot is recycled once its last reference is dropped.
+   *
+   * @param slot as the slot number handed out by intern.
+   */
+  synchronized void release(int slot) {
+    if (--referenceCounts[slot] > 0) {
+      return;
+    }
+    slotsByKey.remove(keyOf(players[slot]));
+    players[slot] = null;
+    if (freeSlotCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, freeSlotCount * 2);
+    }
+    freeSlots[freeSlotCount++] = slot;
+  }
+
+  /**
+   * Looks up an interned player. Does not lock, so readers racing with a release may pass slot
+   * numbers that are no longer referenced.
+   *
+   * @param slot as a slot number handed out by intern.
+   * @return a copy of the interned player, owned by the caller, or null if the slot is not in use.
+   */
+  Player get(int slot) {
+    Player[] current = players;
+    Player interned = slot >= 0 && slot < current.length ? current[slot] : null;
+    return interned == null ? null : new Player(interned.getName(), interned.getPreferredColour());
+  }
+
+  /**
+   * Counts the distinct players currently interned.
+   *
+   * @return amount of occupied slots.
+   */
+  synchronized int size() {
+    return slotsByKey.size();
+  }
+
+  private static String keyOf(Player player) {
+    return player.getName() + '\u0000' + player.getPreferredColour();
+  }
+}
@@ -0,0 +1,138 @@
+package ca.uqam.xoxinternals.model;
+
+/**
+ * Precomputed outcome table for all 3^9 = 19683 cell assignments of a Xox board. The table is built
+ * once at class load. Each position maps to a single entry that tells whether the position ends the
+ * game, which player (if any) has three in a line and which line it is. Entries are addressed by
+ * the position index of a board, see BoardReadOnly.getPositionIndex.
+ *
+ * <p>Winning lines are numbered 0-2 for rows (top to bottom), 3-5 for columns (left to right), 6
+ * for the diagonal from top-left and 7 for the diagonal from top-right.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public final class PositionTable {
+  // Total amount of distinct cell assignments.
+  private static final int POSITIONS = 19683;
+  // Entry layout: bits 0-1 winner code, bit 2 finished flag, bits 3-6 winning line + 1.
+  private static final int WINNER_BITS = 0x3;
+  private static final int FINISHED_BIT = 0x4;
+  private static final int LINE_SHIFT = 3;
+  private static final byte[] ENTRIES = new byte[POSITIONS];
+
+  static {
+    for (int index = 0; index < POSITIONS; index++) {
+      int firstMask = 0;
+      int secondMask = 0;
+      int remainder = index;
+      for (int cell = 0; cell < 9; cell++) {
+        int occupant = remainder % 3;
+        remainder /= 3;
+        if (occupant == 1) {
+          firstMask |= 1 << cell;
+        } else if (occupant == 2) {
+          secondMask |= 1 << cell;
+        }
+      }
+      ENTRIES[index] = (byte) computeEntry(firstMask, secondMask);
+    }
+  }
+
+  /**
+   * Private constructor, no instances of this lookup class.
+   */
+  private PositionTable() {
+  }
+
+  /**
+   * Analyzes a single position the slow way. Only used to populate the table.
+   */
+  private static int computeEntry(int firstMask, int secondMask) {
+    int line = BitBoards.findLine(firstMask);
+    int winner = 1;
+    if (line == -1) {
+      line = BitBoards.findLine(secondMask);
+      winner = 2;
+    }
+    if (line != -1) {
+      return winner | FINISHED_BIT | (line + 1) << LINE_SHIFT;
+    }
+    if ((firstMask | secondMask) == BitBoards.FULL_MASK) {
+      return FINISHED_BIT;
+    }
+    return 0;
+  }
+
+  /**
+   * Looks up the table entry for the current position of a board.
+   *
+   * @param board as the board to look up.
+   * @return opaque entry, to be decoded with the static accessors of this class.
+   */
+  public static int lookup(BoardReadOnly board) {
+    return ENTRIES[board.getPositionIndex()];
+  }
+
+  /**
+   * Looks up the table entry for a position index.
+   *
+   * @param positionIndex as the base-3 encoded cell assignment, range [0, 19682].
+   * @return opaque entry, to be decoded with the static accessors of this class.
+   */
+  public static int lookup(int positionIndex) {
+    return ENTRIES[positionIndex];
+  }
+
+  /**
+   * Incremental alternative to a table lookup. Looks up a line through the most recently claimed
+   * cell, which is the only place a new line can have formed.
+   *
+   * @param playerCells as the 9-bit mask of all cells claimed by the player who moved last.
+   * @param cell        as the index of the claimed cell (3 * ypos + xpos).
+   * @return line number in range [0-7], or -1 if the claim did not complete a line.
+   */
+  public static int findLineThrough(int playerCells, int cell) {
+    return BitBoards.findLineThrough(playerCells, cell);
+  }
+
+  /**
+   * Tells whether a position ends the game, either because there is three in a line or because the
+   * board is full.
+   *
+   * @param entry as a table entry.
+   * @return true if no more moves are possible.
+   */
+  public static boolean isFinished(int entry) {
+    return (entry & FINISHED_BIT) != 0;
+  }
+
+  /**
+   * Tells which player has three in a line.
+   *
+   * @param entry as a table entry.
+   * @return 1 for the first player, 2 for the second player, 0 if there is no line.
+   */
+  public static int getWinner(int entry) {
+    return entry & WINNER_BITS;
+  }
+
+  /**
+   * Tells whether a position is a full board without any line.
+   *
+   * @param entry as a table entry.
+   * @return true if the position is a draw.
+   */
+  public static boolean isDraw(int entry) {
+    return isFinished(entry) && getWinner(entry) == 0;
+  }
+
+  /**
+   * Tells which line forms the three in a line.
+   *
+   * @param entry as a table entry.
+   * @return line number in range [0-7], or -1 if there is no line.
+   */
+  public static int getWinningLine(int entry) {
+    return (entry >>> LINE_SHIFT) - 1;
+  }
+}
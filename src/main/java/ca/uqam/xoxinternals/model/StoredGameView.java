@@ -0,0 +1,94 @@
+package ca.uqam.xoxinternals.model;
+
+/**
+ * Read-only view of a game held by an OffHeapGameStore. Holds the players and the state int read
+ * from the record at lookup, all game details are derived from that state.
+ *
+ * @author Maximilian Schiedermeier
+ */
+final class StoredGameView implements XoxGameReadOnly {
+  private final Player firstPlayer;
+  private final Player secondPlayer;
+  private final int state;
+
+  StoredGameView(Player firstPlayer, Player secondPlayer, int state) {
+    this.firstPlayer = firstPlayer;
+    this.secondPlayer = secondPlayer;
+    this.state = state;
+  }
+
+  @Override
+  public Player getPlayerByName(String name) {
+    if (firstPlayer.getName().equals(name)) {
+      return firstPlayer;
+    }
+    if (secondPlayer.getName().equals(name)) {
+      return secondPlayer;
+    }
+    return null;
+  }
+
+  @Override
+  public Player[] getPlayers() {
+    return new Player[] {firstPlayer, secondPlayer};
+  }
+
+  @Override
+  public Player getPlayerInfo(int index) {
+    return index == 0 ? firstPlayer : secondPlayer;
+  }
+
+  @Override
+  public boolean isFinished() {
+    return OffHeapGameStore.isFinished(state);
+  }
+
+  @Override
+  public int getCurrentPlayerIndex() {
+    return OffHeapGameStore.currentPlayerOf(state);
+  }
+
+  @Override
+  public boolean isFirstPlayer(Player player) {
+    return firstPlayer.equals(player);
+  }
+
+  @Override
+  public String getCurrentPlayerName() {
+    return getPlayerInfo(getCurrentPlayerIndex()).getName();
+  }
+
+  @Override
+  public int getMoveCount() {
+    return Integer.bitCount(
+        OffHeapGameStore.firstCellsOf(state) | OffHeapGameStore.secondCellsOf(state));
+  }
+
+  @Override
+  public int getWinnerIndex() {
+    int line = OffHeapGameStore.winningLineOf(state);
+    if (line == -1) {
+      return -1;
+    }
+    int lineMask = BitBoards.LINE_MASKS[line];
+    return (OffHeapGameStore.firstCellsOf(state) & lineMask) == lineMask ? 0 : 1;
+  }
+
+  @Override
+  public int getWinningLine() {
+    return OffHeapGameStore.winningLineOf(state);
+  }
+
+  @Override
+  public boolean isDraw() {
+    return OffHeapGameStore.isFinished(state) && OffHeapGameStore.winningLineOf(state) == -1;
+  }
+
+  @Override
+  public BoardSnapshot getBoardSnapshot() {
+    int firstCells = OffHeapGameStore.firstCellsOf(state);
+    int secondCells = OffHeapGameStore.secondCellsOf(state);
+    // The version of a game state equals its move count, same as for heap games.
+    return new BoardSnapshot(firstCells, secondCells, Integer.bitCount(firstCells | secondCells));
+  }
+}
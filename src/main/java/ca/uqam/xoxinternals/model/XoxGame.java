@@ -11,13 +11,32 @@ public interface XoxGame extends XoxGameReadOnly {
    *
    * @return the modifiable board of a game.
    */
-  BoardImpl getModifiableBoard();
+  Board getModifiableBoard();
 
   /**
-   * Marks an existing running game instance as finished so no more modifications are possible.
+   * Marks an existing running game instance as finished so no more modifications are possible. The
+   * outcome (winner and winning line, or draw) is derived from the current board.
    */
   void markAsFinished();
 
+  /**
+   * Marks an existing running game instance as won by a player.
+   *
+   * @param winnerIndex as the seat of the winner, 0 or 1.
+   * @param winningLine as the number of the completed line, see PositionTable.
+   */
+  void markAsWon(int winnerIndex, int winningLine);
+
+  /**
+   * Marks an existing running game instance as ended in a draw.
+   */
+  void markAsDraw();
+
+  /**
+   * Increments the counter of cells claimed so far. Must be called once per applied move.
+   */
+  void incrementMoveCount();
+
   /**
    * Modifies the index specifying the current player to the number provided as parameter.
    *
@@ -25,4 +44,10 @@ public interface XoxGame extends XoxGameReadOnly {
    * @throws ModelAccessException in case the provided value is out of range.
    */
   void setCurrentPlayer(int nextCurrentPlayer) throws ModelAccessException;
+
+  /**
+   * Publishes an immutable snapshot of the current board, tagged with the current move count as
+   * version. Must be called after every applied move, once the move is entirely processed.
+   */
+  void publishSnapshot();
 }
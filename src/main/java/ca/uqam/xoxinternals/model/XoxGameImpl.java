@@ -1,7 +1,10 @@
 package ca.uqam.xoxinternals.model;
 
+import java.util.Objects;
+
 /**
- * Represents the state of a Xox running game.
+ * Represents the state of a Xox running game. Modifications must be serialized by the caller,
+ * typically by synchronizing on the game instance. Reads are safe from any thread.
  *
  * @author Maximilian Schiedermeier
  */
@@ -9,11 +12,25 @@ public class XoxGameImpl implements XoxGame {
   // Read only access to the parameters of the two involved players.
   private final Player[] players = new Player[2];
   // Reference to current state of the board
-  BoardImpl board;
-  // Internal flag to indicate whether the game has already ended or still running.
-  private boolean finished;
+  Board board;
+  // Internal flag to indicate whether the game has already ended or still running. Volatile, so
+  // lock-free readers always see the latest state.
+  private volatile boolean finished;
   // Internal index counter for the current player. Range: [0-1]
-  private int currentPlayer;
+  private volatile int currentPlayer;
+  // Amount of moves applied so far. Range: [0-9]
+  private volatile int moveCount;
+  // Outcome details, only meaningful once finished. Written before the finished flag is set.
+  private int winnerIndex = -1;
+  private int winningLine = -1;
+  // Latest published immutable board state, for lock-free readers.
+  private volatile BoardSnapshot snapshot;
+  // Time of creation or of the latest move, as provided by System.nanoTime.
+  private volatile long lastMoveTime = System.nanoTime();
+  // Time the game ended, as provided by System.nanoTime. Only meaningful once finished.
+  private volatile long finishTime;
+  // Value of the access clock of the controller at the latest access, for approximate LRU.
+  private volatile int accessTick;
 
   /**
    * Constructor for new xox game instances.
@@ -22,10 +39,22 @@ public class XoxGameImpl implements XoxGame {
    * @param secondPlayer as player object representing information on the second player.
    */
   public XoxGameImpl(Player startPlayer, Player secondPlayer) {
+    this(startPlayer, secondPlayer, new BitBoardImpl());
+  }
+
+  /**
+   * Constructor for new xox game instances that operate on a custom board implementation.
+   *
+   * @param startPlayer  as player object representing information on the first player.
+   * @param secondPlayer as player object representing information on the second player.
+   * @param board        as the empty board the game shall be played on.
+   */
+  public XoxGameImpl(Player startPlayer, Player secondPlayer, Board board) {
     players[0] = startPlayer;
     players[1] = secondPlayer;
     currentPlayer = 0;
-    board = new BoardImpl();
+    this.board = board;
+    snapshot = BoardSnapshot.of(board, 0);
   }
 
   @Override
@@ -35,9 +64,103 @@ public class XoxGameImpl implements XoxGame {
 
   @Override
   public void markAsFinished() {
+    int entry = PositionTable.lookup(board);
+    if (PositionTable.getWinner(entry) != 0) {
+      markAsWon(PositionTable.getWinner(entry) - 1, PositionTable.getWinningLine(entry));
+    } else {
+      markAsDraw();
+    }
+  }
+
+  @Override
+  public void markAsWon(int winnerIndex, int winningLine) {
+    this.winnerIndex = winnerIndex;
+    this.winningLine = winningLine;
+    finishTime = System.nanoTime();
     finished = true;
   }
 
+  @Override
+  public void markAsDraw() {
+    finishTime = System.nanoTime();
+    finished = true;
+  }
+
+  @Override
+  public void incrementMoveCount() {
+    moveCount++;
+    lastMoveTime = System.nanoTime();
+  }
+
+  /**
+   * Getter for the time of the latest move. Intended to detect idle games.
+   *
+   * @return System.nanoTime at the latest move, or at creation if no move was applied yet.
+   */
+  public long getLastMoveTime() {
+    return lastMoveTime;
+  }
+
+  /**
+   * Getter for the time the game ended.
+   *
+   * @return System.nanoTime at the end of the game. Only meaningful once the game is finished.
+   */
+  public long getFinishTime() {
+    return finishTime;
+  }
+
+  /**
+   * Getter for the access clock value recorded at the latest access.
+   *
+   * @return the latest recorded access tick, 0 if never recorded.
+   */
+  public int getAccessTick() {
+    return accessTick;
+  }
+
+  /**
+   * Records an access. Only writes if the tick changed, so frequent readers of the same game do not
+   * keep invalidating each others caches.
+   *
+   * @param tick as the current value of the access clock.
+   */
+  public void recordAccess(int tick) {
+    if (accessTick != tick) {
+      accessTick = tick;
+    }
+  }
+
+  @Override
+  public void publishSnapshot() {
+    snapshot = BoardSnapshot.of(board, moveCount);
+  }
+
+  @Override
+  public BoardSnapshot getBoardSnapshot() {
+    return snapshot;
+  }
+
+  @Override
+  public int getMoveCount() {
+    return moveCount;
+  }
+
+  @Override
+  public int getWinnerIndex() {
+    return winnerIndex;
+  }
+
+  @Override
+  public int getWinningLine() {
+    return winningLine;
+  }
+
+  @Override
+  public boolean isDraw() {
+    return finished && winnerIndex == -1;
+  }
+
   @Override
   public Player getPlayerByName(String name) {
     for (Player player : players) {
@@ -49,7 +172,7 @@ public class XoxGameImpl implements XoxGame {
   }
 
   @Override
-  public BoardImpl getModifiableBoard() {
+  public Board getModifiableBoard() {
     return board;
   }
 
@@ -86,6 +209,8 @@ public class XoxGameImpl implements XoxGame {
 
   @Override
   public boolean isFirstPlayer(Player player) {
-    return getPlayers()[0].equals(player);
+    // Compare values, since player objects of shared actions are copies of the seated players.
+    return player != null && Objects.equals(players[0].getName(), player.getName())
+        && Objects.equals(players[0].getPreferredColour(), player.getPreferredColour());
   }
 }
@@ -60,4 +60,40 @@ public interface XoxGameReadOnly {
    * @return String representation of current player name.
    */
   String getCurrentPlayerName();
+
+  /**
+   * Tells how many moves have been applied on the game so far.
+   *
+   * @return amount of claimed cells, range [0-9].
+   */
+  int getMoveCount();
+
+  /**
+   * Tells which player won the game.
+   *
+   * @return seat of the winner (0 or 1), or -1 if the game is running or ended in a draw.
+   */
+  int getWinnerIndex();
+
+  /**
+   * Tells which line decided the game.
+   *
+   * @return the number of the completed line (see PositionTable), or -1 if there is no winner.
+   */
+  int getWinningLine();
+
+  /**
+   * Tells whether the game ended without a winner.
+   *
+   * @return true if the game is finished and no player has three in a line.
+   */
+  boolean isDraw();
+
+  /**
+   * Retrieves the most recently published immutable snapshot of the board. Never blocks, and never
+   * returns a partially applied move.
+   *
+   * @return the latest board snapshot.
+   */
+  BoardSnapshot getBoardSnapshot();
 }
@@ -0,0 +1,20 @@
+package ca.uqam.xoxinternals.persistence;
+
+/**
+ * Durability guarantees of a move journal. All modes write records in the background, in batches.
+ * They differ in when the journal forces written records to the storage device, and whether the
+ * modifying thread waits for it.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public enum DurabilityMode {
+  // Records are written, but only forced to the device on close. A crash of the machine may lose
+  // recent modifications, a crash of the process does not.
+  ASYNC,
+  // Every written batch is forced to the device. Modifying threads do not wait, so a crash may lose
+  // the modifications of the batch in progress.
+  GROUP_COMMIT,
+  // Every written batch is forced to the device, and modifying threads wait until their record is
+  // durable. Concurrent modifications still share one force per batch.
+  SYNC
+}
@@ -0,0 +1,541 @@
+package ca.uqam.xoxinternals.persistence;
+
+import ca.uqam.xoxinternals.controller.GameRegistryListener;
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.model.Player;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of all modifications of a game registry. Game creations, moves
+ * and removals are encoded as compact binary records on the modifying thread, then handed to a
+ * single background writer. The writer drains all pending records at once, writes them with a
+ * single call and, depending on the durability mode, forces them to the storage device with a
+ * single force per batch (group commit).
+ *
+ * <p>Every record is framed as [int length][payload][int CRC32 of payload]. A payload starts with
+ * a type byte and the game id. Game creations add both players as length-prefixed UTF-8 strings
+ * (name and colour), moves add the claimed cell as one byte. A torn record at the end of the
+ * journal, left by a crash, fails its checksum and is cut off when the journal is opened. Strings
+ * are limited to 65535 bytes, games with longer player details are rejected.
+ *
+ * <p>The journal is a directory of segment files. Records are addressed by a logical offset that
+ * keeps growing across segments, and every segment is named after the offset of its first record.
+ * The writer rolls over to a new segment once the current one exceeds the segment size, so
+ * segments covered by a registry snapshot can be deleted as a whole, see RegistrySnapshot.
+ *
+ * <p>Records are appended before the registry applies the modification. Once the writer failed,
+ * the journal rejects all further records, so the registry refuses the modifications instead of
+ * applying them unrecorded. In SYNC mode, a record that could not be written is rejected as well.
+ *
+ * <p>Use open to restore a registry from the latest snapshot and the journal tail, and attach the
+ * journal to it.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class MoveJournal implements GameRegistryListener, Closeable {
+  static final byte GAME_ADDED = 1;
+  static final byte MOVE_APPLIED = 2;
+  static final byte GAME_REMOVED = 3;
+  // Frame overhead: length prefix and checksum.
+  private static final int FRAME_BYTES = 8;
+  // Strings are prefixed with their length as unsigned short.
+  private static final int MAX_STRING_BYTES = 0xFFFF;
+  private static final int INITIAL_BATCH_BYTES = 1 << 16;
+  private static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+  private static final String SEGMENT_PREFIX = "journal-";
+  private static final String SEGMENT_SUFFIX = ".log";
+  // Marker that tells the writer to stop once everything before it is written.
+  private static final PendingRecord STOP = new PendingRecord(new byte[0]);
+
+  private final Path directory;
+  private final DurabilityMode durabilityMode;
+  private final long segmentBytes;
+  // Active segment, only replaced by the writer.
+  private FileChannel channel;
+  private volatile long segmentStart;
+  // Logical offset right after the last written record.
+  private volatile long writtenOffset;
+  private final BlockingQueue<PendingRecord> pending = new LinkedBlockingQueue<>();
+  private final Thread writer;
+  // Appends share the read lock, closing takes the write lock. No record can slip in after close.
+  private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+  private boolean closed;
+  private volatile IOException failure;
+  // Reused by the writer only.
+  private ByteBuffer batchBuffer = ByteBuffer.allocateDirect(INITIAL_BATCH_BYTES);
+  private final CRC32 checksum = new CRC32();
+
+  /**
+   * Opens a journal for appending, with the default segment size of 64 MiB. Records already in the
+   * journal are kept, a torn last record is cut off. Existing records are not replayed, see open.
+   *
+   * @param directory      as the journal directory. Created if it does not exist.
+   * @param durabilityMode as the durability guarantee for new records.
+   * @throws IOException in case the journal can not be opened.
+   */
+  public MoveJournal(Path directory, DurabilityMode durabilityMode) throws IOException {
+    this(directory, durabilityMode, DEFAULT_SEGMENT_BYTES);
+  }
+
+  /**
+   * Opens a journal for appending, with a custom segment size.
+   *
+   * @param directory      as the journal directory. Created if it does not exist.
+   * @param durabilityMode as the durability guarantee for new records.
+   * @param segmentBytes   as the size after which the writer rolls over to a new segment.
+   * @throws IOException in case the journal can not be opened.
+   */
+  public MoveJournal(Path directory, DurabilityMode durabilityMode, long segmentBytes)
+      throws IOException {
+    this.directory = directory;
+    this.durabilityMode = durabilityMode;
+    this.segmentBytes = segmentBytes;
+    Files.createDirectories(directory);
+    long[] segments = listSegments(directory);
+    segmentStart = segments.length == 0 ? 0 : segments[segments.length - 1];
+    channel = FileChannel.open(segmentPath(directory, segmentStart), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long validLength = readRecords(channel, 0, null);
+    channel.truncate(validLength);
+    channel.position(validLength);
+    writtenOffset = segmentStart + validLength;
+    writer = new Thread(this::writeLoop, "xox-journal-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Restores a manager from the latest registry snapshot and the journal records written after it,
+   * then attaches a journal to the manager, so all subsequent modifications are recorded as well.
+   *
+   * @param directory      as the journal directory. Created if it does not exist.
+   * @param durabilityMode as the durability guarantee for new records.
+   * @param manager        as the manager to restore the games into.
+   * @return the attached journal.
+   * @throws IOException in case the journal or snapshot can not be read.
+   */
+  public static MoveJournal open(Path directory, DurabilityMode durabilityMode,
+                                 XoxManagerImpl manager) throws IOException {
+    long snapshotOffset = 0;
+    if (Files.isDirectory(directory)) {
+      snapshotOffset = RegistrySnapshot.loadLatest(directory, manager);
+      replay(directory, manager, snapshotOffset);
+    }
+    MoveJournal journal = new MoveJournal(directory, durabilityMode);
+    manager.setRegistryListener(journal);
+    return journal;
+  }
+
+  /**
+   * Replays all intact journal records from a logical offset on into a manager. Replay is
+   * idempotent: games that already exist are not recreated, and moves on already claimed cells are
+   * ignored. It is therefore safe to replay records already covered by a snapshot.
+   *
+   * @param directory  as the journal directory.
+   * @param manager    as the manager to restore the games into.
+   * @param fromOffset as the logical offset of the first record to replay.
+   * @return amount of replayed records.
+   * @throws IOException in case the journal can not be read.
+   */
+  public static long replay(Path directory, XoxManagerImpl manager, long fromOffset)
+      throws IOException {
+    long[] segments = listSegments(directory);
+    long[] count = new long[1];
+    for (int i = 0; i < segments.length; i++) {
+      // Skip segments that end before the requested offset.
+      if (i + 1 < segments.length && segments[i + 1] <= fromOffset) {
+        continue;
+      }
+      try (FileChannel segment =
+               FileChannel.open(segmentPath(directory, segments[i]), StandardOpenOption.READ)) {
+        readRecords(segment, Math.max(0, fromOffset - segments[i]), payload -> {
+          count[0]++;
+          apply(payload, manager);
+        });
+      }
+    }
+    return count[0];
+  }
+
+  /**
+   * Getter for the logical offset right after the last record written so far. All records queued
+   * later will be placed at or after this offset.
+   *
+   * @return the current end of the written journal.
+   */
+  public long getWrittenOffset() {
+    return writtenOffset;
+  }
+
+  /**
+   * Deletes all segments that only hold records before a logical offset. The active segment is
+   * never deleted.
+   *
+   * @param offset as the offset up to which records are no longer needed.
+   * @return amount of deleted segments.
+   * @throws IOException in case a segment can not be deleted.
+   */
+  public int deleteSegmentsBefore(long offset) throws IOException {
+    long[] segments = listSegments(directory);
+    long active = segmentStart;
+    int deleted = 0;
+    for (int i = 0; i + 1 < segments.length; i++) {
+      if (segments[i + 1] <= offset && segments[i] < active) {
+        Files.deleteIfExists(segmentPath(directory, segments[i]));
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Lists the start offsets of all segments of a journal directory, in ascending order.
+   */
+  static long[] listSegments(Path directory) throws IOException {
+    List<Long> starts = new ArrayList<>();
+    try (DirectoryStream<Path> files =
+             Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        starts.add(Long.parseLong(
+            name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+      }
+    }
+    long[] sorted = new long[starts.size()];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = starts.get(i);
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  private static Path segmentPath(Path directory, long start) {
+    return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, start, SEGMENT_SUFFIX));
+  }
+
+  /**
+   * Reads intact records from a channel position on, until the end or the first torn record.
+   *
+   * @param visitor as the receiver of all record payloads. May be null.
+   * @return the position right after the last intact record.
+   */
+  static long readRecords(FileChannel channel, long start, RecordVisitor visitor)
+      throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(4);
+    CRC32 crc = new CRC32();
+    long position = start;
+    long size = channel.size();
+    while (position + FRAME_BYTES <= size) {
+      header.clear();
+      readFully(channel, header, position);
+      int length = header.getInt(0);
+      if (length <= 0 || position + FRAME_BYTES + length > size) {
+        break;
+      }
+      ByteBuffer frame = ByteBuffer.allocate(length + 4);
+      readFully(channel, frame, position + 4);
+      crc.reset();
+      crc.update(frame.array(), 0, length);
+      if ((int) crc.getValue() != frame.getInt(length)) {
+        break;
+      }
+      if (visitor != null) {
+        frame.position(0).limit(length);
+        visitor.visit(frame);
+      }
+      position += FRAME_BYTES + length;
+    }
+    return position;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer target, long position)
+      throws IOException {
+    long next = position;
+    while (target.hasRemaining()) {
+      int read = channel.read(target, next);
+      if (read < 0) {
+        throw new IOException("Unexpected end of journal.");
+      }
+      next += read;
+    }
+  }
+
+  /**
+   * Applies a single record payload on a manager.
+   */
+  static void apply(ByteBuffer payload, XoxManagerImpl manager) {
+    byte type = payload.get();
+    long gameId = payload.getLong();
+    switch (type) {
+      case GAME_ADDED:
+        Player firstPlayer = new Player(readString(payload), readString(payload));
+        Player secondPlayer = new Player(readString(payload), readString(payload));
+        manager.restoreGame(gameId, firstPlayer, secondPlayer);
+        break;
+      case MOVE_APPLIED:
+        manager.restoreMove(gameId, payload.get());
+        break;
+      case GAME_REMOVED:
+        manager.removeGame(gameId);
+        break;
+      default:
+        // Unknown record types are skipped, the frame tells their length.
+        break;
+    }
+  }
+
+  @Override
+  public void gameAdded(long gameId, Player firstPlayer, Player secondPlayer) {
+    byte[][] strings = {utf8(firstPlayer.getName()), utf8(firstPlayer.getPreferredColour()),
+        utf8(secondPlayer.getName()), utf8(secondPlayer.getPreferredColour())};
+    int length = 9;
+    for (byte[] string : strings) {
+      if (string.length > MAX_STRING_BYTES) {
+        throw new IllegalArgumentException(
+            "Player details of game " + gameId + " exceed " + MAX_STRING_BYTES + " bytes.");
+      }
+      length += 2 + string.length;
+    }
+    ByteBuffer payload = ByteBuffer.allocate(length);
+    payload.put(GAME_ADDED).putLong(gameId);
+    for (byte[] string : strings) {
+      payload.putShort((short) string.length).put(string);
+    }
+    append(payload.array());
+  }
+
+  @Override
+  public void moveApplied(long gameId, int cell) {
+    append(ByteBuffer.allocate(10).put(MOVE_APPLIED).putLong(gameId).put((byte) cell).array());
+  }
+
+  @Override
+  public void gameRemoved(long gameId) {
+    append(ByteBuffer.allocate(9).put(GAME_REMOVED).putLong(gameId).array());
+  }
+
+  /**
+   * Hands a record to the writer. In SYNC mode, waits until the record is durable.
+   *
+   * @throws IllegalStateException in case the journal is closed.
+   * @throws UncheckedIOException  in case the writer failed, or in SYNC mode, the record could not
+   *                               be written.
+   */
+  private void append(byte[] payload) {
+    PendingRecord record = new PendingRecord(payload);
+    closeLock.readLock().lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Journal is closed.");
+      }
+      if (failure != null) {
+        throw new UncheckedIOException(failure);
+      }
+      pending.add(record);
+    } finally {
+      closeLock.readLock().unlock();
+    }
+    if (durabilityMode == DurabilityMode.SYNC && !record.awaitWritten()) {
+      throw new UncheckedIOException(failure);
+    }
+  }
+
+  /**
+   * Tells whether the writer stopped because of an IO error.
+   *
+   * @return the error, or null if the journal is healthy.
+   */
+  public IOException getFailure() {
+    return failure;
+  }
+
+  /**
+   * Writes all pending records, forces them to the device and closes the file. Records appended
+   * afterwards are rejected.
+   *
+   * @throws IOException in case the remaining records could not be written.
+   */
+  @Override
+  public void close() throws IOException {
+    closeLock.writeLock().lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      pending.add(STOP);
+    } finally {
+      closeLock.writeLock().unlock();
+    }
+    boolean interrupted = false;
+    while (writer.isAlive()) {
+      try {
+        writer.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      if (failure == null) {
+        channel.force(false);
+      }
+    } finally {
+      channel.close();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Writer loop. Waits for records, then writes everything pending as one batch. Never interrupted,
+   * since an interrupt would close the file channel.
+   */
+  private void writeLoop() {
+    List<PendingRecord> batch = new ArrayList<>();
+    boolean stopping = false;
+    while (!stopping) {
+      try {
+        batch.add(pending.take());
+      } catch (InterruptedException e) {
+        continue;
+      }
+      pending.drainTo(batch);
+      // The stop marker is always the last record ever queued.
+      stopping = batch.get(batch.size() - 1) == STOP;
+      if (stopping) {
+        batch.remove(batch.size() - 1);
+      }
+      // Once failed, the journal is not written anymore. Records queued meanwhile are dropped.
+      boolean written = false;
+      if (failure == null) {
+        try {
+          writeBatch(batch);
+          written = true;
+        } catch (IOException e) {
+          failure = e;
+        }
+      }
+      for (PendingRecord record : batch) {
+        record.complete(written);
+      }
+      batch.clear();
+    }
+  }
+
+  private void writeBatch(List<PendingRecord> batch) throws IOException {
+    int required = 0;
+    for (PendingRecord record : batch) {
+      required += FRAME_BYTES + record.payload.length;
+    }
+    if (required > batchBuffer.capacity()) {
+      batchBuffer = ByteBuffer.allocateDirect(Integer.highestOneBit(required) << 1);
+    }
+    batchBuffer.clear();
+    for (PendingRecord record : batch) {
+      checksum.reset();
+      checksum.update(record.payload, 0, record.payload.length);
+      batchBuffer.putInt(record.payload.length).put(record.payload)
+          .putInt((int) checksum.getValue());
+    }
+    batchBuffer.flip();
+    if (writtenOffset - segmentStart >= segmentBytes) {
+      rollOver();
+    }
+    int written = batchBuffer.remaining();
+    while (batchBuffer.hasRemaining()) {
+      channel.write(batchBuffer);
+    }
+    if (durabilityMode != DurabilityMode.ASYNC) {
+      channel.force(false);
+    }
+    writtenOffset += written;
+  }
+
+  /**
+   * Closes the active segment and starts a new one at the current offset.
+   */
+  private void rollOver() throws IOException {
+    channel.force(false);
+    channel.close();
+    channel = FileChannel.open(segmentPath(directory, writtenOffset), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    segmentStart = writtenOffset;
+  }
+
+  private static byte[] utf8(String value) {
+    return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String readString(ByteBuffer payload) {
+    byte[] bytes = new byte[payload.getShort() & 0xFFFF];
+    payload.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Receiver of record payloads read from a journal.
+   */
+  interface RecordVisitor {
+    void visit(ByteBuffer payload);
+  }
+
+  /**
+   * A record waiting for the writer.
+   */
+  private static final class PendingRecord {
+    private final byte[] payload;
+    private boolean done;
+    private boolean written;
+
+    private PendingRecord(byte[] payload) {
+      this.payload = payload;
+    }
+
+    private synchronized void complete(boolean written) {
+      this.written = written;
+      done = true;
+      notifyAll();
+    }
+
+    /**
+     * Waits until the writer is done with the record.
+     *
+     * @return true if the record was written with the durability of the journal.
+     */
+    private synchronized boolean awaitWritten() {
+      boolean interrupted = false;
+      while (!done) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return written;
+    }
+  }
+}
@@ -0,0 +1,316 @@
+package ca.uqam.xoxinternals.persistence;
+
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.model.BoardSnapshot;
+import ca.uqam.xoxinternals.model.Player;
+import ca.uqam.xoxinternals.model.PositionTable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Point-in-time image of all games of a registry, in a compact binary format. Together with the
+ * journal records written after it, a snapshot restores the complete registry. Compaction only
+ * drops the move history: running and finished games alike are stored by their occupancy masks.
+ *
+ * <p>The leaderboard is not part of the snapshot. Restoring replays the claims of every finished
+ * game, which records its outcome on the leaderboard again, so the leaderboard is rebuilt from the
+ * games still registered. Outcomes of games removed before the snapshot are lost once the journal
+ * segments covering them are deleted.
+ *
+ * <p>A snapshot file starts with a header [int magic][byte version][long journal offset][int game
+ * count][long dictionary position]. Then follows one fixed-width entry per game: [long game id]
+ * [int cells][int first player][int second player]. Cells hold the occupancy masks of both players
+ * (bits 0-8 and 9-17), players refer to entries of the player dictionary at the end of the file.
+ * Each dictionary entry holds name and colour as length-prefixed UTF-8 strings.
+ *
+ * <p>Snapshots are fuzzy: games keep being modified while a snapshot is written. This is safe,
+ * since the snapshot records the journal offset from before it started, and replaying the journal
+ * from there is idempotent.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public final class RegistrySnapshot {
+  private static final int MAGIC = 0x584F5853;
+  private static final byte VERSION = 1;
+  private static final int HEADER_BYTES = 25;
+  private static final int ENTRY_BYTES = 20;
+  // Mapped regions are limited to 2 GiB, so large snapshots are mapped in windows of entries.
+  private static final int MAX_MAPPED_ENTRIES = 1 << 26;
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".snap";
+
+  /**
+   * Private constructor, no instances of this utility class.
+   */
+  private RegistrySnapshot() {
+  }
+
+  /**
+   * Writes a snapshot of all games of a manager. The snapshot only becomes visible once it
+   * is complete and forced to the device.
+   *
+   * @param directory     as the journal directory to place the snapshot in.
+   * @param manager       as the manager to take the snapshot of.
+   * @param journalOffset as the journal offset read before the snapshot started.
+   * @return the snapshot file.
+   * @throws IOException in case the snapshot can not be written.
+   */
+  public static Path write(Path directory, XoxManagerImpl manager, long journalOffset)
+      throws IOException {
+    Path target = snapshotPath(directory, journalOffset);
+    Path temporary = directory.resolve(target.getFileName() + ".tmp");
+    Map<String, Integer> playerIndexes = new HashMap<>();
+    List<Player> dictionary = new ArrayList<>();
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+      channel.position(HEADER_BYTES);
+      int[] gameCount = new int[1];
+      IOException[] failure = new IOException[1];
+      manager.visitGames((gameId, game) -> {
+        BoardSnapshot board = game.getBoardSnapshot();
+        if (failure[0] != null) {
+          return;
+        }
+        try {
+          if (buffer.remaining() < ENTRY_BYTES) {
+            flush(channel, buffer);
+          }
+          buffer.putLong(gameId)
+              .putInt(board.getPlayerCells(0) | board.getPlayerCells(1) << 9)
+              .putInt(indexOf(game.getPlayerInfo(0), playerIndexes, dictionary))
+              .putInt(indexOf(game.getPlayerInfo(1), playerIndexes, dictionary));
+          gameCount[0]++;
+        } catch (IOException e) {
+          failure[0] = e;
+        }
+      });
+      if (failure[0] != null) {
+        throw failure[0];
+      }
+      flush(channel, buffer);
+      final long dictionaryPosition = channel.position();
+      ByteBuffer count = ByteBuffer.allocate(4).putInt(dictionary.size());
+      count.flip();
+      channel.write(count);
+      for (Player player : dictionary) {
+        byte[] name = utf8(player.getName());
+        byte[] colour = utf8(player.getPreferredColour());
+        ByteBuffer entry = ByteBuffer.allocate(4 + name.length + colour.length);
+        entry.putShort((short) name.length).put(name).putShort((short) colour.length).put(colour);
+        entry.flip();
+        channel.write(entry);
+      }
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).put(VERSION).putLong(journalOffset).putInt(gameCount[0])
+          .putLong(dictionaryPosition);
+      header.flip();
+      channel.write(header, 0);
+      channel.force(true);
+    }
+    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    return target;
+  }
+
+  /**
+   * Restores all games of the newest snapshot of a directory into a manager. The file is memory
+   * mapped, so restoring does not copy it onto the heap. Game entries are mapped window by window,
+   * so snapshots beyond the 2 GiB limit of a single mapping can be loaded as well.
+   *
+   * @param directory as the journal directory.
+   * @param manager   as the manager to restore the games into.
+   * @return the journal offset covered by the snapshot, or 0 if there is no snapshot.
+   * @throws IOException in case the snapshot can not be read or is corrupt.
+   */
+  public static long loadLatest(Path directory, XoxManagerImpl manager) throws IOException {
+    long[] offsets = listSnapshots(directory);
+    if (offsets.length == 0) {
+      return 0;
+    }
+    Path file = snapshotPath(directory, offsets[offsets.length - 1]);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_BYTES) {
+        throw new IOException("Unable to load snapshot. Truncated file: " + file);
+      }
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+      if (header.getInt(0) != MAGIC || header.get(4) != VERSION) {
+        throw new IOException("Unable to load snapshot. Unknown format: " + file);
+      }
+      final long journalOffset = header.getLong(5);
+      final int gameCount = header.getInt(13);
+      long dictionaryPosition = header.getLong(17);
+      // The dictionary directly follows the entries and must fit a single mapping.
+      if (gameCount < 0 || dictionaryPosition != HEADER_BYTES + (long) gameCount * ENTRY_BYTES
+          || dictionaryPosition > size || size - dictionaryPosition > Integer.MAX_VALUE) {
+        throw new IOException("Unable to load snapshot. Corrupt layout: " + file);
+      }
+      MappedByteBuffer mappedDictionary = channel.map(FileChannel.MapMode.READ_ONLY,
+          dictionaryPosition, size - dictionaryPosition);
+      Player[] dictionary = new Player[mappedDictionary.getInt()];
+      for (int i = 0; i < dictionary.length; i++) {
+        dictionary[i] = new Player(readString(mappedDictionary), readString(mappedDictionary));
+      }
+      long position = HEADER_BYTES;
+      for (int restored = 0; restored < gameCount; ) {
+        int windowEntries = Math.min(gameCount - restored, MAX_MAPPED_ENTRIES);
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+            (long) windowEntries * ENTRY_BYTES);
+        for (int i = 0; i < windowEntries; i++) {
+          long gameId = window.getLong();
+          int cells = window.getInt();
+          Player firstPlayer = dictionary[window.getInt()];
+          Player secondPlayer = dictionary[window.getInt()];
+          restore(manager, gameId, firstPlayer, secondPlayer, cells & 0x1FF, cells >>> 9 & 0x1FF);
+        }
+        position += (long) windowEntries * ENTRY_BYTES;
+        restored += windowEntries;
+      }
+      return journalOffset;
+    }
+  }
+
+  /**
+   * Deletes all snapshots older than the provided one.
+   *
+   * @param directory     as the journal directory.
+   * @param journalOffset as the journal offset of the newest snapshot, which is kept.
+   * @return amount of deleted snapshots.
+   * @throws IOException in case a snapshot can not be deleted.
+   */
+  public static int deleteOlderThan(Path directory, long journalOffset) throws IOException {
+    int deleted = 0;
+    for (long offset : listSnapshots(directory)) {
+      if (offset < journalOffset) {
+        Files.deleteIfExists(snapshotPath(directory, offset));
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Rebuilds a game from its occupancy masks, by replaying the cells alternately. For a won game,
+   * the winning claim is held back and replayed last, so that no line forms before the game is
+   * complete. If the id is already taken by a game without moves, like the sample game every
+   * manager starts with, the cells are replayed on that game instead.
+   */
+  private static void restore(XoxManagerImpl manager, long gameId, Player firstPlayer,
+                              Player secondPlayer, int firstCells, int secondCells) {
+    if (!manager.restoreGame(gameId, firstPlayer, secondPlayer)
+        && manager.getStateVersion(gameId) != 0) {
+      return;
+    }
+    int first = firstCells;
+    int second = secondCells;
+    int winningCell = -1;
+    if (hasLine(first)) {
+      winningCell = winningCell(first);
+      first &= ~(1 << winningCell);
+    } else if (hasLine(second)) {
+      winningCell = winningCell(second);
+      second &= ~(1 << winningCell);
+    }
+    while (first != 0) {
+      manager.restoreMove(gameId, Integer.numberOfTrailingZeros(first));
+      first &= first - 1;
+      if (second != 0) {
+        manager.restoreMove(gameId, Integer.numberOfTrailingZeros(second));
+        second &= second - 1;
+      }
+    }
+    if (winningCell >= 0) {
+      manager.restoreMove(gameId, winningCell);
+    }
+  }
+
+  /**
+   * Finds a claim that completes all lines of a player, i.e. a cell that, left out, leaves no line.
+   * A game ends with its first line, so all lines of the winner share the final claim.
+   */
+  private static int winningCell(int playerCells) {
+    for (int cell = 0; cell < 9; cell++) {
+      if ((playerCells >>> cell & 1) != 0 && !hasLine(playerCells & ~(1 << cell))) {
+        return cell;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean hasLine(int playerCells) {
+    for (int cell = 0; cell < 9; cell++) {
+      if ((playerCells >>> cell & 1) != 0
+          && PositionTable.findLineThrough(playerCells, cell) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int indexOf(Player player, Map<String, Integer> playerIndexes,
+                             List<Player> dictionary) {
+    String key = player.getName() + '\u0000' + player.getPreferredColour();
+    Integer index = playerIndexes.get(key);
+    if (index == null) {
+      index = dictionary.size();
+      playerIndexes.put(key, index);
+      dictionary.add(player);
+    }
+    return index;
+  }
+
+  private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private static long[] listSnapshots(Path directory) throws IOException {
+    List<Long> offsets = new ArrayList<>();
+    try (DirectoryStream<Path> files =
+             Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        offsets.add(Long.parseLong(
+            name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length())));
+      }
+    }
+    long[] sorted = new long[offsets.size()];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = offsets.get(i);
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  private static Path snapshotPath(Path directory, long journalOffset) {
+    return directory.resolve(
+        String.format("%s%020d%s", SNAPSHOT_PREFIX, journalOffset, SNAPSHOT_SUFFIX));
+  }
+
+  private static byte[] utf8(String value) {
+    return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,92 @@
+package ca.uqam.xoxinternals.persistence;
+
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes registry snapshots, periodically or on demand, and compacts the journal afterwards: older
+ * snapshots and all journal segments covered by the new snapshot are deleted.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class SnapshotScheduler implements Closeable {
+  private final Path directory;
+  private final XoxManagerImpl manager;
+  private final MoveJournal journal;
+  private final ScheduledExecutorService executor;
+  private volatile Exception failure;
+
+  /**
+   * Creates a scheduler for a journal attached to a manager. No snapshots are taken until start is
+   * called.
+   *
+   * @param directory as the journal directory.
+   * @param manager   as the manager to take snapshots of.
+   * @param journal   as the journal attached to the manager.
+   */
+  public SnapshotScheduler(Path directory, XoxManagerImpl manager, MoveJournal journal) {
+    this.directory = directory;
+    this.manager = manager;
+    this.journal = journal;
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "xox-snapshots");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts taking snapshots at a fixed period.
+   *
+   * @param period as the time between two snapshots.
+   * @param unit   as the unit of the period.
+   */
+  public void start(long period, TimeUnit unit) {
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        snapshot();
+      } catch (IOException | RuntimeException e) {
+        // An escaping exception would cancel all subsequent snapshots.
+        failure = e;
+      }
+    }, period, period, unit);
+  }
+
+  /**
+   * Takes a snapshot right away and compacts the journal.
+   *
+   * @return the journal offset covered by the new snapshot.
+   * @throws IOException in case the snapshot can not be written or the journal not compacted.
+   */
+  public synchronized long snapshot() throws IOException {
+    // Records before this offset are applied in memory by the time the snapshot visits their
+    // game, since games are visited locked. So the snapshot covers them.
+    long journalOffset = journal.getWrittenOffset();
+    RegistrySnapshot.write(directory, manager, journalOffset);
+    RegistrySnapshot.deleteOlderThan(directory, journalOffset);
+    journal.deleteSegmentsBefore(journalOffset);
+    return journalOffset;
+  }
+
+  /**
+   * Tells whether a periodic snapshot failed.
+   *
+   * @return the most recent error, or null if all snapshots succeeded.
+   */
+  public Exception getFailure() {
+    return failure;
+  }
+
+  /**
+   * Stops taking periodic snapshots. A snapshot in progress is completed.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,56 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.XoxActionGenerator;
+import ca.uqam.xoxinternals.controller.XoxClaimFieldAction;
+import ca.uqam.xoxinternals.model.Player;
+import ca.uqam.xoxinternals.model.XoxGameImpl;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Verifies the cached action identifiers are identical to the MD5 hashes of the actions' JSON
+ * string representation, so existing clients keep working.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class ActionKeyTest {
+  @Test
+  public void testKeysMatchMd5() throws Exception {
+    Player x = new Player("X", "#000000");
+    Player o = new Player("O", "#FFFFFF");
+    XoxActionGenerator generator = new XoxActionGenerator();
+    // Generate twice, to cover both a cold and a warm cache.
+    for (int round = 0; round < 2; round++) {
+      Map<String, XoxClaimFieldAction> actions =
+          generator.generateActions(new XoxGameImpl(x, o), x);
+      Assert.assertEquals(9, actions.size());
+      for (Map.Entry<String, XoxClaimFieldAction> entry : actions.entrySet()) {
+        Assert.assertEquals(md5(entry.getValue().toString()), entry.getKey());
+      }
+    }
+  }
+
+  /**
+   * Verifies identifiers follow changes of the player colour.
+   */
+  @Test
+  public void testKeysFollowPlayerChanges() throws Exception {
+    Player x = new Player("X", "#000000");
+    Player o = new Player("O", "#FFFFFF");
+    XoxActionGenerator generator = new XoxActionGenerator();
+    String before = generator.generateActions(new XoxGameImpl(x, o), x).keySet().iterator().next();
+    x.setPreferredColour("#123456");
+    Map<String, XoxClaimFieldAction> actions = generator.generateActions(new XoxGameImpl(x, o), x);
+    String after = actions.keySet().iterator().next();
+    Assert.assertNotEquals(before, after);
+    Assert.assertEquals(md5(actions.get(after).toString()), after);
+  }
+
+  private static String md5(String content) throws Exception {
+    byte[] digest = MessageDigest.getInstance("MD5").digest(content.getBytes());
+    return String.format("%032X", new BigInteger(1, digest));
+  }
+}
@@ -0,0 +1,105 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.XoxActionGenerator;
+import ca.uqam.xoxinternals.controller.XoxActionInterpreter;
+import ca.uqam.xoxinternals.controller.XoxClaimFieldAction;
+import ca.uqam.xoxinternals.controller.XoxEndingAnalyzer;
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.model.Player;
+import ca.uqam.xoxinternals.model.XoxGameImpl;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Verifies action bundles are shared flyweights, rather than freshly allocated per request.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class ActionSetTest extends XoxTestUtils {
+  /**
+   * Verifies repeated requests for the same position return the identical instances.
+   */
+  @Test
+  public void testSharedInstances() throws Exception {
+    Player x = new Player("X", "#000000");
+    Player o = new Player("O", "#FFFFFF");
+    XoxActionGenerator generator = new XoxActionGenerator();
+    XoxGameImpl game = new XoxGameImpl(x, o);
+    XoxClaimFieldAction[] first = generator.generateActionArray(game, x);
+    Assert.assertSame(first, generator.generateActionArray(game, x));
+    Map<String, XoxClaimFieldAction> firstMap = generator.generateActions(game, x);
+    Assert.assertSame(firstMap, generator.generateActions(new XoxGameImpl(x, o), x));
+    // Array and map expose the same action objects, in the same order.
+    Assert.assertArrayEquals(first, firstMap.values().toArray());
+    // Actions are bound to a copy of the requesting player.
+    Assert.assertEquals(x.getName(), first[0].getPlayer().getName());
+    Assert.assertEquals(x.getPreferredColour(), first[0].getPlayer().getPreferredColour());
+  }
+
+  /**
+   * Verifies players of different games with equal name and colour share their actions, even if
+   * their strings are distinct instances, and that the shared actions claim for the right seat.
+   */
+  @Test
+  public void testEqualPlayersShareActions() throws Exception {
+    Player alice = new Player(new String("alice"), new String("#000000"));
+    Player otherAlice = new Player(new String("alice"), new String("#000000"));
+    Player bob = new Player("bob", "#FFFFFF");
+    XoxActionGenerator generator = new XoxActionGenerator();
+    XoxGameImpl game = new XoxGameImpl(alice, bob);
+    XoxGameImpl otherGame = new XoxGameImpl(bob, otherAlice);
+    otherGame.setCurrentPlayer(1);
+    XoxClaimFieldAction[] actions = generator.generateActionArray(game, alice);
+    for (int i = 0; i < 3; i++) {
+      Assert.assertSame(actions, generator.generateActionArray(otherGame, otherAlice));
+      Assert.assertSame(actions, generator.generateActionArray(game, alice));
+    }
+    // Alice sits second in the other game, so the shared action must claim for the second seat.
+    new XoxActionInterpreter(generator, new XoxEndingAnalyzer())
+        .interpretAndApplyAction(actions[0], otherGame);
+    Assert.assertEquals(1, otherGame.getModifiableBoard().getPlayerCells(1));
+    Assert.assertEquals(0, otherGame.getModifiableBoard().getPlayerCells(0));
+  }
+
+  /**
+   * Verifies the manager serves the shared array and that it shrinks as cells are claimed.
+   */
+  @Test
+  public void testManagerActions() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    XoxClaimFieldAction[] actions = manager.getActions(gameId, "X");
+    Assert.assertSame(actions, manager.getActions(gameId, "X"));
+    Assert.assertEquals(9, actions.length);
+    manager.performAction(gameId, "X", 4);
+    XoxClaimFieldAction[] next = manager.getActions(gameId, "O");
+    Assert.assertEquals(8, next.length);
+    for (XoxClaimFieldAction action : next) {
+      Assert.assertFalse("Claimed center must not be offered again.",
+          action.getX() == 1 && action.getY() == 1);
+    }
+  }
+
+  /**
+   * Verifies renamed players receive actions carrying their new name, and hot players keep their
+   * cached actions while more players than the cache holds pass through.
+   */
+  @Test
+  public void testCacheBounds() throws Exception {
+    Player x = new Player("X", "#000000");
+    Player o = new Player("O", "#FFFFFF");
+    XoxActionGenerator generator = new XoxActionGenerator();
+    XoxClaimFieldAction[] hot = generator.generateActionArray(new XoxGameImpl(x, o), x);
+    for (int i = 0; i < 5000; i++) {
+      Player other = new Player("P" + i, "#000000");
+      generator.generateActionArray(new XoxGameImpl(other, o), other);
+      Assert.assertSame(hot, generator.generateActionArray(new XoxGameImpl(x, o), x));
+    }
+
+    x.setName("Y");
+    XoxClaimFieldAction[] renamed = generator.generateActionArray(new XoxGameImpl(x, o), x);
+    Assert.assertNotSame(hot, renamed);
+    Assert.assertEquals("Y", renamed[0].getPlayer().getName());
+  }
+}
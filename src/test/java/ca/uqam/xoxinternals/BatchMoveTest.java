@@ -0,0 +1,80 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.ShardedXoxManager;
+import ca.uqam.xoxinternals.controller.XoxManager;
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.controller.XoxMove;
+import ca.uqam.xoxinternals.controller.XoxMoveStatus;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for batched move submission.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class BatchMoveTest extends XoxTestUtils {
+
+  /**
+   * Verifies every move of a batch receives the matching status.
+   */
+  @Test
+  public void testStatuses() {
+    XoxManager manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    List<XoxMove> moves = Arrays.asList(
+        new XoxMove(gameId, "X", 0, 0),
+        new XoxMove(gameId, "X", 1, 1),
+        new XoxMove(gameId, "O", 0, 0),
+        new XoxMove(gameId, "O", 3, 0),
+        new XoxMove(gameId, "Y", 1, 1),
+        new XoxMove(-1, "X", 1, 1),
+        new XoxMove(gameId, "O", 1, 0));
+    XoxMoveStatus[] statuses = manager.performActions(moves);
+    Assert.assertArrayEquals(new XoxMoveStatus[] {XoxMoveStatus.APPLIED,
+        XoxMoveStatus.NOT_PLAYERS_TURN, XoxMoveStatus.INVALID_CELL, XoxMoveStatus.INVALID_CELL,
+        XoxMoveStatus.UNKNOWN_PLAYER, XoxMoveStatus.UNKNOWN_GAME, XoxMoveStatus.APPLIED},
+        statuses);
+    Assert.assertEquals(1, manager.getBoard(gameId).getCells()[0][0]);
+    Assert.assertEquals(2, manager.getBoard(gameId).getCells()[0][1]);
+    manager.removeGame(gameId);
+  }
+
+  /**
+   * Verifies interleaved moves of many games, spread over shards, are applied in batch order per
+   * game. Every game is played to a win of X in the top row.
+   */
+  @Test
+  public void testInterleavedGames() {
+    ShardedXoxManager manager = new ShardedXoxManager(4);
+    try {
+      List<Long> gameIds = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        gameIds.add(manager.addGame(getDefaultInitSettings(false)));
+      }
+      int[][] script = {{0, 0}, {0, 1}, {1, 0}, {1, 1}, {2, 0}, {2, 1}};
+      List<XoxMove> moves = new ArrayList<>();
+      for (int turn = 0; turn < script.length; turn++) {
+        for (long gameId : gameIds) {
+          String player = turn % 2 == 0 ? "X" : "O";
+          moves.add(new XoxMove(gameId, player, script[turn][0], script[turn][1]));
+        }
+      }
+      XoxMoveStatus[] statuses = manager.performActions(moves);
+      for (int i = 0; i < statuses.length; i++) {
+        XoxMoveStatus expected =
+            i < 5 * gameIds.size() ? XoxMoveStatus.APPLIED : XoxMoveStatus.GAME_OVER;
+        Assert.assertEquals(expected, statuses[i]);
+      }
+      for (long gameId : gameIds) {
+        Assert.assertTrue(manager.getRanking(gameId).isGameOver());
+        Assert.assertEquals(1, manager.getBoard(gameId).getThreeInaLineCharIfExists());
+      }
+    } finally {
+      manager.shutdown();
+    }
+  }
+}
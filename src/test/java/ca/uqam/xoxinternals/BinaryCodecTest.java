@@ -0,0 +1,105 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.codec.XoxBinaryCodec;
+import ca.uqam.xoxinternals.controller.Ranking;
+import ca.uqam.xoxinternals.controller.XoxClaimFieldAction;
+import ca.uqam.xoxinternals.model.BitBoardImpl;
+import ca.uqam.xoxinternals.model.BoardReadOnly;
+import ca.uqam.xoxinternals.model.Player;
+import java.nio.ByteBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the binary codec.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class BinaryCodecTest {
+
+  /**
+   * Verifies boards are encoded in 3 bytes and decoded to the same cells.
+   */
+  @Test
+  public void testBoardRoundTrip() throws Exception {
+    BitBoardImpl board = new BitBoardImpl();
+    board.occupy(0, 0, true);
+    board.occupy(1, 1, false);
+    board.occupy(2, 2, true);
+    ByteBuffer buffer = ByteBuffer.allocate(16);
+    XoxBinaryCodec.encodeBoard(board, buffer);
+    Assert.assertEquals(3, buffer.position());
+    buffer.flip();
+    BoardReadOnly decoded = XoxBinaryCodec.decodeBoard(buffer);
+    Assert.assertEquals(board.toString(), decoded.toString());
+    Assert.assertFalse(buffer.hasRemaining());
+  }
+
+  /**
+   * Verifies actions, players with non-ASCII names and rankings survive a round trip through one
+   * shared buffer.
+   */
+  @Test
+  public void testRoundTrips() throws Exception {
+    Player max = new Player("Max é中😀", "#CAFFEE");
+    Player moritz = new Player("Moritz", null);
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    XoxBinaryCodec.encodeAction(new XoxClaimFieldAction(2, 1, max), buffer);
+    XoxBinaryCodec.encodePlayer(moritz, buffer);
+    XoxBinaryCodec.encodeRanking(new Ranking(new Player[] {max, moritz}, new int[] {1, -1}, true),
+        buffer);
+    XoxBinaryCodec.putVarLong(Long.MAX_VALUE, buffer);
+    buffer.flip();
+    XoxClaimFieldAction action = XoxBinaryCodec.decodeAction(buffer);
+    Assert.assertEquals(2, action.getX());
+    Assert.assertEquals(1, action.getY());
+    Assert.assertEquals(max.getName(), action.getPlayer().getName());
+    Player player = XoxBinaryCodec.decodePlayer(buffer);
+    Assert.assertEquals("Moritz", player.getName());
+    Assert.assertNull(player.getPreferredColour());
+    Ranking ranking = XoxBinaryCodec.decodeRanking(buffer);
+    Assert.assertTrue(ranking.isGameOver());
+    Assert.assertArrayEquals(new int[] {1, -1}, ranking.getScoresDescending());
+    Assert.assertEquals(max.getName(), ranking.getPlayersDescending()[0].getName());
+    Assert.assertEquals(Long.MAX_VALUE, XoxBinaryCodec.getVarLong(buffer));
+    Assert.assertFalse(buffer.hasRemaining());
+  }
+
+  /**
+   * Verifies values of another type are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTypeMismatch() {
+    ByteBuffer buffer = ByteBuffer.allocate(16);
+    XoxBinaryCodec.encodePlayer(new Player("X", "#FF0000"), buffer);
+    buffer.flip();
+    XoxBinaryCodec.decodeBoard(buffer);
+  }
+
+  /**
+   * Verifies cell bytes beyond the board are rejected, rather than wrapped onto a valid cell.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testCellOutOfRange() throws Exception {
+    ByteBuffer buffer = ByteBuffer.allocate(16);
+    XoxBinaryCodec.encodeAction(new XoxClaimFieldAction(0, 0, new Player("X", null)), buffer);
+    // The cell directly follows the one byte header.
+    buffer.put(1, (byte) 0xFF);
+    buffer.flip();
+    XoxBinaryCodec.decodeAction(buffer);
+  }
+
+  /**
+   * Verifies a multi-byte character cut off by the string length is rejected, rather than
+   * completed with the bytes that follow the string.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncatedCharacter() {
+    ByteBuffer buffer = ByteBuffer.allocate(16);
+    XoxBinaryCodec.encodePlayer(new Player("A\u00E9", "#FF0000"), buffer);
+    // Shorten the name from 3 to 2 bytes, which splits the 2-byte character.
+    buffer.put(1, (byte) 3);
+    buffer.flip();
+    XoxBinaryCodec.decodePlayer(buffer);
+  }
+}
@@ -0,0 +1,92 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.model.BitBoardImpl;
+import ca.uqam.xoxinternals.model.BoardImpl;
+import ca.uqam.xoxinternals.model.ModelAccessException;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the mask based board implementation.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class BitBoardTest {
+  /**
+   * Verifies a new bitboard is empty, not full and has no line.
+   */
+  @Test
+  public void testEmptyBoard() {
+    BitBoardImpl board = new BitBoardImpl();
+    Assert.assertTrue(board.isEmpty());
+    Assert.assertFalse(board.isFull());
+    Assert.assertFalse(board.isThreeInaLine());
+    Assert.assertEquals(0, board.getThreeInaLineCharIfExists());
+    Assert.assertTrue(board.isFree(2, 1));
+    Assert.assertFalse("Cells off the board must never be free.", board.isFree(3, 0));
+  }
+
+  /**
+   * Verifies cells, string representation and vacancy match the matrix based board for the same
+   * sequence of moves.
+   */
+  @Test
+  public void testMatchesMatrixBoard() throws ModelAccessException {
+    BitBoardImpl bitBoard = new BitBoardImpl();
+    BoardImpl matrixBoard = new BoardImpl();
+    int[][] moves = {{0, 0}, {2, 2}, {1, 2}, {0, 2}, {1, 1}, {0, 1}, {2, 1}, {1, 0}, {2, 0}};
+    for (int i = 0; i < moves.length; i++) {
+      bitBoard.occupy(moves[i][0], moves[i][1], i % 2 == 0);
+      matrixBoard.occupy(moves[i][0], moves[i][1], i % 2 == 0);
+      Assert.assertTrue(Arrays.deepEquals(matrixBoard.getCells(), bitBoard.getCells()));
+      Assert.assertEquals(matrixBoard.toString(), bitBoard.toString());
+      Assert.assertEquals(matrixBoard.isFull(), bitBoard.isFull());
+    }
+    // Pattern is a draw.
+    Assert.assertTrue(bitBoard.isFull());
+    Assert.assertFalse(bitBoard.isThreeInaLine());
+  }
+
+  /**
+   * Verifies every row, column and diagonal is detected as three in a line, for both players.
+   */
+  @Test
+  public void testAllLines() throws ModelAccessException {
+    int[][][] lines = {
+        {{0, 0}, {1, 0}, {2, 0}}, {{0, 1}, {1, 1}, {2, 1}}, {{0, 2}, {1, 2}, {2, 2}},
+        {{0, 0}, {0, 1}, {0, 2}}, {{1, 0}, {1, 1}, {1, 2}}, {{2, 0}, {2, 1}, {2, 2}},
+        {{0, 0}, {1, 1}, {2, 2}}, {{2, 0}, {1, 1}, {0, 2}}};
+    for (int[][] line : lines) {
+      for (int seat = 0; seat < 2; seat++) {
+        BitBoardImpl board = new BitBoardImpl();
+        for (int[] cell : line) {
+          Assert.assertFalse(board.isThreeInaLine());
+          board.occupy(cell[0], cell[1], seat == 0);
+        }
+        Assert.assertEquals(seat + 1, board.getThreeInaLineCharIfExists());
+      }
+    }
+  }
+
+  /**
+   * Verifies occupied and out of bounds cells are rejected.
+   */
+  @Test
+  public void testIllegalOccupation() throws ModelAccessException {
+    BitBoardImpl board = new BitBoardImpl();
+    board.occupy(1, 1, true);
+    try {
+      board.occupy(1, 1, false);
+      Assert.fail("Occupied cell must not be claimed twice.");
+    } catch (ModelAccessException expected) {
+      // expected
+    }
+    try {
+      board.occupy(-1, 1, false);
+      Assert.fail("Cell outside the board must not be claimed.");
+    } catch (ModelAccessException expected) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.model.BitBoardImpl;
+import ca.uqam.xoxinternals.model.Board;
+import ca.uqam.xoxinternals.model.BoardImpl;
+import ca.uqam.xoxinternals.model.BoardSnapshot;
+import ca.uqam.xoxinternals.model.ModelAccessException;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for Zobrist board hashes and board versions.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class BoardHashTest extends XoxTestUtils {
+
+  /**
+   * Verifies incrementally maintained hashes of both board implementations match the hash of a
+   * snapshot of the same cells, no matter the order of the claims.
+   */
+  @Test
+  public void testIncrementalHash() throws ModelAccessException {
+    Board bitBoard = new BitBoardImpl();
+    Board matrixBoard = new BoardImpl();
+    Assert.assertEquals(new BoardSnapshot(0, 0, 0).getZobristHash(), bitBoard.getZobristHash());
+    Assert.assertEquals(bitBoard.getZobristHash(), matrixBoard.getZobristHash());
+
+    bitBoard.occupy(0, 0, true);
+    bitBoard.occupy(1, 1, false);
+    bitBoard.occupy(2, 0, true);
+    matrixBoard.occupy(2, 0, true);
+    matrixBoard.occupy(1, 1, false);
+    matrixBoard.occupy(0, 0, true);
+    Assert.assertEquals(3, bitBoard.getVersion());
+    Assert.assertEquals(3, matrixBoard.getVersion());
+    Assert.assertEquals(bitBoard.getZobristHash(), matrixBoard.getZobristHash());
+    Assert.assertEquals(BoardSnapshot.of(bitBoard, 3).getZobristHash(),
+        bitBoard.getZobristHash());
+  }
+
+  /**
+   * Verifies all distinct positions yield distinct hashes.
+   */
+  @Test
+  public void testDistinctHashes() {
+    Set<Long> hashes = new HashSet<>();
+    int positions = 0;
+    for (int first = 0; first < 512; first++) {
+      for (int second = 0; second < 512; second++) {
+        if ((first & second) == 0) {
+          positions++;
+          hashes.add(new BoardSnapshot(first, second, 0).getZobristHash());
+        }
+      }
+    }
+    Assert.assertEquals(positions, hashes.size());
+    Assert.assertFalse(hashes.contains(0L));
+  }
+
+  /**
+   * Verifies the manager reports versions and hashes of the latest published state.
+   */
+  @Test
+  public void testManagerAccess() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    long emptyHash = manager.getBoardHash(gameId);
+    Assert.assertEquals(0, manager.getStateVersion(gameId));
+    manager.performAction(gameId, "X", 0);
+    Assert.assertEquals(1, manager.getStateVersion(gameId));
+    Assert.assertNotEquals(emptyHash, manager.getBoardHash(gameId));
+    Assert.assertEquals(manager.getBoard(gameId).getZobristHash(), manager.getBoardHash(gameId));
+    manager.removeGame(gameId);
+    Assert.assertEquals(-1, manager.getStateVersion(gameId));
+    Assert.assertEquals(0, manager.getBoardHash(gameId));
+  }
+}
@@ -0,0 +1,41 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.model.BoardReadOnly;
+import ca.uqam.xoxinternals.model.BoardSnapshot;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Verifies boards handed out by the manager are immutable, versioned snapshots.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class BoardSnapshotTest extends XoxTestUtils {
+  /**
+   * Verifies a snapshot is not affected by later moves, and newer snapshots carry higher versions.
+   */
+  @Test
+  public void testSnapshotIsolation() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    BoardReadOnly before = manager.getBoard(gameId);
+    Assert.assertTrue(before instanceof BoardSnapshot);
+    Assert.assertEquals(0, ((BoardSnapshot) before).getVersion());
+    // Same snapshot is served as long as nothing changes.
+    Assert.assertSame(before, manager.getBoard(gameId));
+    manager.performAction(gameId, "X", 0);
+    BoardSnapshot after = (BoardSnapshot) manager.getBoard(gameId);
+    Assert.assertTrue("Earlier snapshot must not reflect later moves.", before.isEmpty());
+    Assert.assertFalse(after.isFree(0, 0));
+    Assert.assertEquals(1, after.getVersion());
+  }
+
+  /**
+   * Verifies inconsistent masks are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testOverlappingMasks() {
+    new BoardSnapshot(0x3, 0x2, 0);
+  }
+}
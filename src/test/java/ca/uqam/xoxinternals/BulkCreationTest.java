@@ -0,0 +1,75 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.ShardedXoxManager;
+import ca.uqam.xoxinternals.controller.XoxManager;
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.model.XoxInitSettings;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the bulk creation of games.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class BulkCreationTest extends XoxTestUtils {
+
+  /**
+   * Verifies bulk creation on the default manager.
+   */
+  @Test
+  public void testAddGames() {
+    verifyAddGames(XoxManagerImpl.getInstance());
+  }
+
+  /**
+   * Verifies bulk creation on a sharded manager, where the batch is split over all shards.
+   */
+  @Test
+  public void testAddGamesSharded() {
+    ShardedXoxManager manager = new ShardedXoxManager(3);
+    try {
+      verifyAddGames(manager);
+    } finally {
+      manager.shutdown();
+    }
+  }
+
+  /**
+   * Verifies the creator is seated first, without reordering the provided players.
+   */
+  @Test
+  public void testSettingsNotModified() {
+    XoxManager manager = XoxManagerImpl.getInstance();
+    XoxInitSettings settings = getDefaultInitSettings(true);
+    long gameId = manager.addGame(settings);
+    Assert.assertEquals("X", settings.getPlayers().getFirst().getName());
+    Assert.assertEquals("O", manager.getPlayers(gameId)[0].getName());
+    manager.removeGame(gameId);
+  }
+
+  private void verifyAddGames(XoxManager manager) {
+    List<XoxInitSettings> batch = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      batch.add(getDefaultInitSettings(i % 3 == 0));
+    }
+    long[] gameIds = manager.addGames(batch);
+    Assert.assertEquals(batch.size(), gameIds.length);
+    Set<Long> distinct = new HashSet<>();
+    for (int i = 0; i < gameIds.length; i++) {
+      Assert.assertTrue("Game id handed out twice", distinct.add(gameIds[i]));
+      // Ids are returned in input order, so the seating must match the settings at that position.
+      String expectedFirst = i % 3 == 0 ? "O" : "X";
+      Assert.assertEquals(expectedFirst, manager.getPlayers(gameIds[i])[0].getName());
+      Assert.assertEquals("X", batch.get(i).getPlayers().getFirst().getName());
+    }
+    Assert.assertTrue(manager.getGames().containsAll(distinct));
+    for (long gameId : gameIds) {
+      manager.removeGame(gameId);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.model.BitBoardImpl;
+import ca.uqam.xoxinternals.model.BoardImpl;
+import ca.uqam.xoxinternals.model.BoardReadOnly;
+import ca.uqam.xoxinternals.model.BoardSnapshot;
+import ca.uqam.xoxinternals.model.ModelAccessException;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Verifies the allocation-free cell access methods agree with getCells, on all board types.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class CellAccessTest {
+  @Test
+  public void testAllBoardTypes() throws ModelAccessException {
+    BitBoardImpl bitBoard = new BitBoardImpl();
+    BoardImpl matrixBoard = new BoardImpl();
+    int[][] moves = {{0, 0}, {2, 2}, {1, 2}, {0, 2}, {1, 1}};
+    for (int i = 0; i < moves.length; i++) {
+      bitBoard.occupy(moves[i][0], moves[i][1], i % 2 == 0);
+      matrixBoard.occupy(moves[i][0], moves[i][1], i % 2 == 0);
+    }
+    BoardReadOnly[] boards = {bitBoard, matrixBoard, BoardSnapshot.of(bitBoard, moves.length)};
+    for (BoardReadOnly board : boards) {
+      int[][] expected = board.getCells();
+      // Packed representation
+      int packed = board.getPackedCells();
+      Assert.assertEquals(bitBoard.getPackedCells(), packed);
+      for (int y = 0; y < 3; y++) {
+        for (int x = 0; x < 3; x++) {
+          Assert.assertEquals(expected[y][x], packed >>> (2 * (3 * y + x)) & 3);
+        }
+      }
+      // Caller-supplied buffer
+      int[][] buffer = new int[3][3];
+      board.copyCells(buffer);
+      Assert.assertTrue(Arrays.deepEquals(expected, buffer));
+      // Visitor
+      int[][] visited = new int[3][3];
+      board.visitCells((xpos, ypos, occupant) -> visited[ypos][xpos] = occupant);
+      Assert.assertTrue(Arrays.deepEquals(expected, visited));
+    }
+  }
+
+  /**
+   * Boards implemented outside the library only provide the original accessors. The default
+   * methods derived from getCells must agree with the optimized board.
+   */
+  @Test
+  public void testDefaultMethods() throws ModelAccessException {
+    BitBoardImpl bitBoard = new BitBoardImpl();
+    bitBoard.occupy(0, 0, true);
+    bitBoard.occupy(2, 1, false);
+    bitBoard.occupy(1, 2, true);
+    int[][] cells = bitBoard.getCells();
+    BoardReadOnly external = new BoardReadOnly() {
+      @Override
+      public boolean isEmpty() {
+        return false;
+      }
+
+      @Override
+      public boolean isFull() {
+        return false;
+      }
+
+      @Override
+      public boolean isFree(int xpos, int ypos) {
+        return cells[ypos][xpos] == 0;
+      }
+
+      @Override
+      public int[][] getCells() {
+        return cells;
+      }
+
+      @Override
+      public boolean isThreeInaLine() {
+        return false;
+      }
+
+      @Override
+      public int getThreeInaLineCharIfExists() {
+        return ' ';
+      }
+    };
+    Assert.assertEquals(bitBoard.getPlayerCells(0), external.getPlayerCells(0));
+    Assert.assertEquals(bitBoard.getPlayerCells(1), external.getPlayerCells(1));
+    Assert.assertEquals(bitBoard.getFreeCells(), external.getFreeCells());
+    Assert.assertEquals(bitBoard.getPositionIndex(), external.getPositionIndex());
+    Assert.assertEquals(bitBoard.getPackedCells(), external.getPackedCells());
+    Assert.assertEquals(bitBoard.getZobristHash(), external.getZobristHash());
+    Assert.assertEquals(bitBoard.getVersion(), external.getVersion());
+    int[][] buffer = new int[3][3];
+    external.copyCells(buffer);
+    Assert.assertTrue(Arrays.deepEquals(cells, buffer));
+    int[][] visited = new int[3][3];
+    external.visitCells((xpos, ypos, occupant) -> visited[ypos][xpos] = occupant);
+    Assert.assertTrue(Arrays.deepEquals(cells, visited));
+  }
+}
@@ -7,6 +7,7 @@ import ca.uqam.xoxinternals.controller.XoxActionInterpreter;
 import ca.uqam.xoxinternals.controller.XoxClaimFieldAction;
 import ca.uqam.xoxinternals.controller.XoxEndingAnalyzer;
 import ca.uqam.xoxinternals.controller.XoxRankingGenerator;
+import ca.uqam.xoxinternals.model.BoardImpl;
 import ca.uqam.xoxinternals.model.ModelAccessException;
 import ca.uqam.xoxinternals.model.Player;
 import ca.uqam.xoxinternals.model.XoxGameImpl;
@@ -97,4 +98,18 @@ public class DrawTest extends XoxTestUtils {
     assert (ranking.getScoresDescending()[0] == 0);
     assert (ranking.getScoresDescending()[1] == 0);
   }
+
+  /**
+   * Verifies claims outside the grid are rejected as invalid actions, also on boards that do not
+   * check bounds themselves.
+   */
+  @Test(expected = LogicException.class)
+  public void testClaimOutOfBounds() throws LogicException, ModelAccessException {
+    Player x = new Player("X", "#000000");
+    Player o = new Player("O", "#FFFFFF");
+    XoxGameImpl game = new XoxGameImpl(x, o, new BoardImpl());
+    XoxActionInterpreter actionInterpreter =
+        new XoxActionInterpreter(new XoxActionGenerator(), new XoxEndingAnalyzer());
+    actionInterpreter.interpretAndApplyClaim(game, x, 3, 0);
+  }
 }
@@ -0,0 +1,83 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.XoxActionGenerator;
+import ca.uqam.xoxinternals.controller.XoxActionInterpreter;
+import ca.uqam.xoxinternals.controller.XoxEndingAnalyzer;
+import ca.uqam.xoxinternals.controller.XoxRankingGenerator;
+import ca.uqam.xoxinternals.model.Player;
+import ca.uqam.xoxinternals.model.XoxGameImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the incremental ending analysis and the outcome recorded on games.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class EndingAnalyzerTest {
+  private final Player x = new Player("X", "#000000");
+  private final Player o = new Player("O", "#FFFFFF");
+
+  /**
+   * Plays the provided cells (x, y pairs) alternately, starting with X.
+   */
+  private XoxGameImpl play(int[][] moves) throws Exception {
+    XoxGameImpl game = new XoxGameImpl(x, o);
+    XoxActionInterpreter interpreter =
+        new XoxActionInterpreter(new XoxActionGenerator(), new XoxEndingAnalyzer());
+    for (int i = 0; i < moves.length; i++) {
+      interpreter.interpretAndApplyClaim(game, i % 2 == 0 ? x : o, moves[i][0], moves[i][1]);
+    }
+    return game;
+  }
+
+  /**
+   * Verifies a line completed on the last free cell counts as a win, not as a draw.
+   */
+  @Test
+  public void testWinOnLastCell() throws Exception {
+    XoxGameImpl game =
+        play(new int[][] {{0, 0}, {1, 0}, {2, 0}, {0, 1}, {1, 1}, {2, 1}, {1, 2}, {0, 2}, {2, 2}});
+    Assert.assertTrue(game.isFinished());
+    Assert.assertFalse(game.isDraw());
+    Assert.assertEquals(9, game.getMoveCount());
+    Assert.assertEquals(0, game.getWinnerIndex());
+    Assert.assertEquals(6, game.getWinningLine());
+    Assert.assertEquals("X",
+        new XoxRankingGenerator().computeRanking(game).getPlayersDescending()[0].getName());
+  }
+
+  /**
+   * Verifies the second player can win, and the line is recorded.
+   */
+  @Test
+  public void testSecondPlayerWins() throws Exception {
+    XoxGameImpl game = play(new int[][] {{0, 0}, {2, 0}, {1, 0}, {2, 1}, {0, 2}, {2, 2}});
+    Assert.assertTrue(game.isFinished());
+    Assert.assertEquals(1, game.getWinnerIndex());
+    Assert.assertEquals(5, game.getWinningLine());
+  }
+
+  /**
+   * Verifies a full board without line is recorded as a draw.
+   */
+  @Test
+  public void testDraw() throws Exception {
+    XoxGameImpl game =
+        play(new int[][] {{0, 0}, {2, 2}, {1, 2}, {0, 2}, {1, 1}, {0, 1}, {2, 1}, {1, 0}, {2, 0}});
+    Assert.assertTrue(game.isDraw());
+    Assert.assertEquals(-1, game.getWinnerIndex());
+    Assert.assertEquals(-1, game.getWinningLine());
+  }
+
+  /**
+   * Verifies a game in progress is neither finished nor decided.
+   */
+  @Test
+  public void testRunning() throws Exception {
+    XoxGameImpl game = play(new int[][] {{1, 1}, {0, 0}});
+    Assert.assertFalse(game.isFinished());
+    Assert.assertFalse(game.isDraw());
+    Assert.assertEquals(2, game.getMoveCount());
+  }
+}
@@ -0,0 +1,199 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.EvictionCause;
+import ca.uqam.xoxinternals.controller.EvictionPolicy;
+import ca.uqam.xoxinternals.controller.GameReaper;
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.controller.XoxMove;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the game reaper. The tests only evict games they created themselves, so other
+ * tests sharing the singleton manager are not affected.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class EvictionTest extends XoxTestUtils {
+
+  /**
+   * Verifies finished games are evicted after their time to live, and the hook sees them first.
+   */
+  @Test
+  public void testFinishedTtl() throws InterruptedException {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    long finishedGameId = manager.addGame(getDefaultInitSettings(false));
+    long runningGameId = manager.addGame(getDefaultInitSettings(false));
+    manager.performActions(Arrays.asList(new XoxMove(finishedGameId, "X", 0, 0),
+        new XoxMove(finishedGameId, "O", 0, 1), new XoxMove(finishedGameId, "X", 1, 0),
+        new XoxMove(finishedGameId, "O", 1, 1), new XoxMove(finishedGameId, "X", 2, 0)));
+
+    Map<Long, EvictionCause> evicted = new ConcurrentHashMap<>();
+    EvictionPolicy policy = EvictionPolicy.none().withFinishedTtl(20, TimeUnit.MILLISECONDS);
+    try (GameReaper reaper = new GameReaper(manager, policy, (gameId, game, cause) -> {
+      // The game is still registered while the hook runs.
+      Assert.assertNotNull(manager.getBoard(gameId));
+      Assert.assertTrue(game.isFinished());
+      evicted.put(gameId, cause);
+    })) {
+      Thread.sleep(40);
+      reaper.evictNow();
+    }
+    Assert.assertEquals(EvictionCause.FINISHED, evicted.get(finishedGameId));
+    Assert.assertFalse(evicted.containsKey(runningGameId));
+    Assert.assertNull(manager.getBoard(finishedGameId));
+    Assert.assertNotNull(manager.getBoard(runningGameId));
+    manager.removeGame(runningGameId);
+  }
+
+  /**
+   * Verifies idle games are evicted, unless the hook refuses, and active games are kept.
+   */
+  @Test
+  public void testIdleTimeout() throws InterruptedException {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    long idleGameId = manager.addGame(getDefaultInitSettings(false));
+    long refusedGameId = manager.addGame(getDefaultInitSettings(false));
+    Thread.sleep(40);
+    long activeGameId = manager.addGame(getDefaultInitSettings(false));
+
+    List<Long> evicted = new ArrayList<>();
+    EvictionPolicy policy = EvictionPolicy.none().withIdleTimeout(30, TimeUnit.MILLISECONDS);
+    try (GameReaper reaper = new GameReaper(manager, policy, (gameId, game, cause) -> {
+      if (gameId == refusedGameId) {
+        throw new IllegalStateException("Archive unavailable.");
+      }
+      if (gameId == idleGameId) {
+        evicted.add(gameId);
+      } else if (gameId == activeGameId) {
+        Assert.fail("Game was active.");
+      } else {
+        // Not a game of this test, veto.
+        throw new IllegalStateException("Foreign game.");
+      }
+    })) {
+      reaper.evictNow();
+    }
+    Assert.assertEquals(Arrays.asList(idleGameId), evicted);
+    Assert.assertNull(manager.getBoard(idleGameId));
+    Assert.assertNotNull(manager.getBoard(refusedGameId));
+    Assert.assertNotNull(manager.getBoard(activeGameId));
+    manager.removeGame(refusedGameId);
+    manager.removeGame(activeGameId);
+  }
+
+  /**
+   * Verifies a registry exceeding its maximum size loses its least recently used games first.
+   */
+  @Test
+  public void testCapacity() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    List<Long> gameIds = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      gameIds.add(manager.addGame(getDefaultInitSettings(false)));
+    }
+    // A run without criteria only advances the access clock. Afterwards, all but the first 4
+    // games are used.
+    try (GameReaper reaper = new GameReaper(manager, EvictionPolicy.none(), null)) {
+      Assert.assertEquals(0, reaper.evictNow());
+    }
+    for (long gameId : gameIds.subList(4, 10)) {
+      manager.getBoard(gameId);
+    }
+    // Keep all but 4 games, capacity eviction must spare the recently used ones.
+    EvictionPolicy policy = EvictionPolicy.none().withMaxGames(manager.getGames().size() - 4);
+    try (GameReaper reaper = new GameReaper(manager, policy, (gameId, game, cause) -> {
+      Assert.assertEquals(EvictionCause.CAPACITY, cause);
+      if (!gameIds.contains(gameId)) {
+        throw new IllegalStateException("Foreign game.");
+      }
+    })) {
+      Assert.assertEquals(4, reaper.evictNow());
+    }
+    for (long gameId : gameIds.subList(0, 4)) {
+      Assert.assertNull(manager.getBoard(gameId));
+    }
+    for (long gameId : gameIds.subList(4, 10)) {
+      Assert.assertNotNull(manager.getBoard(gameId));
+      manager.removeGame(gameId);
+    }
+  }
+
+  /**
+   * Verifies capacity eviction moves on to more recently used games if the listener refuses to
+   * evict all of the least recently used ones.
+   */
+  @Test
+  public void testCapacityVetoes() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    List<Long> gameIds = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      gameIds.add(manager.addGame(getDefaultInitSettings(false)));
+    }
+    try (GameReaper reaper = new GameReaper(manager, EvictionPolicy.none(), null)) {
+      reaper.evictNow();
+      for (long gameId : gameIds.subList(4, 8)) {
+        manager.getBoard(gameId);
+      }
+      reaper.evictNow();
+    }
+    // Only the recently used games may go, all older ones are refused.
+    List<Long> evictable = gameIds.subList(4, 8);
+    EvictionPolicy policy = EvictionPolicy.none().withMaxGames(manager.getGames().size() - 2);
+    try (GameReaper reaper = new GameReaper(manager, policy, (gameId, game, cause) -> {
+      if (!evictable.contains(gameId)) {
+        throw new IllegalStateException("Refused.");
+      }
+    })) {
+      Assert.assertEquals(2, reaper.evictNow());
+    }
+    int remaining = 0;
+    for (long gameId : gameIds) {
+      if (manager.getBoard(gameId) != null) {
+        remaining++;
+        manager.removeGame(gameId);
+      }
+    }
+    Assert.assertEquals(6, remaining);
+  }
+
+  /**
+   * Verifies a game created after older games were used counts as the most recently used one, and
+   * is not evicted for capacity ahead of them.
+   */
+  @Test
+  public void testNewGameIsRecentlyUsed() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    List<Long> olderIds = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      olderIds.add(manager.addGame(getDefaultInitSettings(false)));
+    }
+    try (GameReaper reaper = new GameReaper(manager, EvictionPolicy.none(), null)) {
+      reaper.evictNow();
+      for (long gameId : olderIds) {
+        manager.getBoard(gameId);
+      }
+      reaper.evictNow();
+    }
+    long newId = manager.addGame(getDefaultInitSettings(false));
+    EvictionPolicy policy = EvictionPolicy.none().withMaxGames(manager.getGames().size() - 1);
+    try (GameReaper reaper = new GameReaper(manager, policy, (gameId, game, cause) -> {
+      if (!olderIds.contains(gameId) && gameId != newId) {
+        throw new IllegalStateException("Foreign game.");
+      }
+    })) {
+      Assert.assertEquals(1, reaper.evictNow());
+    }
+    Assert.assertNotNull(manager.getBoard(newId));
+    manager.removeGame(newId);
+    for (long gameId : olderIds) {
+      manager.removeGame(gameId);
+    }
+  }
+}
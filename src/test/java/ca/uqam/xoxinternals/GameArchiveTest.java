@@ -0,0 +1,144 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.EvictionPolicy;
+import ca.uqam.xoxinternals.controller.GameReaper;
+import ca.uqam.xoxinternals.controller.Ranking;
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.controller.XoxMove;
+import ca.uqam.xoxinternals.model.BoardReadOnly;
+import ca.uqam.xoxinternals.model.GameArchive;
+import ca.uqam.xoxinternals.model.ModelAccessException;
+import ca.uqam.xoxinternals.model.Player;
+import ca.uqam.xoxinternals.model.XoxGameImpl;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the cold tier of finished games.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class GameArchiveTest extends XoxTestUtils {
+
+  /**
+   * Verifies archived games stay accessible through the manager, but no longer occupy the
+   * registry.
+   */
+  @Test
+  public void testArchivedGameAccess() throws Exception {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    manager.setArchive(new GameArchive());
+    try {
+      long gameId = manager.addGame(getDefaultInitSettings(true));
+      // O starts and wins the left column.
+      playToWin(manager, gameId, "O", "X");
+      BoardReadOnly before = manager.getBoard(gameId);
+      long hashBefore = manager.getBoardHash(gameId);
+
+      Assert.assertTrue(manager.archiveGame(gameId));
+      Assert.assertFalse(manager.getGames().contains(gameId));
+      BoardReadOnly after = manager.getBoard(gameId);
+      Assert.assertArrayEquals(before.getCells(), after.getCells());
+      Assert.assertEquals(5, manager.getStateVersion(gameId));
+      Assert.assertEquals(hashBefore, manager.getBoardHash(gameId));
+      Assert.assertEquals("O", manager.getPlayers(gameId)[0].getName());
+      // Archived players are copies, renaming one affects no other game.
+      manager.getPlayers(gameId)[0].setName("Mallory");
+      Assert.assertEquals("O", manager.getPlayers(gameId)[0].getName());
+      Ranking ranking = manager.getRanking(gameId);
+      Assert.assertTrue(ranking.isGameOver());
+      Assert.assertEquals(1, ranking.getScoreForPlayer("O"));
+      Assert.assertEquals(0, ranking.getScoreForPlayer("X"));
+
+      manager.removeGame(gameId);
+      Assert.assertNull(manager.getBoard(gameId));
+      Assert.assertNull(manager.getRanking(gameId));
+    } finally {
+      manager.setArchive(null);
+    }
+  }
+
+  /**
+   * Verifies running games are not archived.
+   */
+  @Test
+  public void testRunningGameStaysHot() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    manager.setArchive(new GameArchive());
+    try {
+      long gameId = manager.addGame(getDefaultInitSettings(false));
+      Assert.assertFalse(manager.archiveGame(gameId));
+      Assert.assertTrue(manager.getGames().contains(gameId));
+      manager.removeGame(gameId);
+    } finally {
+      manager.setArchive(null);
+    }
+  }
+
+  /**
+   * Verifies a reaper moves finished games into a memory-mapped archive spanning several segments.
+   */
+  @Test
+  public void testMappedArchiveWithReaper() throws Exception {
+    Path directory = Files.createTempDirectory("xox-archive");
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    GameArchive archive = new GameArchive(directory, 2);
+    manager.setArchive(archive);
+    List<Long> gameIds = new ArrayList<>();
+    try {
+      for (int i = 0; i < 5; i++) {
+        long gameId = manager.addGame(getDefaultInitSettings(false));
+        playToWin(manager, gameId, "X", "O");
+        gameIds.add(gameId);
+      }
+      EvictionPolicy policy = EvictionPolicy.none().withFinishedTtl(0, TimeUnit.MILLISECONDS);
+      try (GameReaper reaper = new GameReaper(manager, policy, manager.archivingListener())) {
+        reaper.evictNow();
+      }
+      Assert.assertEquals(3 * 2 * 20, archive.getReservedBytes());
+      for (long gameId : gameIds) {
+        Assert.assertFalse(manager.getGames().contains(gameId));
+        Assert.assertEquals(1, manager.getRanking(gameId).getScoreForPlayer("X"));
+        Assert.assertEquals(1, manager.getBoard(gameId).getCells()[0][0]);
+      }
+      // Segment files are unlinked right after mapping.
+      try (Stream<Path> files = Files.list(directory)) {
+        Assert.assertEquals(0, files.count());
+      }
+    } finally {
+      for (long gameId : gameIds) {
+        manager.removeGame(gameId);
+      }
+      manager.setArchive(null);
+      archive.close();
+      Files.delete(directory);
+    }
+  }
+
+  /**
+   * Verifies the archive rejects running games.
+   */
+  @Test(expected = ModelAccessException.class)
+  public void testRejectRunningGame() throws ModelAccessException {
+    try (GameArchive archive = new GameArchive()) {
+      archive.archive(1, new XoxGameImpl(new Player("X", "#000000"), new Player("O", "#FFFFFF")));
+    }
+  }
+
+  /**
+   * Plays a game to a win of the starting player, who claims the left column.
+   */
+  private static void playToWin(XoxManagerImpl manager, long gameId, String starter,
+                                String opponent) {
+    manager.performActions(Arrays.asList(new XoxMove(gameId, starter, 0, 0),
+        new XoxMove(gameId, opponent, 1, 0), new XoxMove(gameId, starter, 0, 1),
+        new XoxMove(gameId, opponent, 1, 1), new XoxMove(gameId, starter, 0, 2)));
+  }
+}
@@ -0,0 +1,78 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.ScramblingGameIdAllocator;
+import ca.uqam.xoxinternals.controller.ShardedXoxManager;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the scrambling game id allocator.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class GameIdAllocatorTest extends XoxTestUtils {
+
+  /**
+   * Verifies scrambling can be reverted, for arbitrary keys and values.
+   */
+  @Test
+  public void testScrambleRoundTrip() {
+    ScramblingGameIdAllocator allocator =
+        new ScramblingGameIdAllocator(ScramblingGameIdAllocator.randomKey(), 1, 0);
+    long[] values = {0, 1, 2, 42, 1L << 40, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+    for (long value : values) {
+      long gameId = allocator.scramble(value);
+      Assert.assertTrue("Scrambled ids must not be negative.", gameId >= 0);
+      Assert.assertEquals(value, allocator.unscramble(gameId));
+    }
+  }
+
+  /**
+   * Verifies allocators with the same key and stride but distinct offsets never collide, and that
+   * every id can be traced back to its allocator.
+   */
+  @Test
+  public void testDisjointSequences() {
+    long key = ScramblingGameIdAllocator.randomKey();
+    ScramblingGameIdAllocator[] allocators = new ScramblingGameIdAllocator[3];
+    for (int i = 0; i < allocators.length; i++) {
+      allocators[i] = new ScramblingGameIdAllocator(key, allocators.length, i);
+    }
+    Set<Long> gameIds = new HashSet<>();
+    for (int round = 0; round < 1000; round++) {
+      for (int i = 0; i < allocators.length; i++) {
+        long gameId = allocators[i].nextGameId();
+        Assert.assertTrue("Game id handed out twice", gameIds.add(gameId));
+        Assert.assertEquals(i, allocators[0].unscramble(gameId) % allocators.length);
+      }
+    }
+  }
+
+  /**
+   * Verifies invalid offsets are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testOffsetOutOfRange() {
+    new ScramblingGameIdAllocator(0, 2, 2);
+  }
+
+  /**
+   * Verifies games of a sharded manager can be resolved by the id they were created with.
+   */
+  @Test
+  public void testShardedRouting() {
+    ShardedXoxManager manager = new ShardedXoxManager(3);
+    try {
+      for (int i = 0; i < 30; i++) {
+        long gameId = manager.addGame(getDefaultInitSettings(false));
+        Assert.assertTrue(gameId > 0);
+        Assert.assertNotNull(manager.getBoard(gameId));
+      }
+      Assert.assertEquals(30, manager.getGames().size());
+    } finally {
+      manager.shutdown();
+    }
+  }
+}
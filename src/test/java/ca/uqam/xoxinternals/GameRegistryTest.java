@@ -0,0 +1,67 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.ShardedXoxManager;
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.model.Player;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the game registry of the XoxManager, with many games and colliding id patterns.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class GameRegistryTest extends XoxTestUtils {
+
+  /**
+   * Verifies thousands of games can be registered, looked up and removed again. Games are removed
+   * in an interleaved order, so entries have to be shifted within their probe runs.
+   */
+  @Test
+  public void testManyGames() {
+    ShardedXoxManager manager = new ShardedXoxManager(1);
+    try {
+      List<Long> gameIds = new ArrayList<>();
+      for (int i = 0; i < 5000; i++) {
+        gameIds.add(manager.addGame(getDefaultInitSettings(false)));
+      }
+      Assert.assertEquals(5000, manager.getGames().size());
+      for (int i = 0; i < gameIds.size(); i += 2) {
+        manager.removeGame(gameIds.get(i));
+      }
+      Collection<Long> remaining = manager.getGames();
+      Assert.assertEquals(2500, remaining.size());
+      for (int i = 0; i < gameIds.size(); i++) {
+        boolean removed = i % 2 == 0;
+        Assert.assertEquals(removed, manager.getBoard(gameIds.get(i)) == null);
+        Assert.assertEquals(!removed, remaining.contains(gameIds.get(i)));
+      }
+    } finally {
+      manager.shutdown();
+    }
+  }
+
+  /**
+   * Verifies sequential ids, including id 0, are indexed correctly.
+   */
+  @Test
+  public void testSequentialIds() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    Player first = new Player("X", "#000000");
+    Player second = new Player("O", "#FFFFFF");
+    List<Long> gameIds = new ArrayList<>();
+    for (long i = 0; i < 1000; i++) {
+      long gameId = i << 20;
+      Assert.assertTrue(manager.restoreGame(gameId, first, second));
+      gameIds.add(gameId);
+    }
+    for (long gameId : gameIds) {
+      Assert.assertNotNull(manager.getPlayers(gameId));
+      manager.removeGame(gameId);
+      Assert.assertNull(manager.getPlayers(gameId));
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.codec.XoxJsonWriter;
+import ca.uqam.xoxinternals.controller.Ranking;
+import ca.uqam.xoxinternals.controller.XoxClaimFieldAction;
+import ca.uqam.xoxinternals.model.BitBoardImpl;
+import ca.uqam.xoxinternals.model.Player;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the streaming JSON writer.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class JsonWriterTest {
+
+  /**
+   * Verifies boards and rankings are rendered with the bean property names of their getters.
+   */
+  @Test
+  public void testBoardAndRanking() throws Exception {
+    BitBoardImpl board = new BitBoardImpl();
+    board.occupy(1, 0, true);
+    board.occupy(2, 2, false);
+    XoxJsonWriter writer = new XoxJsonWriter();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    writer.writeBoard(board, output);
+    Assert.assertEquals("{\"empty\":false,\"full\":false,\"cells\":[[0,1,0],[0,0,0],[0,0,2]],"
+        + "\"threeInaLine\":false,\"threeInaLineCharIfExists\":0}", output.toString("UTF-8"));
+    Player max = new Player("Max", "#CAFFEE");
+    Player moritz = new Player("Mo\"ritz\n", null);
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    writer.writeRanking(
+        new Ranking(new Player[] {max, moritz}, new int[] {1, -2147483648}, true), buffer);
+    Assert.assertEquals("{\"playersDescending\":[{\"name\":\"Max\",\"preferredColour\":\"#CAFFEE\"},"
+        + "{\"name\":\"Mo\\\"ritz\\u000a\",\"preferredColour\":null}],"
+        + "\"scoresDescending\":[1,-2147483648],\"gameOver\":true}",
+        new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Verifies output larger than the internal buffer is passed on completely, including multi-byte
+   * characters.
+   */
+  @Test
+  public void testActionsExceedingBuffer() throws Exception {
+    Player player = new Player("Zoë 😀", "#00FF00");
+    XoxClaimFieldAction[] actions = new XoxClaimFieldAction[9];
+    StringBuilder expected = new StringBuilder("[");
+    for (int cell = 0; cell < 9; cell++) {
+      actions[cell] = new XoxClaimFieldAction(cell % 3, cell / 3, player);
+      expected.append(cell == 0 ? "" : ",").append("{\"x\":").append(cell % 3).append(",\"y\":")
+          .append(cell / 3).append(",\"player\":{\"name\":\"Zoë 😀\",\"preferredColour\":\"#00FF00\"}}");
+    }
+    expected.append(']');
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    new XoxJsonWriter(64).writeActions(actions, output);
+    Assert.assertEquals(expected.toString(), output.toString("UTF-8"));
+  }
+}
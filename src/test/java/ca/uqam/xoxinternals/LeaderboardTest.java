@@ -0,0 +1,100 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.Leaderboard;
+import ca.uqam.xoxinternals.controller.LeaderboardEntry;
+import ca.uqam.xoxinternals.controller.ShardedXoxManager;
+import ca.uqam.xoxinternals.controller.XoxMove;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the global leaderboard.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class LeaderboardTest extends XoxTestUtils {
+
+  /**
+   * Verifies finished games of all shards are recorded once, and running games not at all.
+   */
+  @Test
+  public void testGameOutcomes() {
+    ShardedXoxManager manager = new ShardedXoxManager(4);
+    try {
+      // X wins the top row in 3 games.
+      List<XoxMove> moves = new ArrayList<>();
+      int[][] script = {{0, 0}, {0, 1}, {1, 0}, {1, 1}, {2, 0}};
+      for (int game = 0; game < 3; game++) {
+        long gameId = manager.addGame(getDefaultInitSettings(false));
+        for (int turn = 0; turn < script.length; turn++) {
+          moves.add(new XoxMove(gameId, turn % 2 == 0 ? "X" : "O", script[turn][0],
+              script[turn][1]));
+        }
+      }
+      // One more game is still running.
+      long runningGameId = manager.addGame(getDefaultInitSettings(false));
+      moves.add(new XoxMove(runningGameId, "X", 1, 1));
+      manager.performActions(moves);
+
+      Leaderboard leaderboard = manager.getLeaderboard();
+      Assert.assertEquals(3, leaderboard.getFinishedGames());
+      Assert.assertEquals(3, leaderboard.getEntry("X").getWins());
+      Assert.assertEquals(6, leaderboard.getEntry("X").getScore());
+      Assert.assertEquals(3, leaderboard.getEntry("O").getLosses());
+      Assert.assertEquals(1, leaderboard.getRank("X"));
+      Assert.assertEquals(2, leaderboard.getRank("O"));
+      Assert.assertEquals(-1, leaderboard.getRank("Y"));
+    } finally {
+      manager.shutdown();
+    }
+  }
+
+  /**
+   * Verifies ranks and top K reads stay correct while scores grow past the initial score range.
+   */
+  @Test
+  public void testRanksAndTop() {
+    Leaderboard leaderboard = new Leaderboard();
+    // Player i wins i times against the loser, and draws once with the loser.
+    for (int player = 0; player < 50; player++) {
+      for (int win = 0; win < player; win++) {
+        leaderboard.recordWin("p" + player, "loser");
+      }
+      leaderboard.recordDraw("p" + player, "loser");
+    }
+    Assert.assertEquals(51, leaderboard.getPlayerCount());
+    // Score of player i is 2 * i + 1, the loser has 50 draws.
+    Assert.assertEquals(99, leaderboard.getEntry("p49").getScore());
+    Assert.assertEquals(1, leaderboard.getRank("p49"));
+    Assert.assertEquals(51, leaderboard.getRank("p0"));
+    Assert.assertEquals(26, leaderboard.getRank("loser"));
+
+    List<LeaderboardEntry> top = leaderboard.getTop(3);
+    Assert.assertEquals(3, top.size());
+    Assert.assertEquals("p49", top.get(0).getPlayerName());
+    Assert.assertEquals("p48", top.get(1).getPlayerName());
+    Assert.assertEquals("p47", top.get(2).getPlayerName());
+    Assert.assertEquals(51, leaderboard.getTop(100).size());
+    Assert.assertTrue(leaderboard.getTop(0).isEmpty());
+  }
+
+  /**
+   * Verifies a loss, which keeps the score of a player, does not drop the player from the top K.
+   */
+  @Test
+  public void testLossKeepsPlayerListed() {
+    Leaderboard leaderboard = new Leaderboard();
+    leaderboard.recordWin("a", "b");
+    leaderboard.recordWin("b", "a");
+    List<LeaderboardEntry> top = leaderboard.getTop(10);
+    Assert.assertEquals(2, top.size());
+    Assert.assertEquals("a", top.get(0).getPlayerName());
+    Assert.assertEquals(1, top.get(0).getLosses());
+    Assert.assertEquals("b", top.get(1).getPlayerName());
+    Assert.assertEquals(1, top.get(1).getWins());
+    Assert.assertEquals(1, leaderboard.getRank("a"));
+    Assert.assertEquals(1, leaderboard.getRank("b"));
+  }
+}
@@ -0,0 +1,80 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.model.BoardReadOnly;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Concurrency tests for the XoxManager. Multiple threads create and play games in parallel.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class ManagerConcurrencyTest extends XoxTestUtils {
+  private static final int THREADS = 8;
+
+  /**
+   * Verifies concurrently created games receive distinct ids and can be played to the end.
+   */
+  @Test
+  public void testParallelGames() throws Exception {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<Long>> results = new ArrayList<>();
+    for (int i = 0; i < THREADS * 4; i++) {
+      results.add(executor.submit(() -> {
+        long gameId = manager.addGame(getDefaultInitSettings(false));
+        // Always claim the first offered cell, until the game is over.
+        String current = "X";
+        while (!manager.getRanking(gameId).isGameOver()) {
+          manager.performAction(gameId, current, 0);
+          current = current.equals("X") ? "O" : "X";
+        }
+        return gameId;
+      }));
+    }
+    List<Long> gameIds = new ArrayList<>();
+    for (Future<Long> result : results) {
+      long gameId = result.get();
+      Assert.assertFalse("Game id handed out twice", gameIds.contains(gameId));
+      gameIds.add(gameId);
+      Assert.assertTrue(manager.getRanking(gameId).isGameOver());
+    }
+    executor.shutdown();
+  }
+
+  /**
+   * Verifies that threads racing for moves on the same game never claim more cells than turns
+   * allow.
+   */
+  @Test
+  public void testRacingMovesOnSameGame() throws Exception {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      // Every thread tries to move for X, only once it is X's turn one claim may succeed.
+      tasks.add(() -> {
+        manager.performAction(gameId, "X", 0);
+        return null;
+      });
+    }
+    executor.invokeAll(tasks);
+    executor.shutdown();
+    BoardReadOnly board = manager.getBoard(gameId);
+    int claimed = 0;
+    for (int[] row : board.getCells()) {
+      for (int cell : row) {
+        claimed += (cell == 0 ? 0 : 1);
+      }
+    }
+    Assert.assertEquals("Exactly one move for X must have been applied.", 1, claimed);
+  }
+}
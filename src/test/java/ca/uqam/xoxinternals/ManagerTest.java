@@ -125,4 +125,22 @@ public class ManagerTest extends XoxTestUtils {
     Assert.assertFalse("Game was removed but ID is still listed by manager",
         XoxManagerImpl.getInstance().getGames().contains(gameId));
   }
-}
\ No newline at end of file
+
+  /**
+   * Verifies moves of players out of turn, of unknown players and for out of range action indexes
+   * are ignored.
+   */
+  @Test
+  public void testIllegalActionsIgnored() {
+    long gameId = XoxManagerImpl.getInstance().addGame(getDefaultInitSettings(false));
+    XoxManagerImpl.getInstance().performAction(gameId, "O", 0);
+    XoxManagerImpl.getInstance().performAction(gameId, "Z", 0);
+    XoxManagerImpl.getInstance().performAction(gameId, "X", 9);
+    XoxManagerImpl.getInstance().performAction(gameId, "X", -1);
+    Assert.assertTrue(XoxManagerImpl.getInstance().getBoard(gameId).isEmpty());
+    // Index 8 selects the last free cell, i.e. bottom right.
+    XoxManagerImpl.getInstance().performAction(gameId, "X", 8);
+    Assert.assertFalse(XoxManagerImpl.getInstance().getBoard(gameId).isFree(2, 2));
+    Assert.assertEquals(8, XoxManagerImpl.getInstance().getActions(gameId, "O").length);
+  }
+}
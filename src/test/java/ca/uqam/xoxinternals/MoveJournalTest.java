@@ -0,0 +1,140 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.controller.XoxMove;
+import ca.uqam.xoxinternals.controller.XoxMoveStatus;
+import ca.uqam.xoxinternals.model.Player;
+import ca.uqam.xoxinternals.model.XoxInitSettings;
+import ca.uqam.xoxinternals.persistence.DurabilityMode;
+import ca.uqam.xoxinternals.persistence.MoveJournal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the write-ahead move journal.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class MoveJournalTest extends XoxTestUtils {
+
+  /**
+   * Verifies games recorded by the journal are rebuilt on replay, with all of their moves, while
+   * removed games stay removed.
+   */
+  @Test
+  public void testReplay() throws Exception {
+    Path directory = Files.createTempDirectory("xox-journal");
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    long playedId;
+    long removedId;
+    String boardBefore;
+    try (MoveJournal journal = new MoveJournal(directory, DurabilityMode.GROUP_COMMIT)) {
+      manager.setRegistryListener(journal);
+      playedId = manager.addGame(getDefaultInitSettings(true));
+      removedId = manager.addGame(getDefaultInitSettings(false));
+      manager.performAction(playedId, "O", 4);
+      manager.performActions(Arrays.asList(new XoxMove(playedId, "X", 0, 0),
+          new XoxMove(playedId, "O", 2, 2)));
+      manager.removeGame(removedId);
+      boardBefore = manager.getBoard(playedId).toString();
+    } finally {
+      manager.setRegistryListener(null);
+    }
+    // Forget the game without recording it, then rebuild it from the journal.
+    manager.removeGame(playedId);
+    Assert.assertNull(manager.getBoard(playedId));
+    Assert.assertEquals(6, MoveJournal.replay(directory, manager, 0));
+    Assert.assertEquals(boardBefore, manager.getBoard(playedId).toString());
+    Assert.assertEquals("O", manager.getPlayers(playedId)[0].getName());
+    Assert.assertNull(manager.getBoard(removedId));
+    manager.removeGame(playedId);
+    deleteJournal(directory);
+  }
+
+  /**
+   * Verifies a torn record at the end of the journal is cut off, and appending continues after the
+   * last intact record.
+   */
+  @Test
+  public void testTornTail() throws Exception {
+    Path directory = Files.createTempDirectory("xox-journal");
+    try (MoveJournal journal = new MoveJournal(directory, DurabilityMode.SYNC)) {
+      journal.moveApplied(1, 4);
+      journal.gameRemoved(1);
+    }
+    Path file = directory.resolve("journal-00000000000000000000.log");
+    long intactLength = Files.size(file);
+    Files.write(file, new byte[] {0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+    try (MoveJournal journal = new MoveJournal(directory, DurabilityMode.ASYNC)) {
+      Assert.assertEquals(intactLength, Files.size(file));
+      journal.gameRemoved(2);
+    }
+    Assert.assertEquals(3, MoveJournal.replay(directory, XoxManagerImpl.getInstance(), 0));
+    Files.delete(file);
+    Files.delete(directory);
+  }
+
+  /**
+   * Verifies modifications the journal can not record are not applied, and games with player
+   * details too long for a record are rejected.
+   */
+  @Test
+  public void testRejectedRecords() throws Exception {
+    Path directory = Files.createTempDirectory("xox-journal");
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    int gameCount = manager.getGames().size();
+    MoveJournal journal = new MoveJournal(directory, DurabilityMode.SYNC);
+    manager.setRegistryListener(journal);
+    try {
+      String longName = String.join("", Collections.nCopies(70000, "X"));
+      LinkedList<Player> players = new LinkedList<>();
+      players.add(new Player(longName, "#FF0000"));
+      players.add(new Player("O", "#00FF00"));
+      XoxInitSettings settings = new XoxInitSettings(players, "O");
+      try {
+        manager.addGame(settings);
+        Assert.fail("Player details exceeding the record limits must be rejected.");
+      } catch (IllegalArgumentException e) {
+        Assert.assertEquals(gameCount, manager.getGames().size());
+      }
+
+      long gameId = manager.addGame(getDefaultInitSettings(false));
+      journal.close();
+      Assert.assertEquals(XoxMoveStatus.NOT_RECORDED, manager.performActions(
+          Arrays.asList(new XoxMove(gameId, "X", 1, 1)))[0]);
+      manager.performAction(gameId, "X", 0);
+      Assert.assertTrue(manager.getBoard(gameId).isEmpty());
+      try {
+        manager.removeGame(gameId);
+        Assert.fail("Removals the journal can not record must be rejected.");
+      } catch (IllegalStateException e) {
+        Assert.assertNotNull(manager.getBoard(gameId));
+      }
+      manager.setRegistryListener(null);
+      manager.removeGame(gameId);
+    } finally {
+      manager.setRegistryListener(null);
+      journal.close();
+    }
+    deleteJournal(directory);
+  }
+
+  /**
+   * Removes a journal directory with all of its files.
+   */
+  static void deleteJournal(Path directory) throws Exception {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+}
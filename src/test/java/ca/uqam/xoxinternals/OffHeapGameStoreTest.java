@@ -0,0 +1,131 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.model.ModelAccessException;
+import ca.uqam.xoxinternals.model.OffHeapGameStore;
+import ca.uqam.xoxinternals.model.Player;
+import ca.uqam.xoxinternals.model.XoxGameImpl;
+import ca.uqam.xoxinternals.model.XoxGameReadOnly;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the off-heap game store and its game views.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class OffHeapGameStoreTest {
+
+  private static XoxGameImpl newGame(String first, String second) {
+    return new XoxGameImpl(new Player(first, "#FF0000"), new Player(second, "#00FF00"));
+  }
+
+  /**
+   * Verifies a stored game can be played to a win and is correctly reflected by its views.
+   */
+  @Test
+  public void testPlayToWin() throws ModelAccessException {
+    OffHeapGameStore store = new OffHeapGameStore();
+    store.add(7, newGame("X", "O"));
+    XoxGameReadOnly initial = store.getGame(7);
+    Assert.assertEquals("X", initial.getCurrentPlayerName());
+    Assert.assertFalse("Second player must not move first", store.claim(7, 1, 0, 0));
+    Assert.assertFalse("Unknown game must not be claimed", store.claim(8, 0, 0, 0));
+    Assert.assertTrue(store.claim(7, 0, 0, 0));
+    Assert.assertFalse("Occupied cell must not be claimed", store.claim(7, 1, 0, 0));
+    Assert.assertFalse("Cell out of bounds must not be claimed", store.claim(7, 1, 3, 0));
+    Assert.assertTrue(store.claim(7, 1, 0, 1));
+    Assert.assertTrue(store.claim(7, 0, 1, 1));
+    Assert.assertTrue(store.claim(7, 1, 0, 2));
+    Assert.assertEquals("X", store.getGame(7).getCurrentPlayerName());
+    Assert.assertFalse(store.getGame(7).isFinished());
+    Assert.assertTrue(store.claim(7, 0, 2, 2));
+    XoxGameReadOnly game = store.getGame(7);
+    Assert.assertTrue(game.isFinished());
+    Assert.assertFalse(game.isDraw());
+    Assert.assertEquals(0, game.getWinnerIndex());
+    Assert.assertEquals(6, game.getWinningLine());
+    Assert.assertEquals(5, game.getMoveCount());
+    Assert.assertFalse("Finished game must not accept claims", store.claim(7, 1, 1, 0));
+    Assert.assertEquals(1, game.getBoardSnapshot().getCells()[2][2]);
+    Assert.assertEquals(2, game.getBoardSnapshot().getCells()[1][0]);
+    // Views are immutable, the view obtained first still shows the empty board.
+    Assert.assertEquals(0, initial.getMoveCount());
+  }
+
+  /**
+   * Verifies the state of a game is taken over when it is added, and ids are unique.
+   */
+  @Test
+  public void testAddPlayedGame() throws Exception {
+    XoxGameImpl game = newGame("X", "O");
+    game.getModifiableBoard().occupy(1, 1, true);
+    game.setCurrentPlayer(1);
+    game.publishSnapshot();
+    OffHeapGameStore store = new OffHeapGameStore();
+    store.add(0, game);
+    Assert.assertTrue(store.contains(0));
+    Assert.assertEquals("O", store.getGame(0).getCurrentPlayerName());
+    Assert.assertEquals(1, store.getGame(0).getBoardSnapshot().getCells()[1][1]);
+    try {
+      store.add(0, newGame("A", "B"));
+      Assert.fail("Ids must be unique.");
+    } catch (ModelAccessException e) {
+      // expected
+    }
+    Assert.assertArrayEquals(new long[] {0}, store.getGameIds());
+  }
+
+  /**
+   * Verifies records and players of removed games are recycled.
+   */
+  @Test
+  public void testRecycling() throws ModelAccessException {
+    OffHeapGameStore store = new OffHeapGameStore();
+    for (long gameId = 1; gameId <= 100000; gameId++) {
+      store.add(gameId, newGame("X", "O"));
+    }
+    Assert.assertEquals(100000, store.size());
+    Assert.assertEquals(2, store.getPlayerCount());
+    Assert.assertTrue(store.claim(100000, 0, 1, 1));
+    for (long gameId = 1; gameId <= 100000; gameId++) {
+      Assert.assertTrue(store.remove(gameId));
+    }
+    Assert.assertEquals(0, store.size());
+    Assert.assertEquals(0, store.getPlayerCount());
+    Assert.assertNull(store.getGame(1));
+    Assert.assertFalse(store.claim(100000, 1, 0, 0));
+    long reserved = store.getReservedBytes();
+    store.add(100001, newGame("A", "B"));
+    Assert.assertEquals(reserved, store.getReservedBytes());
+    Assert.assertEquals("A", store.getGame(100001).getPlayers()[0].getName());
+    Assert.assertEquals(0, store.getGame(100001).getMoveCount());
+  }
+
+  /**
+   * Verifies racing claims of the same player never apply more than one move.
+   */
+  @Test
+  public void testRacingClaims() throws Exception {
+    OffHeapGameStore store = new OffHeapGameStore();
+    store.add(1, newGame("X", "O"));
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Callable<Boolean>> claims = new ArrayList<>();
+    for (int cell = 0; cell < 9; cell++) {
+      int target = cell;
+      claims.add(() -> store.claim(1, 0, target % 3, target / 3));
+    }
+    int applied = 0;
+    for (Future<Boolean> result : executor.invokeAll(claims)) {
+      applied += result.get() ? 1 : 0;
+    }
+    executor.shutdown();
+    Assert.assertEquals(1, applied);
+    Assert.assertEquals(1, store.getGame(1).getMoveCount());
+  }
+}
@@ -0,0 +1,136 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.EvictionPolicy;
+import ca.uqam.xoxinternals.controller.GameReaper;
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.controller.XoxMove;
+import ca.uqam.xoxinternals.controller.XoxMoveStatus;
+import ca.uqam.xoxinternals.model.OffHeapGameStore;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the off-heap tier of the manager. Every test detaches its store and removes its
+ * games again, so other tests sharing the singleton manager are not affected.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class OffHeapTierTest extends XoxTestUtils {
+
+  /**
+   * Verifies a game moved off-heap stays readable through the manager, and returns to the heap
+   * once it is played on.
+   */
+  @Test
+  public void testMoveOffHeapAndBack() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    OffHeapGameStore store = new OffHeapGameStore();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    try {
+      Assert.assertFalse("No store attached yet", manager.moveOffHeap(gameId));
+      manager.setOffHeapStore(store);
+      manager.performAction(gameId, "X", 4);
+      long hash = manager.getBoardHash(gameId);
+
+      Assert.assertTrue(manager.moveOffHeap(gameId));
+      Assert.assertFalse("Game is stored already", manager.moveOffHeap(gameId));
+      Assert.assertTrue(store.contains(gameId));
+      Assert.assertTrue(manager.getGames().contains(gameId));
+      Assert.assertEquals(1, manager.getBoard(gameId).getCells()[1][1]);
+      Assert.assertEquals(1, manager.getStateVersion(gameId));
+      Assert.assertEquals(hash, manager.getBoardHash(gameId));
+      Assert.assertEquals("O", manager.getPlayers(gameId)[1].getName());
+      Assert.assertFalse(manager.getRanking(gameId).isGameOver());
+      Set<Long> visited = new HashSet<>();
+      manager.visitGames((visitedId, game) -> visited.add(visitedId));
+      Assert.assertTrue(visited.contains(gameId));
+      Assert.assertTrue(store.contains(gameId));
+
+      // Asking for actions brings the game back onto the heap, in the same position.
+      Assert.assertEquals(8, manager.getActions(gameId, "O").length);
+      Assert.assertFalse(store.contains(gameId));
+      Assert.assertEquals(0, manager.getActions(gameId, "X").length);
+      Assert.assertTrue(manager.moveOffHeap(gameId));
+
+      // Moves apply to stored games as well. X wins on the diagonal.
+      XoxMoveStatus[] statuses = manager.performActions(Arrays.asList(
+          new XoxMove(gameId, "O", 1, 0), new XoxMove(gameId, "X", 0, 0),
+          new XoxMove(gameId, "O", 2, 0), new XoxMove(gameId, "X", 2, 2)));
+      for (XoxMoveStatus status : statuses) {
+        Assert.assertEquals(XoxMoveStatus.APPLIED, status);
+      }
+      Assert.assertFalse(store.contains(gameId));
+      Assert.assertEquals(5, manager.getStateVersion(gameId));
+      Assert.assertTrue(manager.getRanking(gameId).isGameOver());
+      Assert.assertFalse("Finished games stay on heap", manager.moveOffHeap(gameId));
+    } finally {
+      manager.setOffHeapStore(null);
+      manager.removeGame(gameId);
+    }
+  }
+
+  /**
+   * Verifies removing a stored game drops it from the store.
+   */
+  @Test
+  public void testRemoveStoredGame() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    OffHeapGameStore store = new OffHeapGameStore();
+    manager.setOffHeapStore(store);
+    try {
+      long gameId = manager.addGame(getDefaultInitSettings(false));
+      Assert.assertTrue(manager.moveOffHeap(gameId));
+      manager.removeGame(gameId);
+      Assert.assertEquals(0, store.size());
+      Assert.assertEquals(0, store.getPlayerCount());
+      Assert.assertFalse(manager.getGames().contains(gameId));
+      Assert.assertNull(manager.getBoard(gameId));
+      Assert.assertEquals(-1, manager.getStateVersion(gameId));
+      Assert.assertEquals(XoxMoveStatus.UNKNOWN_GAME,
+          manager.performActions(Arrays.asList(new XoxMove(gameId, "X", 0, 0)))[0]);
+    } finally {
+      manager.setOffHeapStore(null);
+    }
+  }
+
+  /**
+   * Verifies capacity eviction moves running games off-heap instead of removing them, without
+   * consulting the eviction listener.
+   */
+  @Test
+  public void testCapacityEvictionMovesOffHeap() {
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    OffHeapGameStore store = new OffHeapGameStore();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    manager.setOffHeapStore(store);
+    try {
+      // Afterwards, all other games are more recently used than the game of this test.
+      try (GameReaper reaper = new GameReaper(manager, EvictionPolicy.none(), null)) {
+        reaper.evictNow();
+      }
+      for (long otherId : manager.getGames()) {
+        if (otherId != gameId) {
+          manager.getBoard(otherId);
+        }
+      }
+      EvictionPolicy policy = EvictionPolicy.none().withMaxGames(manager.getGames().size() - 1);
+      try (GameReaper reaper = new GameReaper(manager, policy, (evictedId, game, cause) -> {
+        throw new IllegalStateException("Moving off-heap is no eviction.");
+      })) {
+        Assert.assertEquals(1, reaper.evictNow());
+      }
+      Assert.assertTrue(store.contains(gameId));
+      Assert.assertTrue(manager.getGames().contains(gameId));
+      Assert.assertEquals(0, manager.getStateVersion(gameId));
+      manager.performAction(gameId, "X", 0);
+      Assert.assertFalse(store.contains(gameId));
+      Assert.assertEquals(1, manager.getBoard(gameId).getCells()[0][0]);
+    } finally {
+      manager.setOffHeapStore(null);
+      manager.removeGame(gameId);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.model.BitBoardImpl;
+import ca.uqam.xoxinternals.model.BoardImpl;
+import ca.uqam.xoxinternals.model.ModelAccessException;
+import ca.uqam.xoxinternals.model.PositionTable;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the precomputed position outcome table.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class PositionTableTest {
+  /**
+   * Verifies the empty board maps to a running game without a winner.
+   */
+  @Test
+  public void testEmptyPosition() {
+    int entry = PositionTable.lookup(new BitBoardImpl());
+    Assert.assertFalse(PositionTable.isFinished(entry));
+    Assert.assertEquals(0, PositionTable.getWinner(entry));
+    Assert.assertEquals(-1, PositionTable.getWinningLine(entry));
+  }
+
+  /**
+   * Verifies a win on the last free cell is reported as a win (not as a draw), including line.
+   */
+  @Test
+  public void testWinOnFullBoard() throws ModelAccessException {
+    //  X O X
+    //  O X O
+    //  O X X   <- last move on bottom right completes the diagonal
+    BitBoardImpl board = new BitBoardImpl();
+    int[][] moves = {{0, 0}, {1, 0}, {2, 0}, {0, 1}, {1, 1}, {2, 1}, {1, 2}, {0, 2}, {2, 2}};
+    for (int i = 0; i < moves.length; i++) {
+      board.occupy(moves[i][0], moves[i][1], i % 2 == 0);
+    }
+    Assert.assertTrue(board.isFull());
+    int entry = PositionTable.lookup(board);
+    Assert.assertTrue(PositionTable.isFinished(entry));
+    Assert.assertFalse(PositionTable.isDraw(entry));
+    Assert.assertEquals(1, PositionTable.getWinner(entry));
+    Assert.assertEquals(6, PositionTable.getWinningLine(entry));
+  }
+
+  /**
+   * Verifies matrix board and bitboard compute identical position indexes.
+   */
+  @Test
+  public void testPositionIndexAgreement() throws ModelAccessException {
+    BitBoardImpl bitBoard = new BitBoardImpl();
+    BoardImpl matrixBoard = new BoardImpl();
+    int[][] moves = {{0, 0}, {2, 2}, {1, 2}, {0, 2}, {1, 1}, {0, 1}, {2, 1}, {1, 0}, {2, 0}};
+    for (int i = 0; i < moves.length; i++) {
+      bitBoard.occupy(moves[i][0], moves[i][1], i % 2 == 0);
+      matrixBoard.occupy(moves[i][0], moves[i][1], i % 2 == 0);
+      Assert.assertEquals(matrixBoard.getPositionIndex(), bitBoard.getPositionIndex());
+    }
+    Assert.assertTrue(PositionTable.isDraw(PositionTable.lookup(bitBoard)));
+  }
+}
@@ -0,0 +1,77 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.Ranking;
+import ca.uqam.xoxinternals.controller.XoxManager;
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.controller.XoxMove;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for memoized rankings.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class RankingCacheTest extends XoxTestUtils {
+
+  /**
+   * Verifies rankings are shared while the outcome of a game is open, and replaced once the game
+   * ends.
+   */
+  @Test
+  public void testSharedRankings() throws Exception {
+    XoxManager manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    Ranking initial = manager.getRanking(gameId);
+    Assert.assertFalse(initial.isGameOver());
+    Assert.assertSame(initial, manager.getRanking(gameId));
+
+    // Moves that do not end the game do not change the ranking.
+    manager.performActions(Arrays.asList(new XoxMove(gameId, "X", 0, 0),
+        new XoxMove(gameId, "O", 0, 1), new XoxMove(gameId, "X", 1, 0),
+        new XoxMove(gameId, "O", 1, 1)));
+    Assert.assertSame(initial, manager.getRanking(gameId));
+
+    // X completes the top row.
+    manager.performActions(Arrays.asList(new XoxMove(gameId, "X", 2, 0)));
+    Ranking result = manager.getRanking(gameId);
+    Assert.assertNotSame(initial, result);
+    Assert.assertTrue(result.isGameOver());
+    Assert.assertEquals(1, result.getScoreForPlayer("X"));
+    Assert.assertEquals(0, result.getScoreForPlayer("O"));
+    Assert.assertSame(result, manager.getRanking(gameId));
+
+    manager.removeGame(gameId);
+    Assert.assertNull(manager.getRanking(gameId));
+  }
+
+  /**
+   * Verifies callers writing into the arrays of a shared ranking do not affect later readers.
+   */
+  @Test
+  public void testSharedRankingsAreImmutable() throws Exception {
+    XoxManager manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    manager.performActions(Arrays.asList(new XoxMove(gameId, "X", 0, 0),
+        new XoxMove(gameId, "O", 0, 1), new XoxMove(gameId, "X", 1, 0),
+        new XoxMove(gameId, "O", 1, 1), new XoxMove(gameId, "X", 2, 0)));
+    Ranking ranking = manager.getRanking(gameId);
+
+    ranking.getScoresDescending()[0] = 42;
+    ranking.getPlayersDescending()[0].setName("Mallory");
+    ranking.getPlayersDescending()[1] = null;
+
+    Ranking shared = manager.getRanking(gameId);
+    Assert.assertSame(ranking, shared);
+    Assert.assertEquals(1, shared.getScoresDescending()[0]);
+    Assert.assertEquals("X", shared.getPlayersDescending()[0].getName());
+    Assert.assertEquals("O", shared.getPlayersDescending()[1].getName());
+    // Indexed accessors read the same ranking without copying it.
+    Assert.assertEquals(2, shared.getPlayerCount());
+    Assert.assertEquals("X", shared.getPlayerName(0));
+    Assert.assertEquals(1, shared.getScore(0));
+    Assert.assertEquals(0, new Ranking().getPlayerCount());
+    manager.removeGame(gameId);
+  }
+}
@@ -0,0 +1,92 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.ShardedXoxManager;
+import ca.uqam.xoxinternals.controller.XoxMove;
+import ca.uqam.xoxinternals.controller.XoxMoveStatus;
+import ca.uqam.xoxinternals.model.XoxInitSettings;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the sharded XoxManager.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class ShardedManagerTest extends XoxTestUtils {
+  private ShardedXoxManager manager;
+
+  @Before
+  public void setUp() {
+    manager = new ShardedXoxManager(4);
+  }
+
+  @After
+  public void tearDown() {
+    manager.shutdown();
+  }
+
+  /**
+   * Verifies games spread over shards are all listed, and can be removed again.
+   */
+  @Test
+  public void testAddListRemove() {
+    List<Long> gameIds = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      gameIds.add(manager.addGame(getDefaultInitSettings(i % 2 == 0)));
+    }
+    Assert.assertEquals(50, manager.getGames().size());
+    Assert.assertTrue(manager.getGames().containsAll(gameIds));
+    for (long gameId : gameIds) {
+      Assert.assertNotNull(manager.getBoard(gameId));
+      manager.removeGame(gameId);
+      Assert.assertNull(manager.getBoard(gameId));
+    }
+    Assert.assertTrue(manager.getGames().isEmpty());
+  }
+
+  /**
+   * Verifies a game hosted on a shard can be played to the end.
+   */
+  @Test
+  public void testPlayGame() {
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    Assert.assertEquals(0, manager.getActions(gameId, "O").length);
+    // X and O alternately claim the first free cell. X completes the diagonal from top-right with
+    // move 7.
+    String current = "X";
+    for (int move = 0; move < 7; move++) {
+      Assert.assertFalse(manager.getRanking(gameId).isGameOver());
+      manager.performAction(gameId, current, 0);
+      current = current.equals("X") ? "O" : "X";
+    }
+    Assert.assertTrue(manager.getRanking(gameId).isGameOver());
+    Assert.assertEquals("X", manager.getRanking(gameId).getPlayersDescending()[0].getName());
+    Assert.assertNull("Unknown games have no ranking", manager.getRanking(43));
+  }
+
+  /**
+   * Verifies an interrupted caller still receives the results of all work done on its behalf,
+   * and keeps its interrupt flag.
+   */
+  @Test
+  public void testInterruptedCaller() {
+    List<XoxInitSettings> settings = Collections.nCopies(8, getDefaultInitSettings(false));
+    Thread.currentThread().interrupt();
+    long[] gameIds = manager.addGames(settings);
+    List<XoxMove> moves = new ArrayList<>();
+    for (long gameId : gameIds) {
+      moves.add(new XoxMove(gameId, "X", 1, 1));
+    }
+    XoxMoveStatus[] statuses = manager.performActions(moves);
+    Assert.assertTrue(Thread.interrupted());
+    for (int i = 0; i < gameIds.length; i++) {
+      Assert.assertEquals(XoxMoveStatus.APPLIED, statuses[i]);
+      Assert.assertFalse(manager.getBoard(gameIds[i]).isEmpty());
+    }
+  }
+}
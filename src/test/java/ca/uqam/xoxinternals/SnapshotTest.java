@@ -0,0 +1,169 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.model.Player;
+import ca.uqam.xoxinternals.persistence.DurabilityMode;
+import ca.uqam.xoxinternals.persistence.MoveJournal;
+import ca.uqam.xoxinternals.persistence.RegistrySnapshot;
+import ca.uqam.xoxinternals.persistence.SnapshotScheduler;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for registry snapshots and journal compaction.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class SnapshotTest extends XoxTestUtils {
+
+  /**
+   * Verifies a registry is restored from a snapshot plus the journal tail, that covered segments
+   * are deleted and that finished games survive compaction, including their leaderboard outcome.
+   */
+  @Test
+  public void testRestoreFromSnapshotAndTail() throws Exception {
+    Path directory = Files.createTempDirectory("xox-journal");
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    long runningId;
+    long finishedId;
+    long lateId;
+    String runningBoard;
+    String finishedBoard;
+    String lateBoard;
+    // Tiny segments, so nearly every batch rolls over to a new segment.
+    try (MoveJournal journal = new MoveJournal(directory, DurabilityMode.SYNC, 64)) {
+      manager.setRegistryListener(journal);
+      runningId = manager.addGame(getDefaultInitSettings(false));
+      finishedId = manager.addGame(getDefaultInitSettings(false));
+      manager.performAction(runningId, "X", 4);
+      // X claims the top row, O claims cells of the middle row in between.
+      int[] actionIndexes = {0, 2, 0, 1, 0};
+      for (int move = 0; move < actionIndexes.length; move++) {
+        manager.performAction(finishedId, move % 2 == 0 ? "X" : "O", actionIndexes[move]);
+      }
+      Assert.assertTrue(manager.getRanking(finishedId).isGameOver());
+      finishedBoard = manager.getBoard(finishedId).toString();
+      SnapshotScheduler scheduler = new SnapshotScheduler(directory, manager, journal);
+      scheduler.snapshot();
+      scheduler.close();
+      Assert.assertEquals("Covered segments must be deleted.", 2, countFiles(directory));
+      // Tail: modifications after the snapshot.
+      manager.performAction(runningId, "O", 0);
+      lateId = manager.addGame(getDefaultInitSettings(true));
+      manager.performAction(lateId, "O", 8);
+      runningBoard = manager.getBoard(runningId).toString();
+      lateBoard = manager.getBoard(lateId).toString();
+    } finally {
+      manager.setRegistryListener(null);
+    }
+    // Simulate a restart by forgetting all journaled games.
+    manager.removeGame(runningId);
+    manager.removeGame(finishedId);
+    manager.removeGame(lateId);
+    int winsBefore = manager.getLeaderboard().getEntry("X").getWins();
+    try (MoveJournal journal = MoveJournal.open(directory, DurabilityMode.ASYNC, manager)) {
+      Assert.assertEquals(runningBoard, manager.getBoard(runningId).toString());
+      Assert.assertEquals(lateBoard, manager.getBoard(lateId).toString());
+      Assert.assertEquals(finishedBoard, manager.getBoard(finishedId).toString());
+      Assert.assertTrue(manager.getRanking(finishedId).isGameOver());
+      Assert.assertEquals("X", manager.getRanking(finishedId).getPlayerName(0));
+      Assert.assertEquals(winsBefore + 1, manager.getLeaderboard().getEntry("X").getWins());
+      Assert.assertEquals("X", manager.getPlayers(runningId)[0].getName());
+    } finally {
+      manager.setRegistryListener(null);
+    }
+    manager.removeGame(runningId);
+    manager.removeGame(finishedId);
+    manager.removeGame(lateId);
+    MoveJournalTest.deleteJournal(directory);
+  }
+
+  /**
+   * Verifies a snapshot whose header points the dictionary elsewhere than right after the game
+   * entries is rejected, rather than read at a wrong position.
+   */
+  @Test
+  public void testCorruptLayout() throws Exception {
+    Path directory = Files.createTempDirectory("xox-journal");
+    Path file = RegistrySnapshot.write(directory, XoxManagerImpl.getInstance(), 0);
+    byte[] content = Files.readAllBytes(file);
+    // Dictionary position beyond 2 GiB.
+    ByteBuffer.wrap(content).putLong(17, 1L << 33);
+    Files.write(file, content);
+    try {
+      RegistrySnapshot.loadLatest(directory, XoxManagerImpl.getInstance());
+      Assert.fail("Corrupt snapshot must be rejected.");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("Corrupt layout"));
+    }
+    Files.delete(file);
+    Files.delete(directory);
+  }
+
+  /**
+   * Verifies the moves of the sample game are restored onto the sample game a restarted manager
+   * registers on its own, rather than dropped because the id is already taken.
+   */
+  @Test
+  public void testRestoreSampleGame() throws Exception {
+    Path directory = Files.createTempDirectory("xox-journal");
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    Player[] players = manager.getPlayers(42);
+    // Start from a fresh sample game, other tests may have played on it.
+    manager.removeGame(42);
+    manager.restoreGame(42, players[0], players[1]);
+    manager.performAction(42, players[0].getName(), 4);
+    String sampleBoard = manager.getBoard(42).toString();
+    Path file = RegistrySnapshot.write(directory, manager, 0);
+    // Simulate a restart, which registers an empty sample game.
+    manager.removeGame(42);
+    manager.restoreGame(42, players[0], players[1]);
+    RegistrySnapshot.loadLatest(directory, manager);
+    Assert.assertEquals(sampleBoard, manager.getBoard(42).toString());
+    Assert.assertEquals(1, manager.getStateVersion(42));
+    Files.delete(file);
+    Files.delete(directory);
+  }
+
+  /**
+   * Verifies a won game whose cells, replayed in board order, would form the line too early is
+   * restored with the winning claim last.
+   */
+  @Test
+  public void testRestoreWonGame() throws Exception {
+    Path directory = Files.createTempDirectory("xox-journal");
+    XoxManagerImpl manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    // X claims the bottom right corner first, then completes the top row with the final claim.
+    int[] cells = {8, 3, 0, 4, 1, 6, 2};
+    for (int cell : cells) {
+      Assert.assertTrue(manager.restoreMove(gameId, cell));
+    }
+    String wonBoard = manager.getBoard(gameId).toString();
+    Path file = RegistrySnapshot.write(directory, manager, 0);
+    manager.removeGame(gameId);
+    RegistrySnapshot.loadLatest(directory, manager);
+    Assert.assertEquals(wonBoard, manager.getBoard(gameId).toString());
+    Assert.assertEquals(cells.length, manager.getStateVersion(gameId));
+    Assert.assertTrue(manager.getRanking(gameId).isGameOver());
+    Assert.assertEquals("X", manager.getRanking(gameId).getPlayerName(0));
+    manager.removeGame(gameId);
+    Files.delete(file);
+    Files.delete(directory);
+  }
+
+  private static int countFiles(Path directory) throws Exception {
+    int count = 0;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
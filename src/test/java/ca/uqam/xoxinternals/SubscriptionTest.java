@@ -0,0 +1,153 @@
+package ca.uqam.xoxinternals;
+
+import ca.uqam.xoxinternals.controller.GameSubscription;
+import ca.uqam.xoxinternals.controller.XoxManager;
+import ca.uqam.xoxinternals.controller.XoxManagerImpl;
+import ca.uqam.xoxinternals.controller.XoxMove;
+import ca.uqam.xoxinternals.model.BoardSnapshot;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for game state subscriptions and long-polls.
+ *
+ * @author Maximilian Schiedermeier
+ */
+public class SubscriptionTest extends XoxTestUtils {
+
+  /**
+   * Verifies a long-poll completes once a move is applied.
+   */
+  @Test
+  public void testLongPoll() throws Exception {
+    XoxManager manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    CompletableFuture<BoardSnapshot> poll = manager.awaitBoardChange(gameId, 0);
+    Assert.assertFalse(poll.isDone());
+
+    manager.performActions(Arrays.asList(new XoxMove(gameId, "X", 1, 1)));
+    BoardSnapshot board = poll.get(5, TimeUnit.SECONDS);
+    Assert.assertEquals(1, board.getVersion());
+    Assert.assertEquals(1, board.getCells()[1][1]);
+    manager.removeGame(gameId);
+  }
+
+  /**
+   * Verifies a long-poll for an outdated version completes right away.
+   */
+  @Test
+  public void testOutdatedVersion() throws Exception {
+    XoxManager manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    manager.performActions(Arrays.asList(new XoxMove(gameId, "X", 0, 0),
+        new XoxMove(gameId, "O", 1, 0)));
+    CompletableFuture<BoardSnapshot> poll = manager.awaitBoardChange(gameId, 1);
+    Assert.assertTrue(poll.isDone());
+    Assert.assertEquals(2, poll.get().getVersion());
+    manager.removeGame(gameId);
+  }
+
+  /**
+   * Verifies removing a game completes pending long-polls with null, and polls for unknown games
+   * complete with null.
+   */
+  @Test
+  public void testRemoval() throws Exception {
+    XoxManager manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    CompletableFuture<BoardSnapshot> poll = manager.awaitBoardChange(gameId, 0);
+    manager.removeGame(gameId);
+    Assert.assertNull(poll.get(5, TimeUnit.SECONDS));
+    Assert.assertNull(manager.awaitBoardChange(gameId, 0).get());
+    Assert.assertNull(manager.subscribe(gameId, (id, board, gameOver) -> { }));
+  }
+
+  /**
+   * Verifies a listener is notified about moves up to the end of the game, on a thread other than
+   * the one applying the moves, and no longer once cancelled.
+   */
+  @Test
+  public void testListener() throws Exception {
+    XoxManager manager = XoxManagerImpl.getInstance();
+    long gameId = manager.addGame(getDefaultInitSettings(false));
+    BlockingQueue<Boolean> gameOverFlags = new LinkedBlockingQueue<>();
+    BlockingQueue<Long> versions = new LinkedBlockingQueue<>();
+    Thread applyingThread = Thread.currentThread();
+    GameSubscription subscription = manager.subscribe(gameId, (id, board, gameOver) -> {
+      if (Thread.currentThread() == applyingThread || id != gameId) {
+        return;
+      }
+      versions.add(board.getVersion());
+      gameOverFlags.add(gameOver);
+    });
+
+    // X claims the top row.
+    int[][] script = {{0, 0}, {0, 1}, {1, 0}, {1, 1}, {2, 0}};
+    String[] players = {"X", "O"};
+    for (int turn = 0; turn < script.length; turn++) {
+      manager.performActions(Arrays.asList(
+          new XoxMove(gameId, players[turn % 2], script[turn][0], script[turn][1])));
+      // Await each notification, so no moves are coalesced.
+      Assert.assertEquals(Long.valueOf(turn + 1), versions.poll(5, TimeUnit.SECONDS));
+      Assert.assertEquals(turn == script.length - 1, gameOverFlags.poll(5, TimeUnit.SECONDS));
+    }
+
+    subscription.cancel();
+    manager.removeGame(gameId);
+
+    // A cancelled subscription receives nothing.
+    long otherGameId = manager.addGame(getDefaultInitSettings(false));
+    manager.subscribe(otherGameId, (id, board, gameOver) -> versions.add(board.getVersion()))
+        .cancel();
+    manager.performActions(Arrays.asList(new XoxMove(otherGameId, "X", 0, 0)));
+    Assert.assertNull(versions.poll(100, TimeUnit.MILLISECONDS));
+    manager.removeGame(otherGameId);
+  }
+
+  /**
+   * Verifies long-polls complete while other callers concurrently subscribe to and cancel from the
+   * same game, and a failing listener does not keep others from being notified.
+   */
+  @Test
+  public void testConcurrentCancel() throws Exception {
+    XoxManager manager = XoxManagerImpl.getInstance();
+    AtomicLong watchedGameId = new AtomicLong(manager.addGame(getDefaultInitSettings(false)));
+    AtomicBoolean running = new AtomicBoolean(true);
+    Thread churner = new Thread(() -> {
+      while (running.get()) {
+        GameSubscription subscription = manager.subscribe(watchedGameId.get(),
+            (id, board, gameOver) -> {
+              throw new IllegalStateException("Failing listener");
+            });
+        if (subscription != null) {
+          subscription.cancel();
+        }
+      }
+    });
+    churner.start();
+    try {
+      for (int round = 0; round < 200; round++) {
+        long gameId = watchedGameId.get();
+        BlockingQueue<Long> versions = new LinkedBlockingQueue<>();
+        manager.subscribe(gameId, (id, board, gameOver) -> versions.add(board.getVersion()));
+        CompletableFuture<BoardSnapshot> poll = manager.awaitBoardChange(gameId, 0);
+        manager.performActions(Arrays.asList(new XoxMove(gameId, "X", 1, 1)));
+        Assert.assertEquals(1, poll.get(5, TimeUnit.SECONDS).getVersion());
+        Assert.assertEquals(Long.valueOf(1), versions.poll(5, TimeUnit.SECONDS));
+        watchedGameId.set(manager.addGame(getDefaultInitSettings(false)));
+        manager.removeGame(gameId);
+      }
+    } finally {
+      running.set(false);
+      churner.join();
+      manager.removeGame(watchedGameId.get());
+    }
+  }
+}